@@ -13,7 +13,10 @@ public class AndroidLauncher extends AndroidApplication {
         super.onCreate(savedInstanceState);
         AndroidApplicationConfiguration configuration = new AndroidApplicationConfiguration();
         configuration.useImmersiveMode = true; // Recommended, but not required.
-        initialize(new TeamTiltMain(), configuration);
+        TeamTiltMain game = new TeamTiltMain();
+        // Keep physics off the render thread when there is a core to spare
+        game.setThreadedSimulation(Runtime.getRuntime().availableProcessors() > 1);
+        initialize(game, configuration);
     }
 
     @Override
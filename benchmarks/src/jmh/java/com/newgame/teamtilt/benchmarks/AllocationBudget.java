@@ -0,0 +1,175 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.newgame.teamtilt.FollowCamera;
+import com.newgame.teamtilt.Platform;
+import com.newgame.teamtilt.Player;
+import com.newgame.teamtilt.levels.LevelFactory;
+import com.newgame.teamtilt.multiplayer.DesktopMultiplayerService;
+import com.newgame.teamtilt.multiplayer.MultiplayerManager;
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+import com.newgame.teamtilt.multiplayer.SnapshotBuffer;
+import com.newgame.teamtilt.simulation.ClientPrediction;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import com.newgame.teamtilt.simulation.InputFrame;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Runs the per-frame game path headless on every level and fails if it allocates
+ * more than a budget per frame. The frame calls the same code GameScreen.render
+ * does while online: MultiplayerManager event polling, state sync, input
+ * forwarding and reconciliation over the offline desktop service, remote players
+ * sampled from their snapshot buffers, fixed steps with prediction, the follow
+ * camera and the view culling queries. The order of those calls is mirrored from
+ * GameScreen rather than shared with it. Drawing is not measured: the world
+ * batch, the stage, the performance HUD and ToastManager.render all need a GL
+ * context. Wired into {@code check} by the allocationBudget task.
+ */
+public final class AllocationBudget {
+    // Average bytes per frame allowed once warmed up; override with -Dteamtilt.allocationBudget
+    private static final long DEFAULT_BUDGET = 64;
+    private static final int WARMUP_FRAMES = 1000;
+    private static final int MEASURED_FRAMES = 2000;
+    private static final int REMOTE_PLAYERS = 3;
+    private static final float VIEW_WIDTH = 640f, VIEW_HEIGHT = 480f;
+    private static final float FRAME_DELTA = 1 / 60f;
+
+    private final int worldIndex, levelIndex;
+    private final GameSimulation simulation;
+    private final Player player;
+    private final ClientPrediction prediction;
+    private final MultiplayerManager multiplayer;
+    private final FollowCamera followCamera;
+    private final Player[] remoteBodies = new Player[REMOTE_PLAYERS];
+    private final MultiplayerManager.MultiplayerPlayer[] remoteOwners = new MultiplayerManager.MultiplayerPlayer[REMOTE_PLAYERS];
+    private final MultiplayerService.PlayerData localData = new MultiplayerService.PlayerData(null);
+    private final MultiplayerService.PlayerData received = new MultiplayerService.PlayerData(null);
+    private final MultiplayerService.PlayerData authoritativeState = new MultiplayerService.PlayerData(null);
+    private final SnapshotBuffer.Sample sample = new SnapshotBuffer.Sample();
+    private final Array<Platform> visiblePlatforms = new Array<>();
+    private final Array<Player> visiblePlayers = new Array<>();
+    // Epoch milliseconds like GameScreen's remote clock, advanced one step per frame
+    private long clock = System.currentTimeMillis();
+    private int frame = 0;
+
+    private AllocationBudget(int worldIndex, int levelIndex) {
+        this.worldIndex = worldIndex;
+        this.levelIndex = levelIndex;
+        simulation = new GameSimulation(LevelFactory.getLevel(worldIndex, levelIndex));
+        player = simulation.addPlayer();
+        prediction = new ClientPrediction(simulation, 0);
+
+        // Sign in and open a room on the offline service, then seat the remote players
+        multiplayer = new MultiplayerManager(new DesktopMultiplayerService());
+        multiplayer.initialize();
+        multiplayer.pollEvents();
+        multiplayer.createRoom(REMOTE_PLAYERS + 1);
+        multiplayer.pollEvents();
+        for (int i = 0; i < REMOTE_PLAYERS; i++) {
+            multiplayer.onPlayerJoined(new MultiplayerService.PlayerInfo("remote_" + i, "Remote " + i, false, i + 1));
+        }
+        for (int i = 0; i < REMOTE_PLAYERS; i++) {
+            remoteOwners[i] = multiplayer.getRemotePlayer(i + 1);
+            remoteBodies[i] = simulation.addRemotePlayer(remoteOwners[i].getId());
+        }
+
+        OrthographicCamera camera = new OrthographicCamera();
+        camera.setToOrtho(false, VIEW_WIDTH, VIEW_HEIGHT);
+        followCamera = new FollowCamera(camera);
+    }
+
+    private void frame() {
+        frame++;
+
+        // Network updates as they would arrive: remote players every ~100 ms, and now and
+        // then a server state that disagrees with the prediction and forces a replay
+        for (int i = 0; i < REMOTE_PLAYERS; i++) {
+            if (frame % 6 == i) {
+                received.set(remoteOwners[i].getId(), 150f + i * 200f + (frame % 300), 320f, 1f, 0f, false, false, true);
+                received.slot = i + 1;
+                received.timestamp = clock;
+                multiplayer.onPlayerDataReceived(received.playerId, received);
+            }
+        }
+        if (frame % 30 == 0) {
+            player.getPlayerData(received);
+            received.x += 10f;
+            multiplayer.onAuthoritativeState(simulation.getInput(0).sequence - 3, received);
+        }
+
+        // GameScreen.render: events, then state sync and reconciliation
+        multiplayer.pollEvents();
+        player.getPlayerData(localData);
+        multiplayer.updatePlayerData(localData.x, localData.y, localData.velocityX, localData.velocityY,
+            localData.isJumping, localData.isMovingLeft, localData.isMovingRight);
+        multiplayer.takeLevelComplete(worldIndex, levelIndex);
+        multiplayer.isRoomLevelPending();
+        int acknowledged = multiplayer.takeAuthoritativeState(authoritativeState);
+        if (acknowledged >= 0) {
+            prediction.reconcile(acknowledged, authoritativeState.x, authoritativeState.y,
+                authoritativeState.velocityX, authoritativeState.velocityY);
+        }
+
+        // One fixed step, as in GameScreen.stepSimulation: alternating direction with the occasional jump
+        boolean right = (frame / 90) % 2 == 0;
+        InputFrame input = simulation.getInput(0);
+        input.set(!right, right, frame % 45 == 0);
+        prediction.record();
+        simulation.setPredicting(multiplayer.isAuthoritative());
+        multiplayer.sendInput(input.sequence, input.buttons);
+        clock += 16;
+        for (int i = 0; i < REMOTE_PLAYERS; i++) {
+            if (remoteOwners[i].sample(clock, sample)) {
+                remoteBodies[i].setRemoteTarget(sample.x, sample.y,
+                    sample.isJumping, sample.isMovingLeft, sample.isMovingRight);
+            }
+        }
+        simulation.step();
+        prediction.storeResult();
+
+        // Camera and culling queries around the player
+        followCamera.update(FRAME_DELTA, !simulation.isLevelComplete(), player.getInterpolatedX(1f),
+            player.getInterpolatedY(1f), simulation.getBounds());
+        Rectangle view = followCamera.getView();
+        visiblePlatforms.clear();
+        simulation.queryPlatforms(view.x, view.y, view.width, view.height, visiblePlatforms);
+        visiblePlayers.clear();
+        simulation.queryPlayers(view.x - Player.WIDTH, view.y - Player.HEIGHT,
+            view.width + 2 * Player.WIDTH, view.height + 2 * Player.HEIGHT, visiblePlayers);
+    }
+
+    public static void main(String[] args) {
+        Headless.start();
+        long budget = Long.getLong("teamtilt.allocationBudget", DEFAULT_BUDGET);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        boolean failed = false;
+        for (int w = 1; w <= LevelFactory.getWorldCount(); w++) {
+            for (int l = 1; l <= LevelFactory.getLevelCount(w); l++) {
+                AllocationBudget run = new AllocationBudget(w, l);
+                for (int i = 0; i < WARMUP_FRAMES; i++) {
+                    run.frame();
+                }
+                long before = threads.getThreadAllocatedBytes(threadId);
+                for (int i = 0; i < MEASURED_FRAMES; i++) {
+                    run.frame();
+                }
+                long perFrame = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_FRAMES;
+                run.multiplayer.dispose();
+                run.simulation.dispose();
+
+                boolean over = perFrame > budget;
+                failed |= over;
+                System.out.println("World " + w + " level " + l + ": " + perFrame + " bytes/frame" + (over ? "  OVER BUDGET" : ""));
+            }
+        }
+        if (failed) {
+            System.err.println("Per-frame allocation exceeds the budget of " + budget + " bytes");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.physics.box2d.Box2D;
+
+/**
+ * Boots just enough of libGDX for core code to run without a GL context
+ */
+final class Headless {
+    private static boolean started = false;
+
+    private Headless() {}
+
+    static synchronized void start() {
+        if (started) return;
+        started = true;
+        Box2D.init();
+        if (Gdx.app == null) {
+            HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+            // Only Gdx.app, Gdx.files and preferences are needed; keep the idle loop cheap
+            config.updatesPerSecond = 1;
+            config.preferencesDirectory = "build/benchmark-prefs/";
+            new HeadlessApplication(new ApplicationAdapter() {}, config);
+        }
+    }
+}
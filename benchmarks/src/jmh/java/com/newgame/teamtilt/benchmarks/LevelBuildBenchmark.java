@@ -0,0 +1,51 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.newgame.teamtilt.Platform;
+import com.newgame.teamtilt.levels.LevelFactory;
+import com.newgame.teamtilt.simulation.LevelGeometryBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of LevelFactory.getLevel(...).build(...) plus its collision geometry into an empty world
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LevelBuildBenchmark {
+    @Param({"1", "2", "3", "4"})
+    public int worldIndex;
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int levelIndex;
+
+    private World world;
+    private Array<Platform> platforms;
+    private final LevelGeometryBuilder geometry = new LevelGeometryBuilder();
+
+    // Building mutates the world, so every call needs a fresh one. Creating it is not part of the measurement.
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Headless.start();
+        world = new World(new Vector2(0, -9.8f), true);
+        platforms = new Array<>();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public Array<Platform> build() {
+        LevelFactory.getLevel(worldIndex, levelIndex).build(world, platforms);
+        geometry.build(world, platforms);
+        return platforms;
+    }
+}
@@ -0,0 +1,61 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.newgame.teamtilt.Platform;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import com.newgame.teamtilt.simulation.LevelGeometryBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collision geometry for synthetic levels far larger than the shipped ones. Every
+ * other row is a continuous floor of touching platforms that merges into one box.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LevelGeometryBenchmark {
+    private static final int PER_ROW = 50;
+
+    @Param({"100", "1000", "5000"})
+    public int platformCount;
+
+    private final Array<Platform> platforms = new Array<>();
+    private final LevelGeometryBuilder geometry = new LevelGeometryBuilder();
+    private World world;
+
+    @Setup(Level.Trial)
+    public void createLevel() {
+        Headless.start();
+        platforms.clear();
+        for (int i = 0; i < platformCount; i++) {
+            int row = i / PER_ROW;
+            int column = i % PER_ROW;
+            // Even rows touch edge to edge, odd rows leave gaps
+            float spacing = row % 2 == 0 ? GameSimulation.PLATFORM_WIDTH : GameSimulation.PLATFORM_WIDTH * 2;
+            platforms.add(new Platform(column * spacing, row * 120f,
+                GameSimulation.PLATFORM_WIDTH, GameSimulation.PLATFORM_HEIGHT));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        world = new World(new Vector2(0, -9.8f), true);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public Body build() {
+        return geometry.build(world, platforms);
+    }
+}
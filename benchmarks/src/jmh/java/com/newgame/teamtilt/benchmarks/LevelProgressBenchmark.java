@@ -0,0 +1,63 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.newgame.teamtilt.levels.LevelProgress;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading and saving level completion
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LevelProgressBenchmark {
+    @Setup(Level.Trial)
+    public void setUp() {
+        Headless.start();
+        fillProgress();
+    }
+
+    // Most levels completed, the case a long-time player hits on every LevelsScreen
+    static void fillProgress() {
+        LevelProgress.reset();
+        for (int w = 1; w <= 4; w++) {
+            for (int l = 1; l <= 5; l++) {
+                LevelProgress.markCompleted(w, l);
+            }
+        }
+    }
+
+    /**
+     * Puts the last level back to not completed before every persist call
+     */
+    @State(Scope.Thread)
+    public static class Unfinished {
+        @Setup(Level.Invocation)
+        public void setUp() {
+            Headless.start();
+            fillProgress();
+            LevelProgress.flush();
+        }
+    }
+
+    @Benchmark
+    public boolean isCompleted() {
+        return LevelProgress.isCompleted(3, 4);
+    }
+
+    @Benchmark
+    public boolean load() {
+        // reload() waits for queued writes, then the next lookup reads the journal back
+        LevelProgress.reload();
+        return LevelProgress.isCompleted(3, 4);
+    }
+
+    @Benchmark
+    public void persist(Unfinished unfinished) {
+        // Completing a new level queues one journal record; the file write happens on the writer thread
+        LevelProgress.markCompleted(4, 6);
+    }
+}
@@ -0,0 +1,54 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.badlogic.gdx.utils.Json;
+import com.newgame.teamtilt.Player;
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing and encoding the state sent every multiplayer sync
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PlayerDataBenchmark {
+    private GameSimulation simulation;
+    private Player player;
+    private MultiplayerService.PlayerData data;
+    private Json json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Headless.start();
+        simulation = new GameSimulation(null);
+        player = simulation.addPlayer();
+        simulation.step();
+        data = player.getPlayerData();
+        json = new Json();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.dispose();
+    }
+
+    @Benchmark
+    public MultiplayerService.PlayerData create() {
+        return new MultiplayerService.PlayerData("desktop_player_1", 150f, 320f, 2.5f, -1f, false, false, true);
+    }
+
+    @Benchmark
+    public MultiplayerService.PlayerData fromPlayer() {
+        return player.getPlayerData();
+    }
+
+    @Benchmark
+    public String serializeJson() {
+        return json.toJson(data);
+    }
+}
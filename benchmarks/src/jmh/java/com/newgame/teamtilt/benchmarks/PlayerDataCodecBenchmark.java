@@ -0,0 +1,88 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+import com.newgame.teamtilt.multiplayer.net.PlayerDataCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary player updates: an encode/decode round trip each way, and parsing a stale update.
+ * The round trip also reports encoded sizes as counters, for comparison with the JSON form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PlayerDataCodecBenchmark {
+    /**
+     * Encoded update sizes in bytes, listed next to the round trip's timings
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public int fullBytes;
+        public int deltaBytes;
+    }
+
+    private PlayerDataCodec sender;
+    private PlayerDataCodec receiver;
+    private MultiplayerService.PlayerData data;
+    private final MultiplayerService.PlayerData decoded = new MultiplayerService.PlayerData(null);
+    private final ByteBuffer buffer = ByteBuffer.allocate(256);
+    private ByteBuffer encoded;
+    private int fullBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sender = codec(0);
+        receiver = codec(1);
+        data = new MultiplayerService.PlayerData("p1", 150f, 320f, 2.5f, 0f, false, false, true);
+
+        // Handshake one update each way so the sender has an acked baseline
+        exchange(sender, receiver);
+        exchange(receiver, sender);
+        fullBytes = buffer.limit();
+        data.x += 4f;
+        encoded = exchange(sender, receiver);
+    }
+
+    private PlayerDataCodec codec(int localSlot) {
+        PlayerDataCodec codec = new PlayerDataCodec();
+        codec.setBounds(-400f, -400f, 2000f, 1000f);
+        codec.assign(0, "p1");
+        codec.assign(1, "p2");
+        codec.setLocalSlot(localSlot, localSlot == 0 ? "p1" : "p2");
+        return codec;
+    }
+
+    private ByteBuffer exchange(PlayerDataCodec from, PlayerDataCodec to) {
+        buffer.clear();
+        from.encode(data, buffer);
+        buffer.flip();
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate()).flip();
+        to.decode(buffer, decoded);
+        return copy;
+    }
+
+    @Benchmark
+    public int roundTrip(EncodedSize size) {
+        // Steady state: each side acks the other, so updates stay delta coded
+        data.x += 0.5f;
+        if (data.x > 1500f) data.x = 0f;
+        exchange(sender, receiver);
+        size.fullBytes = fullBytes;
+        size.deltaBytes = buffer.limit();
+        exchange(receiver, sender);
+        return buffer.limit();
+    }
+
+    @Benchmark
+    public boolean decodeStale() {
+        // Replays the same update: exercises the full parse and the stale-sequence check
+        return receiver.decode(encoded.duplicate(), decoded);
+    }
+}
@@ -0,0 +1,77 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.newgame.teamtilt.levels.LevelFactory;
+import com.newgame.teamtilt.levels.ReplayStore;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import com.newgame.teamtilt.simulation.InputFrame;
+import com.newgame.teamtilt.simulation.Replay;
+
+import java.io.File;
+
+/**
+ * Plays every recorded run in a directory (benchmarks/replays by default, or
+ * -Dteamtilt.replayDir) back through the simulation and fails if any of them
+ * no longer reproduces, i.e. a physics or level change altered the outcome
+ * of the same input, or if there are none to play. Field replays can be
+ * dropped in as they are. With {@code --record} it first writes a scripted
+ * baseline run for every level. The replayCheck task runs it, and is part of
+ * {@code check} once the directory holds replays.
+ */
+public final class ReplayCheck {
+    private static final int RECORDED_TICKS = 1200;
+
+    public static void main(String[] args) {
+        Headless.start();
+        File directory = new File(System.getProperty("teamtilt.replayDir", "replays"));
+        FileHandle folder = Gdx.files.absolute(directory.getAbsolutePath());
+        if (args.length > 0 && args[0].equals("--record")) {
+            recordBaselines(folder);
+        }
+
+        FileHandle[] files = folder.list("." + ReplayStore.EXTENSION);
+        if (files.length == 0) {
+            // An empty gate would pass whatever changed
+            System.err.println("No replays in " + folder.path() + "; record baselines with -PrecordReplays and commit them");
+            System.exit(1);
+        }
+        boolean failed = false;
+        for (FileHandle file : files) {
+            Replay replay = Replay.load(file);
+            int diverged = replay.verify(LevelFactory.getLevel(replay.getWorldIndex(), replay.getLevelIndex()));
+            failed |= diverged >= 0;
+            System.out.println(file.name() + ": " + replay.getTickCount() + " ticks, "
+                + (diverged < 0 ? "reproduced" : "DIVERGED at tick " + diverged));
+        }
+        if (failed) {
+            System.err.println("Some replays no longer reproduce their recorded runs");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Record the same scripted input on every level: runs right and left with regular jumps
+     */
+    private static void recordBaselines(FileHandle folder) {
+        for (int w = 1; w <= LevelFactory.getWorldCount(); w++) {
+            for (int l = 1; l <= LevelFactory.getLevelCount(w); l++) {
+                GameSimulation simulation = new GameSimulation(LevelFactory.getLevel(w, l));
+                simulation.addPlayer();
+                InputFrame input = simulation.getInput(0);
+                Replay replay = new Replay(w, l);
+                for (int tick = 0; tick < RECORDED_TICKS; tick++) {
+                    boolean right = (tick / 120) % 3 != 2;
+                    input.set(!right, right, tick % 40 == 0);
+                    replay.recordInput(input.buttons);
+                    simulation.step();
+                    replay.recordState(simulation);
+                }
+                simulation.dispose();
+                FileHandle file = folder.child("baseline-w" + w + "-l" + l + "." + ReplayStore.EXTENSION);
+                replay.save(file);
+                System.out.println("Recorded " + file.path());
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.newgame.teamtilt.benchmarks;
+
+import com.newgame.teamtilt.levels.LevelFactory;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import com.newgame.teamtilt.simulation.InputFrame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one fixed physics tick for every level with N players
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SimulationStepBenchmark {
+    @Param({"1", "2", "3", "4"})
+    public int worldIndex;
+
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int levelIndex;
+
+    @Param({"1", "4", "16"})
+    public int players;
+
+    private GameSimulation simulation;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Headless.start();
+        simulation = new GameSimulation(LevelFactory.getLevel(worldIndex, levelIndex));
+        for (int i = 0; i < players; i++) {
+            simulation.addPlayer();
+        }
+        // Let everyone land before measuring
+        for (int i = 0; i < 120; i++) {
+            simulation.step();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulation.dispose();
+    }
+
+    @Benchmark
+    public long step() {
+        // Alternate between running right and left with the occasional jump, like a real player
+        tick++;
+        boolean right = (tick / 90) % 2 == 0;
+        boolean jump = tick % 45 == 0;
+        for (int i = 0; i < players; i++) {
+            InputFrame input = simulation.getInput(i);
+            input.set(!right, right, jump);
+        }
+        simulation.step();
+        return simulation.getTick();
+    }
+}
@@ -0,0 +1,62 @@
+package com.newgame.teamtilt;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Eases a world camera toward a target and keeps it inside the level area.
+ * Only matrix math, so the same per-frame code runs headless in the allocation
+ * budget check as in GameScreen.
+ */
+public final class FollowCamera {
+    // How quickly the camera catches up with the player; its lag is roughly 1 / rate seconds
+    private static final float FOLLOW_RATE = 6f;
+
+    private final OrthographicCamera camera;
+    private final Rectangle view = new Rectangle();
+
+    public FollowCamera(OrthographicCamera camera) {
+        this.camera = camera;
+    }
+
+    /**
+     * Move toward the target if following, then refresh the visible area
+     * @param bounds Playable area in pixels
+     */
+    public void update(float delta, boolean following, float targetX, float targetY, Rectangle bounds) {
+        if (following) {
+            float follow = Math.min(1f, delta * FOLLOW_RATE);
+            camera.position.x += (targetX - camera.position.x) * follow;
+            camera.position.y += (targetY - camera.position.y) * follow;
+        }
+        clamp(bounds);
+        camera.update();
+        view.set(camera.position.x - camera.viewportWidth / 2f, camera.position.y - camera.viewportHeight / 2f,
+            camera.viewportWidth, camera.viewportHeight);
+    }
+
+    /**
+     * Keep the view inside the level area, centring it on axes where the level is smaller than the view
+     */
+    public void clamp(Rectangle bounds) {
+        float halfWidth = camera.viewportWidth / 2f, halfHeight = camera.viewportHeight / 2f;
+        camera.position.x = bounds.width > camera.viewportWidth
+            ? MathUtils.clamp(camera.position.x, bounds.x + halfWidth, bounds.x + bounds.width - halfWidth)
+            : bounds.x + bounds.width / 2f;
+        camera.position.y = bounds.height > camera.viewportHeight
+            ? MathUtils.clamp(camera.position.y, bounds.y + halfHeight, bounds.y + bounds.height - halfHeight)
+            : bounds.y + bounds.height / 2f;
+    }
+
+    /**
+     * World area in view after the last {@link #update}, in pixels
+     */
+    public Rectangle getView() {
+        return view;
+    }
+
+    public OrthographicCamera getCamera() {
+        return camera;
+    }
+}
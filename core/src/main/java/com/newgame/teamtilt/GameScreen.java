@@ -3,9 +3,13 @@ package com.newgame.teamtilt;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
@@ -15,25 +19,56 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageButton;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.viewport.ExtendViewport;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.newgame.teamtilt.assets.GameAssets;
 import com.newgame.teamtilt.levels.LevelDefinition;
+import com.newgame.teamtilt.levels.LevelFactory;
 import com.newgame.teamtilt.levels.LevelProgress;
+import com.newgame.teamtilt.levels.ReplayStore;
+import com.newgame.teamtilt.metrics.Gauge;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.metrics.MetricNames;
+import com.newgame.teamtilt.metrics.Metrics;
 import com.newgame.teamtilt.multiplayer.MultiplayerManager;
 import com.newgame.teamtilt.multiplayer.MultiplayerService;
+import com.newgame.teamtilt.multiplayer.SnapshotBuffer;
+import com.newgame.teamtilt.simulation.ClientPrediction;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import com.newgame.teamtilt.simulation.GhostTraceReader;
+import com.newgame.teamtilt.simulation.GhostTraceWriter;
+import com.newgame.teamtilt.simulation.InputFrame;
+import com.newgame.teamtilt.simulation.Replay;
+import com.newgame.teamtilt.simulation.SimulationSnapshot;
+import com.newgame.teamtilt.simulation.SimulationThread;
+import com.newgame.teamtilt.ui.DebugOverlay;
+import com.newgame.teamtilt.ui.PerformanceHud;
 import com.newgame.teamtilt.ui.ToastManager;
 import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.assets.AssetDescriptor;
 
 public class GameScreen implements Screen, InputProcessor {
+    // Loaded by LoadingScreen before this screen is created
+    public static final AssetDescriptor<?>[] ASSETS = {
+        GameAssets.JUMP_SOUND, GameAssets.TOAST_FONT
+    };
+
     final TeamTiltMain game;
-    private Texture backgroundTexture;
-    private Texture platformTexture;
-    private Texture leftTexture, rightTexture, jumpTexture;
-    private Texture pauseIconTexture, resumeIconTexture, sidebarBgTexture;
+    // Regions borrowed from the shared atlas, released again in dispose()
+    private static final String[] REGIONS = {
+        GameAssets.BACKGROUND, GameAssets.PLATFORM, GameAssets.CHARACTER,
+        GameAssets.BUTTON_LEFT, GameAssets.BUTTON_RIGHT, GameAssets.BUTTON_JUMP,
+        GameAssets.WHITE, GameAssets.ICON_PAUSE, GameAssets.ICON_RESUME
+    };
+    private TextureRegion backgroundRegion;
+    private TextureRegion platformRegion;
+    private TextureRegion leftRegion, rightRegion, jumpRegion;
+    private TextureRegion whiteRegion, pauseIconRegion, resumeIconRegion;
     private Stage stage;
     private ImageButton leftButton, rightButton, jumpButton;
     private ImageButton pauseIconButton;
@@ -41,34 +76,87 @@ public class GameScreen implements Screen, InputProcessor {
     private Group sidebarGroup;
     private Skin uiSkin;
     private boolean isPaused = false;
-    // Movement and grounded state handled by InputHandler
-    private final float PLATFORM_WIDTH = 300;
-    private final float PLATFORM_HEIGHT = 20;
 
-    // Box2D variables
-    public World world;
-    private Box2DDebugRenderer debugRenderer;
-    public Array<Platform> platforms;
+    // Physics, players, platforms and door live in the simulation; this screen only renders it
+    private GameSimulation simulation;
+    // Physics and index visualisation, toggled with F3
+    private final DebugOverlay debugOverlay = new DebugOverlay();
+    // Frame time percentiles, toggled with F2; F4 writes the metrics report
+    private final PerformanceHud performanceHud = new PerformanceHud();
+    private static final Histogram FRAME_TIME = Metrics.timer(MetricNames.FRAME_TIME);
+    private static final Histogram FRAME_CPU_TIME = Metrics.timer(MetricNames.FRAME_CPU_TIME);
+    private static final Histogram WORLD_DRAW_TIME = Metrics.timer(MetricNames.WORLD_DRAW_TIME);
+    private static final Histogram STAGE_ACT_TIME = Metrics.timer(MetricNames.STAGE_ACT_TIME);
+    private static final Histogram STAGE_DRAW_TIME = Metrics.timer(MetricNames.STAGE_DRAW_TIME);
+    private static final Gauge DRAW_CALLS = Metrics.gauge(MetricNames.DRAW_CALLS);
+
+    // World-space camera following the local player, in pixels; at least this much of the level is visible
+    private static final float VIEW_WIDTH = 640f;
+    private static final float VIEW_HEIGHT = 480f;
+    private OrthographicCamera camera;
+    private FollowCamera followCamera;
+    private ExtendViewport worldViewport;
+    // Batch projection the other screens expect, restored on dispose
+    private final Matrix4 screenProjection = new Matrix4();
+    // Visible world area, refreshed by followCamera every frame
+    private Rectangle view;
+    private final Array<Platform> visiblePlatforms = new Array<>();
+    private final Array<Player> visiblePlayers = new Array<>();
+
+    // Fixed-timestep simulation clock
+    private static final float TIME_STEP = GameSimulation.TIME_STEP;
+    // Caps that keep a long frame from snowballing into ever more catch-up steps
+    private static final float MAX_FRAME_TIME = 0.25f;
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    private float accumulator = 0f;
+    // Optional mode for solo play: steps run on their own thread and frames draw its published
+    // snapshots. Null when the simulation is stepped from render() instead.
+    private SimulationThread simulationThread;
+    private final InputFrame frameInput = new InputFrame();
+    private final Runnable playJumpSound = () -> inputHandler.playJumpSound();
 
     // Player instance
     private Player player;
+    private TextureRegion characterRegion;
     private InputHandler inputHandler;
     private LevelDefinition levelDefinition;
-    private Texture doorTexture;
-    private float doorX, doorY, doorWidth = 40f, doorHeight = 80f;
-    private boolean levelComplete = false;
     private int currentWorldIndex = 1;
     private int currentLevelIndex = 1;
-    private boolean exiting = false;
+    // Set by the simulation step, which may run on the simulation thread
+    private volatile boolean exiting = false;
     
     // Multiplayer support
     private MultiplayerManager multiplayerManager;
-    private Array<Player> remotePlayers = new Array<>();
-    private Texture remotePlayerTexture;
     private ToastManager toastManager;
+    // Clock remote players are sampled at, advanced with each simulation step (milliseconds)
+    private double remoteClock = 0;
+    // Body for each remote player, indexed by room slot like MultiplayerManager's table
+    private final Player[] remoteBodies = new Player[MultiplayerService.MAX_ROOM_PLAYERS];
+    private final MultiplayerManager.MultiplayerPlayer[] remoteOwners = new MultiplayerManager.MultiplayerPlayer[MultiplayerService.MAX_ROOM_PLAYERS];
+    private int remoteRosterVersion = -1;
+    private final SnapshotBuffer.Sample remoteSample = new SnapshotBuffer.Sample();
+    // Local player prediction against the server's authoritative state
+    private ClientPrediction prediction;
+    private final MultiplayerService.PlayerData authoritativeState = new MultiplayerService.PlayerData(null);
+    private final MultiplayerService.PlayerData localData = new MultiplayerService.PlayerData(null);
+
+    // Solo attempts are recorded tick by tick and saved on exit; dropped once play goes online
+    private Replay attempt;
+    // Recording driving the local player instead of the touch controls, if any
+    private Replay playback;
+    private int playbackTick = 0;
+    // Local player positions of this attempt, kept as the ghost if it ends as a new best time
+    private GhostTraceWriter trace;
+    // Best run so far, streamed one sample per tick and only drawn; it has no physics body
+    private static final Color GHOST_TINT = new Color(1f, 1f, 1f, 0.4f);
+    private GhostTraceReader ghost;
+    private final Vector2 ghostPrevious = new Vector2();
+    private final Vector2 ghostCurrent = new Vector2();
+    // Reused for culling sprites that are not in the player index
+    private final Rectangle spriteBounds = new Rectangle();
 
     public GameScreen(final TeamTiltMain game) {
-        this(game, null);
+        this(game, (LevelDefinition) null);
     }
 
     public GameScreen(final TeamTiltMain game, LevelDefinition levelDefinition) {
@@ -81,11 +169,26 @@ public class GameScreen implements Screen, InputProcessor {
     }
 
     public GameScreen(final TeamTiltMain game, LevelDefinition levelDefinition, int worldIndex, int levelIndex, MultiplayerManager multiplayerManager) {
+        this(game, levelDefinition, worldIndex, levelIndex, multiplayerManager, null);
+    }
+
+    /**
+     * Watch a recorded attempt: the recording drives the local player instead of the controls
+     * until it runs out. Nothing on this screen counts toward the viewer's progress.
+     */
+    public GameScreen(final TeamTiltMain game, Replay playback) {
+        this(game, LevelFactory.getLevel(playback.getWorldIndex(), playback.getLevelIndex()),
+            playback.getWorldIndex(), playback.getLevelIndex(), null, playback);
+    }
+
+    private GameScreen(final TeamTiltMain game, LevelDefinition levelDefinition, int worldIndex, int levelIndex,
+                       MultiplayerManager multiplayerManager, Replay playback) {
         this.game = game;
         this.levelDefinition = levelDefinition;
         this.currentWorldIndex = worldIndex;
         this.currentLevelIndex = levelIndex;
         this.multiplayerManager = multiplayerManager;
+        this.playback = playback;
 
         // Initialize multiplayer (will be null if not available)
         try {
@@ -97,44 +200,87 @@ public class GameScreen implements Screen, InputProcessor {
             Gdx.app.log("GameScreen", "Multiplayer not available: " + e.getMessage());
         }
 
-        // Load textures
-        backgroundTexture = new Texture(Gdx.files.internal("backgrounds/background.png"));
-        platformTexture = new Texture(Gdx.files.internal("platforms/platform.png"));
-        Texture characterTexture = new Texture(Gdx.files.internal("characters/character.png"));
-
-        // Initialize Box2D world
-        world = new World(new Vector2(0, -9.8f), true);
-        debugRenderer = new Box2DDebugRenderer();
-        platforms = new Array<>();
+        // Borrow sprites from the shared atlas; local and remote players share the character region
+        backgroundRegion = game.assets.borrow(GameAssets.BACKGROUND);
+        platformRegion = game.assets.borrow(GameAssets.PLATFORM);
+        characterRegion = game.assets.borrow(GameAssets.CHARACTER);
+        leftRegion = game.assets.borrow(GameAssets.BUTTON_LEFT);
+        rightRegion = game.assets.borrow(GameAssets.BUTTON_RIGHT);
+        jumpRegion = game.assets.borrow(GameAssets.BUTTON_JUMP);
+        whiteRegion = game.assets.borrow(GameAssets.WHITE);
+        pauseIconRegion = game.assets.borrow(GameAssets.ICON_PAUSE);
+        resumeIconRegion = game.assets.borrow(GameAssets.ICON_RESUME);
+
+        // Initialize the simulation (Box2D world, platforms, door) and the local player
+        simulation = new GameSimulation(this.levelDefinition);
+        player = simulation.addPlayer();
+        prediction = new ClientPrediction(simulation, 0);
+        if (playback == null) {
+            LevelProgress.recordAttempt(worldIndex, levelIndex);
+            attempt = new Replay(worldIndex, levelIndex);
+            trace = new GhostTraceWriter();
+            trace.add(player.getInterpolatedX(1f), player.getInterpolatedY(1f));
+        }
+        if (multiplayerManager == null) {
+            ghost = ReplayStore.openBestRun(worldIndex, levelIndex);
+            if (ghost != null && ghost.next(ghostCurrent)) {
+                ghostPrevious.set(ghostCurrent);
+            } else {
+                closeGhost();
+            }
+        }
 
-        // Create player
-        player = new Player(world, characterTexture);
+        camera = new OrthographicCamera();
+        worldViewport = new ExtendViewport(VIEW_WIDTH, VIEW_HEIGHT, camera);
+        worldViewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        followCamera = new FollowCamera(camera);
+        view = followCamera.getView();
+        camera.position.set(player.getInterpolatedX(1f), player.getInterpolatedY(1f), 0);
+        followCamera.clamp(simulation.getBounds());
+        screenProjection.set(game.batch.getProjectionMatrix());
+        if (multiplayerManager != null) {
+            Rectangle bounds = simulation.getBounds();
+            multiplayerManager.setLevelBounds(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height);
+            multiplayerManager.startLevel(worldIndex, levelIndex);
+        }
 
-        // Initialize InputHandler and set it as the input processor
-        inputHandler = new InputHandler(player.getBody(), player.getSpeed());
+        // Initialize InputHandler; it only collects button state for the simulation
+        inputHandler = new InputHandler(game.assets.get(GameAssets.JUMP_SOUND));
 
-        // Contact listener
-        world.setContactListener(new ContactListener() {
+        simulation.setListener(new GameSimulation.Listener() {
             @Override
-            public void beginContact(Contact contact) {
-                if (contact.getFixtureA().getBody() == player.getBody() || contact.getFixtureB().getBody() == player.getBody()) {
-                    inputHandler.setGrounded(true);
+            public void onPlayerJumped(Player jumper) {
+                if (simulationThread != null) {
+                    Gdx.app.postRunnable(playJumpSound);
+                } else {
+                    inputHandler.playJumpSound();
                 }
             }
 
             @Override
-            public void endContact(Contact contact) {
-                if (contact.getFixtureA().getBody() == player.getBody() || contact.getFixtureB().getBody() == player.getBody()) {
-                    inputHandler.setGrounded(false);
+            public void onLevelComplete(Player finisher) {
+                if (trace != null && !exiting) {
+                    // Solo run: keep the finishing position in the trace before it is saved
+                    Vector2 finish = simulation.getFinishPosition();
+                    trace.add(finish.x, finish.y);
                 }
+                finishLevel();
             }
+        });
 
-            @Override
-            public void preSolve(Contact contact, Manifold oldManifold) {}
+        if (game.isThreadedSimulation() && multiplayerManager == null) {
+            simulationThread = new SimulationThread(new SimulationThread.Stepper() {
+                @Override
+                public void step() {
+                    stepSimulation();
+                }
 
-            @Override
-            public void postSolve(Contact contact, ContactImpulse impulse) {}
-        });
+                @Override
+                public void capture(SimulationSnapshot out) {
+                    captureSnapshot(out);
+                }
+            });
+        }
 
         // Initialize stage and touch controls
         stage = new Stage(new ScreenViewport());
@@ -147,50 +293,15 @@ public class GameScreen implements Screen, InputProcessor {
         setupUiSkin();
         createPauseUI();
         
-        // Load remote player texture
-        remotePlayerTexture = new Texture(Gdx.files.internal("characters/character.png"));
-        
         // Initialize toast manager
-        toastManager = new ToastManager();
-
-        // Build platforms from level definition if provided
-        if (this.levelDefinition != null) {
-            this.levelDefinition.build(world, platforms);
-        } else {
-            // default layout if none provided
-            platforms.add(new Platform(world, 100, 100, PLATFORM_WIDTH, PLATFORM_HEIGHT));
-            platforms.add(new Platform(world, 400, 120, PLATFORM_WIDTH, PLATFORM_HEIGHT));
-            platforms.add(new Platform(world, 700, 170, PLATFORM_WIDTH, PLATFORM_HEIGHT));
-            platforms.add(new Platform(world, 400, 240, PLATFORM_WIDTH, PLATFORM_HEIGHT));
-            platforms.add(new Platform(world, 50, 240, PLATFORM_WIDTH, PLATFORM_HEIGHT));
-        }
-
-        // Compute a simple door placement: to the right of the right-most platform
-        float maxX = 0f;
-        float baseY = 0f;
-        for (Platform p : platforms) {
-            Vector2 pos = p.getPosition();
-            float px = (pos.x * player.getPPM());
-            if (px > maxX) {
-                maxX = px;
-                baseY = (pos.y * player.getPPM());
-            }
-        }
-        doorX = maxX + (PLATFORM_WIDTH / 2f) + 20f;
-        doorY = baseY + (PLATFORM_HEIGHT / 2f);
-        doorTexture = createColoredTexture(1, 1, 0f, 0f, 0f, 1f);
+        toastManager = new ToastManager(game.assets.get(GameAssets.TOAST_FONT));
     }
 
     private void createTouchControls() {
-        // Load button textures
-        leftTexture = new Texture(Gdx.files.internal("buttons/left.png"));
-        rightTexture = new Texture(Gdx.files.internal("buttons/right.png"));
-        jumpTexture = new Texture(Gdx.files.internal("buttons/jump.png"));
-
         // Create buttons
-        leftButton = new ImageButton(new TextureRegionDrawable(leftTexture));
-        rightButton = new ImageButton(new TextureRegionDrawable(rightTexture));
-        jumpButton = new ImageButton(new TextureRegionDrawable(jumpTexture));
+        leftButton = new ImageButton(new TextureRegionDrawable(leftRegion));
+        rightButton = new ImageButton(new TextureRegionDrawable(rightRegion));
+        jumpButton = new ImageButton(new TextureRegionDrawable(jumpRegion));
 
         leftButton.setPosition(50, 50);
         rightButton.setPosition(200, 50);
@@ -242,11 +353,9 @@ public class GameScreen implements Screen, InputProcessor {
         font.getData().setScale(2f);
         uiSkin.add("default-font", font, BitmapFont.class);
 
-        Texture buttonUp = createColoredTexture(1, 1, 0.2f, 0.2f, 0.2f, 1f);
-        Texture buttonDown = createColoredTexture(1, 1, 0.35f, 0.35f, 0.35f, 1f);
         com.badlogic.gdx.scenes.scene2d.ui.TextButton.TextButtonStyle buttonStyle = new com.badlogic.gdx.scenes.scene2d.ui.TextButton.TextButtonStyle();
-        buttonStyle.up = new TextureRegionDrawable(new TextureRegion(buttonUp));
-        buttonStyle.down = new TextureRegionDrawable(new TextureRegion(buttonDown));
+        buttonStyle.up = new TextureRegionDrawable(whiteRegion).tint(new Color(0.2f, 0.2f, 0.2f, 1f));
+        buttonStyle.down = new TextureRegionDrawable(whiteRegion).tint(new Color(0.35f, 0.35f, 0.35f, 1f));
         buttonStyle.font = font;
         uiSkin.add("default", buttonStyle);
         
@@ -256,59 +365,9 @@ public class GameScreen implements Screen, InputProcessor {
         uiSkin.add("default", labelStyle);
     }
 
-    private Texture createColoredTexture(int width, int height, float r, float g, float b, float a) {
-        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
-        pixmap.setColor(r, g, b, a);
-        pixmap.fill();
-        Texture texture = new Texture(pixmap);
-        pixmap.dispose();
-        return texture;
-    }
-
-    private Texture createPauseIconTexture(int width, int height, float r, float g, float b, float a) {
-        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
-        pixmap.setColor(0f, 0f, 0f, 0f);
-        pixmap.fill();
-        pixmap.setColor(r, g, b, a);
-        int barWidth = Math.max(8, width / 5);
-        int gap = barWidth; // gap between bars
-        int barHeight = (int)(height * 0.75f);
-        int y = (height - barHeight) / 2;
-        int x1 = (width - (2 * barWidth + gap)) / 2;
-        int x2 = x1 + barWidth + gap;
-        pixmap.fillRectangle(x1, y, barWidth, barHeight);
-        pixmap.fillRectangle(x2, y, barWidth, barHeight);
-        Texture texture = new Texture(pixmap);
-        pixmap.dispose();
-        return texture;
-    }
-
-    private Texture createResumeIconTexture(int width, int height, float r, float g, float b, float a) {
-        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
-        pixmap.setColor(0f, 0f, 0f, 0f);
-        pixmap.fill();
-        pixmap.setColor(r, g, b, a);
-        int triangleWidth = (int)(width * 0.45f);
-        int triangleHeight = (int)(height * 0.55f);
-        int x = (width - triangleWidth) / 2;
-        int y = (height - triangleHeight) / 2;
-        // Right-pointing triangle
-        for (int i = 0; i < triangleWidth; i++) {
-            int offset = (triangleHeight * i) / triangleWidth / 2;
-            int startY = y + offset;
-            int endY = y + triangleHeight - offset;
-            pixmap.drawLine(x + i, startY, x + i, endY);
-        }
-        Texture texture = new Texture(pixmap);
-        pixmap.dispose();
-        return texture;
-    }
-
     private void createPauseUI() {
-        // Create translucent grey pause and resume icons
-        pauseIconTexture = createPauseIconTexture(80, 80, 0.6f, 0.6f, 0.6f, 0.6f);
-        resumeIconTexture = createResumeIconTexture(80, 80, 0.6f, 0.6f, 0.6f, 0.6f);
-        pauseIconButton = new ImageButton(new TextureRegionDrawable(new TextureRegion(pauseIconTexture)));
+        // Translucent grey pause and resume icons
+        pauseIconButton = new ImageButton(new TextureRegionDrawable(pauseIconRegion));
         pauseIconButton.setSize(80, 80);
         pauseIconButton.setPosition(20, Gdx.graphics.getHeight() - pauseIconButton.getHeight() - 20);
         pauseIconButton.addListener(new InputListener() {
@@ -323,8 +382,7 @@ public class GameScreen implements Screen, InputProcessor {
         // Sidebar group
         sidebarGroup = new Group();
         float sidebarWidth = Math.max(260, Gdx.graphics.getWidth() * 0.35f);
-        sidebarBgTexture = createColoredTexture(1, 1, 0f, 0f, 0f, 0.6f);
-        Image sidebarBg = new Image(new TextureRegionDrawable(new TextureRegion(sidebarBgTexture)));
+        Image sidebarBg = new Image(new TextureRegionDrawable(whiteRegion).tint(new Color(0f, 0f, 0f, 0.6f)));
         sidebarBg.setSize(sidebarWidth, Gdx.graphics.getHeight());
         sidebarGroup.addActor(sidebarBg);
 
@@ -346,7 +404,7 @@ public class GameScreen implements Screen, InputProcessor {
         quitButton.addListener(new InputListener() {
             @Override
             public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-                game.setScreen(new MainMenuScreen(game));
+                game.setScreen(new LoadingScreen(game, MainMenuScreen.ASSETS, () -> new MainMenuScreen(game)));
                 dispose();
                 return true;
             }
@@ -364,30 +422,33 @@ public class GameScreen implements Screen, InputProcessor {
      * Set the multiplayer manager for this game session
      */
     public void setMultiplayerManager(MultiplayerManager multiplayerManager) {
-        this.multiplayerManager = multiplayerManager;
-        if (multiplayerManager != null) {
-            // Create remote players for existing multiplayer players
-            updateRemotePlayers();
+        if (multiplayerManager != null && simulationThread != null) {
+            // Network state is applied on the render thread, so step there from now on
+            simulationThread.stop();
+            simulationThread = null;
         }
+        this.multiplayerManager = multiplayerManager;
+        // Re-pair every slot against the new manager
+        remoteRosterVersion = Integer.MIN_VALUE;
+        syncRemoteBodies();
     }
     
     /**
-     * Update remote players based on multiplayer state
+     * Give each remote player a body in its slot and drop the bodies of players who left.
+     * Only does work when someone joined or left since the last call.
      */
-    private void updateRemotePlayers() {
-        if (multiplayerManager == null) return;
-        
-        // Remove existing remote players
-        for (Player remotePlayer : remotePlayers) {
-            world.destroyBody(remotePlayer.getBody());
-        }
-        remotePlayers.clear();
-        
-        // Create new remote players
-        Array<MultiplayerManager.MultiplayerPlayer> multiplayerPlayers = multiplayerManager.getRemotePlayers();
-        for (MultiplayerManager.MultiplayerPlayer mpPlayer : multiplayerPlayers) {
-            Player remotePlayer = new Player(world, remotePlayerTexture, mpPlayer.getId());
-            remotePlayers.add(remotePlayer);
+    private void syncRemoteBodies() {
+        int version = multiplayerManager != null ? multiplayerManager.getRosterVersion() : -1;
+        if (version == remoteRosterVersion) return;
+        remoteRosterVersion = version;
+        for (int slot = 0; slot < remoteBodies.length; slot++) {
+            MultiplayerManager.MultiplayerPlayer owner = multiplayerManager != null ? multiplayerManager.getRemotePlayer(slot) : null;
+            if (owner == remoteOwners[slot]) continue;
+            if (remoteBodies[slot] != null) {
+                simulation.removeRemotePlayer(remoteBodies[slot]);
+            }
+            remoteBodies[slot] = owner != null ? simulation.addRemotePlayer(owner.getId()) : null;
+            remoteOwners[slot] = owner;
         }
     }
 
@@ -397,13 +458,13 @@ public class GameScreen implements Screen, InputProcessor {
         if (paused) {
             sidebarGroup.setX(0);
             // switch to resume icon when paused
-            pauseIconButton.getStyle().imageUp = new TextureRegionDrawable(new TextureRegion(resumeIconTexture));
+            pauseIconButton.getStyle().imageUp = new TextureRegionDrawable(resumeIconRegion);
             pauseIconButton.invalidate();
             pauseIconButton.toFront();
         } else {
             sidebarGroup.setX(-sidebarWidth);
             // switch back to pause icon when resumed
-            pauseIconButton.getStyle().imageUp = new TextureRegionDrawable(new TextureRegion(pauseIconTexture));
+            pauseIconButton.getStyle().imageUp = new TextureRegionDrawable(pauseIconRegion);
             pauseIconButton.invalidate();
             pauseIconButton.toFront();
         }
@@ -412,6 +473,186 @@ public class GameScreen implements Screen, InputProcessor {
         jumpButton.setDisabled(paused);
     }
 
+    /**
+     * Advance the world by exactly one fixed time step
+     */
+    private void stepSimulation() {
+        InputFrame input = simulation.getInput(0);
+        if (playback != null && playbackTick < playback.getTickCount()) {
+            input.buttons = playback.getButtons(playbackTick++);
+        } else if (simulationThread != null) {
+            simulationThread.pollInput(input);
+        } else {
+            inputHandler.updateMovement(input);
+        }
+        prediction.record();
+        boolean online = multiplayerManager != null && multiplayerManager.isMultiplayerActive();
+        // Against a server the door is only predicted; its LEVEL_COMPLETE ends the level
+        simulation.setPredicting(online && multiplayerManager.isAuthoritative());
+        if (online) {
+            multiplayerManager.sendInput(input.sequence, input.buttons);
+            // Remote players and server corrections can't be replayed from local input alone
+            attempt = null;
+            trace = null;
+            closeGhost();
+        }
+        if (attempt != null) {
+            attempt.recordInput(input.buttons);
+        }
+        remoteClock += TIME_STEP * 1000f;
+        updateRemoteTargets();
+        simulation.step();
+        prediction.storeResult();
+        if (attempt != null) {
+            attempt.recordState(simulation);
+        }
+        if (trace != null) {
+            trace.add(player.getInterpolatedX(1f), player.getInterpolatedY(1f));
+        }
+        if (ghost != null) {
+            ghostPrevious.set(ghostCurrent);
+            if (!ghost.next(ghostCurrent)) {
+                // The ghost reached the door
+                closeGhost();
+            }
+        }
+    }
+
+    /**
+     * Publish what the renderer draws after a step on the simulation thread
+     */
+    private void captureSnapshot(SimulationSnapshot out) {
+        out.tick = simulation.getTick();
+        out.levelComplete = simulation.isLevelComplete();
+        if (!out.levelComplete) {
+            out.add(SimulationSnapshot.LOCAL, player.getInterpolatedX(0f), player.getInterpolatedY(0f),
+                player.getInterpolatedX(1f), player.getInterpolatedY(1f));
+        }
+        if (ghost != null) {
+            out.add(SimulationSnapshot.GHOST, ghostPrevious.x, ghostPrevious.y, ghostCurrent.x, ghostCurrent.y);
+        }
+    }
+
+    /**
+     * Load the level the room is playing, handing the multiplayer session to the new screen
+     */
+    private void followRoomLevel() {
+        if (exiting) return;
+        exiting = true;
+        final int worldIndex = multiplayerManager.getRoomWorld(), levelIndex = multiplayerManager.getRoomLevel();
+        final MultiplayerManager session = multiplayerManager;
+        Gdx.app.postRunnable(new Runnable() {
+            @Override
+            public void run() {
+                // The next screen owns the session now, so dispose() must not close it
+                multiplayerManager = null;
+                game.setScreen(new LoadingScreen(game, ASSETS,
+                    () -> new GameScreen(game, LevelFactory.getLevel(worldIndex, levelIndex), worldIndex, levelIndex, session)));
+                dispose();
+            }
+        });
+    }
+
+    /**
+     * Record the level as done and leave for the level list after this frame. May be called on
+     * the simulation thread, so the progress and ghost files are written on the render thread.
+     */
+    private void finishLevel() {
+        // Schedule navigation after this frame to avoid rendering/dispose races
+        if (exiting) return;
+        exiting = true;
+        final GhostTraceWriter finishedTrace = trace;
+        final int ticks = (int) simulation.getTick();
+        trace = null;
+        Gdx.app.postRunnable(new Runnable() {
+            @Override
+            public void run() {
+                if (finishedTrace != null) {
+                    // Solo run: keep its time, and its trace as the ghost if it is the fastest
+                    if (LevelProgress.recordCompletion(currentWorldIndex, currentLevelIndex, ticks)) {
+                        ReplayStore.saveBestRun(currentWorldIndex, currentLevelIndex, finishedTrace);
+                    }
+                } else if (playback == null) {
+                    // Online completion; a watched recording leaves the viewer's progress as it was
+                    LevelProgress.markCompleted(currentWorldIndex, currentLevelIndex);
+                }
+                game.setScreen(new LevelsScreen(game, currentWorldIndex));
+                dispose();
+            }
+        });
+    }
+
+    private void closeGhost() {
+        if (ghost != null) {
+            ghost.dispose();
+            ghost = null;
+        }
+    }
+
+    /**
+     * Point each remote body at its interpolated network state for this step
+     */
+    private void updateRemoteTargets() {
+        if (multiplayerManager == null || !multiplayerManager.isMultiplayerActive()) return;
+
+        for (int slot = 0; slot < remoteBodies.length; slot++) {
+            Player body = remoteBodies[slot];
+            if (body != null && remoteOwners[slot].sample((long) remoteClock, remoteSample)) {
+                body.setRemoteTarget(remoteSample.x, remoteSample.y,
+                    remoteSample.isJumping, remoteSample.isMovingLeft, remoteSample.isMovingRight);
+            }
+        }
+    }
+
+    /**
+     * Interpolation delay of the lowest occupied slot, shown in the debug overlay
+     */
+    private float firstRemoteDelay() {
+        for (MultiplayerManager.MultiplayerPlayer owner : remoteOwners) {
+            if (owner != null) return owner.getInterpolationDelay();
+        }
+        return 0f;
+    }
+
+    /**
+     * Send local player state and keep the remote sampling clock in step with real time
+     */
+    private void syncMultiplayer() {
+        if (multiplayerManager == null || !multiplayerManager.isMultiplayerActive()) return;
+
+        // Send local player data to other players
+        MultiplayerService.PlayerData playerData = player.getPlayerData(localData);
+        multiplayerManager.updatePlayerData(
+            playerData.x, playerData.y, playerData.velocityX, playerData.velocityY,
+            playerData.isJumping, playerData.isMovingLeft, playerData.isMovingRight
+        );
+
+        // The server decides when the level is done
+        if (multiplayerManager.takeLevelComplete(currentWorldIndex, currentLevelIndex)) {
+            finishLevel();
+            return;
+        }
+
+        // The host moved the room to another level
+        if (multiplayerManager.isRoomLevelPending()) {
+            followRoomLevel();
+            return;
+        }
+
+        // Correct the local prediction if the server disagreed with it
+        int acknowledged = multiplayerManager.takeAuthoritativeState(authoritativeState);
+        if (acknowledged >= 0) {
+            prediction.reconcile(acknowledged, authoritativeState.x, authoritativeState.y,
+                authoritativeState.velocityX, authoritativeState.velocityY);
+        }
+
+        // Keep the remote clock near wall time; it only drifts by the accumulator between frames
+        long now = System.currentTimeMillis();
+        if (Math.abs(remoteClock - now) > MAX_FRAME_TIME * 1000f) {
+            remoteClock = now;
+        }
+    }
+
     @Override
     public void show() {
 
@@ -419,128 +660,184 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public void render(float delta) {
+        long frameStart = System.nanoTime();
+        FRAME_TIME.record(delta * 1000f);
         Gdx.gl.glClearColor(1, 1, 1, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
-        // Step the physics world only when not paused and not exiting
-        if (!isPaused && !exiting) {
-            world.step(1 / 60f, 6, 2);
+        if (simulationThread != null) {
+            renderThreaded(delta, frameStart);
+            return;
+        }
 
-            // Update player movement
-            inputHandler.updateMovement();
-            player.updateMovement(inputHandler.moveLeft, inputHandler.moveRight);
-            
-            // Multiplayer synchronization
-            if (multiplayerManager != null && multiplayerManager.isMultiplayerActive()) {
-                // Send local player data to other players
-                MultiplayerService.PlayerData playerData = player.getPlayerData();
-                multiplayerManager.updatePlayerData(
-                    playerData.x, playerData.y, playerData.velocityX, playerData.velocityY,
-                    playerData.isJumping, playerData.isMovingLeft, playerData.isMovingRight
-                );
-                
-                // Update remote players from received data
-                Array<MultiplayerManager.MultiplayerPlayer> multiplayerPlayers = multiplayerManager.getRemotePlayers();
-                for (int i = 0; i < multiplayerPlayers.size && i < remotePlayers.size; i++) {
-                    MultiplayerManager.MultiplayerPlayer mpPlayer = multiplayerPlayers.get(i);
-                    Player remotePlayer = remotePlayers.get(i);
-                    
-                    // Create PlayerData from multiplayer data
-                    MultiplayerService.PlayerData remoteData = new MultiplayerService.PlayerData(
-                        mpPlayer.getId(),
-                        mpPlayer.getX(), mpPlayer.getY(),
-                        mpPlayer.getVelocityX(), mpPlayer.getVelocityY(),
-                        mpPlayer.isJumping(),
-                        mpPlayer.isMovingLeft(), mpPlayer.isMovingRight()
-                    );
-                    remotePlayer.updateFromMultiplayerData(remoteData);
-                }
-            }
+        // Remote players, room changes and server state all take effect here, before any step
+        if (multiplayerManager != null) {
+            multiplayerManager.pollEvents();
+        }
+        syncRemoteBodies();
 
-            // Check door overlap (AABB) when not complete
-            if (!levelComplete) {
-                float px = player.getBody().getPosition().x * player.getPPM();
-                float py = player.getBody().getPosition().y * player.getPPM();
-                float pw = player.getTexture().getWidth();
-                float ph = player.getTexture().getHeight();
-                boolean overlap = px + pw/2 > doorX && px - pw/2 < doorX + doorWidth &&
-                                   py + ph/2 > doorY && py - ph/2 < doorY + doorHeight;
-                if (overlap) {
-                    levelComplete = true;
-                    // Despawn player by moving off-screen and stopping movement
-                    player.getBody().setLinearVelocity(0, 0);
-                    player.getBody().setTransform(-1000f, -1000f, 0);
-                    // Schedule navigation after this frame to avoid rendering/dispose races
-                    if (!exiting) {
-                        exiting = true;
-                        LevelProgress.markCompleted(currentWorldIndex, currentLevelIndex);
-                        Gdx.app.postRunnable(new Runnable() {
-                            @Override
-                            public void run() {
-                                game.setScreen(new LevelsScreen(game, currentWorldIndex));
-                                dispose();
-                            }
-                        });
-                    }
-                }
+        // Advance the simulation in fixed steps only when not paused and not exiting
+        if (!isPaused && !exiting) {
+            // Multiplayer synchronization runs once per rendered frame; it is rate limited anyway
+            syncMultiplayer();
+
+            accumulator += Math.min(delta, MAX_FRAME_TIME);
+            int steps = 0;
+            while (accumulator >= TIME_STEP && steps < MAX_STEPS_PER_FRAME && !exiting) {
+                stepSimulation();
+                accumulator -= TIME_STEP;
+                steps++;
             }
+            if (steps == MAX_STEPS_PER_FRAME) {
+                // Too far behind: drop the backlog instead of spiralling
+                accumulator = Math.min(accumulator, TIME_STEP);
+            }
+        }
+        float alpha = accumulator / TIME_STEP;
+
+        followCamera.update(delta, !simulation.isLevelComplete(), player.getInterpolatedX(alpha), player.getInterpolatedY(alpha),
+            simulation.getBounds());
+
+        // Draw background, platforms, and character in world space
+        long drawStart = System.nanoTime();
+        beginWorld();
+
+        // Draw the local and remote players in view. The index holds their latest step;
+        // widen the query by a body so players interpolated back into view are not missed.
+        boolean showRemote = multiplayerManager != null && multiplayerManager.isMultiplayerActive();
+        visiblePlayers.clear();
+        simulation.queryPlayers(view.x - Player.WIDTH, view.y - Player.HEIGHT,
+            view.width + 2 * Player.WIDTH, view.height + 2 * Player.HEIGHT, visiblePlayers);
+        for (Player visible : visiblePlayers) {
+            if (visible == player ? simulation.isLevelComplete() : !showRemote) continue;
+            game.batch.draw(characterRegion,
+                visible.getInterpolatedX(alpha) - Player.WIDTH / 2,
+                visible.getInterpolatedY(alpha) - Player.HEIGHT / 2);
         }
 
-        // Respawn player if falling
-        if (player.isFalling()) {
-            player.respawn();
+        // Faded ghost of the best run, if it is in view
+        if (ghost != null) {
+            float ghostX = MathUtils.lerp(ghostPrevious.x, ghostCurrent.x, alpha);
+            float ghostY = MathUtils.lerp(ghostPrevious.y, ghostCurrent.y, alpha);
+            if (view.overlaps(spriteBounds.set(ghostX - Player.WIDTH / 2, ghostY - Player.HEIGHT / 2, Player.WIDTH, Player.HEIGHT))) {
+                game.batch.setColor(GHOST_TINT);
+                game.batch.draw(characterRegion, spriteBounds.x, spriteBounds.y);
+                game.batch.setColor(Color.WHITE);
+            }
         }
 
-        // Draw background, platforms, and character
-        game.batch.begin();
-        game.batch.draw(backgroundTexture, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        endWorld(drawStart);
 
-        // Draw platforms
-        for (Platform platform : platforms) {
-            Vector2 position = platform.getPosition();
-            float platformX = (position.x * player.getPPM()) - (PLATFORM_WIDTH / 2);
-            float platformY = (position.y * player.getPPM()) - (PLATFORM_HEIGHT / 2);
-            game.batch.draw(platformTexture, platformX, platformY, PLATFORM_WIDTH, PLATFORM_HEIGHT);
+        // Debug overlay, off unless toggled with F3
+        if (debugOverlay.isEnabled() && !exiting) {
+            if (multiplayerManager != null && multiplayerManager.isMultiplayerActive()) {
+                debugOverlay.setNetworkStats(multiplayerManager.getBytesSent(), multiplayerManager.getBytesReceived(),
+                    firstRemoteDelay(),
+                    prediction.getPendingCount(), prediction.getCorrectionCount());
+            }
+            debugOverlay.render(simulation, camera.combined, view, game.batch, delta);
         }
 
-        // Draw the local player
-        if (!levelComplete) {
-            game.batch.draw(player.getTexture(),
-                player.getBody().getPosition().x * player.getPPM() - player.getTexture().getWidth() / 2,
-                player.getBody().getPosition().y * player.getPPM() - player.getTexture().getHeight() / 2);
+        renderUi(delta, frameStart);
+    }
+
+    /**
+     * A frame while the simulation thread steps: hand over input, then draw its newest snapshot.
+     * The debug overlay walks the live Box2D world, so it is not drawn in this mode.
+     */
+    private void renderThreaded(float delta, long frameStart) {
+        simulationThread.setPaused(isPaused || exiting);
+        if (!isPaused && !exiting) {
+            inputHandler.updateMovement(frameInput);
+            simulationThread.offerInput(frameInput.buttons);
         }
-        
-        // Draw remote players
-        if (multiplayerManager != null && multiplayerManager.isMultiplayerActive()) {
-            for (Player remotePlayer : remotePlayers) {
-                game.batch.draw(remotePlayer.getTexture(),
-                    remotePlayer.getBody().getPosition().x * remotePlayer.getPPM() - remotePlayer.getTexture().getWidth() / 2,
-                    remotePlayer.getBody().getPosition().y * remotePlayer.getPPM() - remotePlayer.getTexture().getHeight() / 2);
-            }
+        if (!simulationThread.isStarted()) {
+            simulationThread.start();
+        }
+        SimulationSnapshot snapshot = simulationThread.acquire();
+        float alpha = SimulationThread.alpha(snapshot);
+
+        boolean following = snapshot.count > 0 && snapshot.kind[0] == SimulationSnapshot.LOCAL;
+        followCamera.update(delta, following,
+            following ? snapshot.getInterpolatedX(0, alpha) : 0f, following ? snapshot.getInterpolatedY(0, alpha) : 0f,
+            simulation.getBounds());
+
+        long drawStart = System.nanoTime();
+        beginWorld();
+        // The snapshot holds every sprite, so cull them here rather than through the player index
+        for (int i = 0; i < snapshot.count; i++) {
+            spriteBounds.set(snapshot.getInterpolatedX(i, alpha) - Player.WIDTH / 2,
+                snapshot.getInterpolatedY(i, alpha) - Player.HEIGHT / 2, Player.WIDTH, Player.HEIGHT);
+            if (!view.overlaps(spriteBounds)) continue;
+            boolean isGhost = snapshot.kind[i] == SimulationSnapshot.GHOST;
+            if (isGhost) game.batch.setColor(GHOST_TINT);
+            game.batch.draw(characterRegion, spriteBounds.x, spriteBounds.y);
+            if (isGhost) game.batch.setColor(Color.WHITE);
+        }
+        endWorld(drawStart);
+
+        renderUi(delta, frameStart);
+    }
+
+    /**
+     * Start the world batch and draw the background and the platforms in view
+     */
+    private void beginWorld() {
+        worldViewport.apply();
+        game.batch.setProjectionMatrix(camera.combined);
+        game.batch.begin();
+        // The background stays put behind the scrolling level
+        game.batch.draw(backgroundRegion, view.x, view.y, view.width, view.height);
+
+        // Draw only the platforms in view
+        visiblePlatforms.clear();
+        simulation.queryPlatforms(view.x, view.y, view.width, view.height, visiblePlatforms);
+        for (Platform platform : visiblePlatforms) {
+            game.batch.draw(platformRegion, platform.getX(), platform.getY(), platform.getWidth(), platform.getHeight());
         }
+    }
 
-        // Draw the door
-        game.batch.draw(doorTexture, doorX, doorY, doorWidth, doorHeight);
+    /**
+     * Draw the door over everything else and finish the world batch
+     */
+    private void endWorld(long drawStart) {
+        // Draw the door as a black quad from the same atlas page
+        game.batch.setColor(Color.BLACK);
+        game.batch.draw(whiteRegion, simulation.getDoorX(), simulation.getDoorY(),
+            GameSimulation.DOOR_WIDTH, GameSimulation.DOOR_HEIGHT);
+        game.batch.setColor(Color.WHITE);
 
         game.batch.end();
+        WORLD_DRAW_TIME.recordSince(drawStart);
+    }
 
-        // Debug render (optional)
-        if (!exiting) {
-            debugRenderer.render(world, game.batch.getProjectionMatrix().cpy().scale(player.getPPM(), player.getPPM(), 0));
-        }
+    private void renderUi(float delta, long frameStart) {
+        int drawCalls = game.batch.renderCalls;
 
         // Draw the UI buttons
+        long stageStart = System.nanoTime();
         stage.act(delta);
+        STAGE_ACT_TIME.recordSince(stageStart);
+        stageStart = System.nanoTime();
         stage.draw();
+        STAGE_DRAW_TIME.recordSince(stageStart);
+        if (stage.getBatch() instanceof SpriteBatch) {
+            drawCalls += ((SpriteBatch) stage.getBatch()).renderCalls;
+        }
+        DRAW_CALLS.set(drawCalls);
         
         // Render toast messages
         if (toastManager != null) {
             toastManager.render();
         }
+
+        performanceHud.render(delta);
+        FRAME_CPU_TIME.recordSince(frameStart);
     }
 
     @Override
     public void resize(int width, int height) {
+        worldViewport.update(width, height);
         stage.getViewport().update(width, height, true);
     }
 
@@ -555,28 +852,45 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public void dispose() {
-        backgroundTexture.dispose();
-        platformTexture.dispose();
-        player.getTexture().dispose();
-        leftTexture.dispose();
-        rightTexture.dispose();
-        jumpTexture.dispose();
-        inputHandler.dispose();
-        world.dispose();
-        debugRenderer.dispose();
+        for (String region : REGIONS) {
+            game.assets.release(region);
+        }
+        game.batch.setProjectionMatrix(screenProjection);
+        if (simulationThread != null) {
+            simulationThread.stop();
+        }
+        if (attempt != null) {
+            ReplayStore.saveAttempt(attempt);
+            attempt = null;
+        }
+        simulation.dispose();
+        closeGhost();
+        debugOverlay.dispose();
+        performanceHud.dispose();
         stage.dispose();
         if (uiSkin != null) uiSkin.dispose();
-        if (pauseIconTexture != null) pauseIconTexture.dispose();
-        if (doorTexture != null) doorTexture.dispose();
-        if (sidebarBgTexture != null) sidebarBgTexture.dispose();
-        if (remotePlayerTexture != null) remotePlayerTexture.dispose();
         if (multiplayerManager != null) multiplayerManager.dispose();
         if (toastManager != null) toastManager.dispose();
+        game.assets.unload(ASSETS);
     }
 
     // InputProcessor methods for back button handling
     @Override
     public boolean keyDown(int keycode) {
+        if (keycode == Input.Keys.F3) {
+            debugOverlay.toggle();
+            return true;
+        }
+        if (keycode == Input.Keys.F2) {
+            performanceHud.toggle();
+            return true;
+        }
+        if (keycode == Input.Keys.F4) {
+            if (Metrics.export() != null && toastManager != null) {
+                toastManager.showToast("Metrics saved to " + Metrics.REPORT_FILE, MultiplayerService.ToastType.INFO);
+            }
+            return true;
+        }
         // Android back button is keycode 131 (Input.Keys.BACK)
         if (keycode == 131) {
             // From GameScreen, go to LevelsScreen for the current world
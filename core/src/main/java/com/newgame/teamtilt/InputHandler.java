@@ -1,45 +1,38 @@
 package com.newgame.teamtilt;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.Body;
+import com.newgame.teamtilt.simulation.InputFrame;
 
 public class InputHandler implements InputProcessor {
-    private final Body playerBody;
-    private final float speed;
     boolean moveLeft = false;
     boolean moveRight = false;
-    private boolean isGrounded = false;
+    // Jump presses are latched until the next simulation tick picks them up
+    private boolean jumpRequested = false;
 
-    private final Sound jumpSound = Gdx.audio.newSound(Gdx.files.internal("sounds/jump_sound.wav"));
-    public InputHandler(Body playerBody, float speed) {
-        this.playerBody = playerBody;
-        this.speed = speed;
+    private final Sound jumpSound;
+
+    /**
+     * @param jumpSound Sound played on jumps; owned by the caller
+     */
+    public InputHandler(Sound jumpSound) {
+        this.jumpSound = jumpSound;
     }
 
-    public void updateMovement() {
-        if (moveLeft) {
-            playerBody.setLinearVelocity(-speed, playerBody.getLinearVelocity().y);
-        } else if (moveRight) {
-            playerBody.setLinearVelocity(speed, playerBody.getLinearVelocity().y);
-        } else {
-            // stop horizontal movement when no input
-            playerBody.setLinearVelocity(0f, playerBody.getLinearVelocity().y);
-        }
+    /**
+     * Write the current button state into the frame for the next tick
+     */
+    public void updateMovement(InputFrame frame) {
+        frame.set(moveLeft, moveRight, jumpRequested);
+        jumpRequested = false;
     }
 
     public void jump() {
-        if (isGrounded) {
-            playerBody.applyLinearImpulse(new Vector2(0, 2f), playerBody.getWorldCenter(), true);
-            isGrounded = false;
-            jumpSound.play();
-        }
+        jumpRequested = true;
     }
 
-    public void setGrounded(boolean grounded) {
-        this.isGrounded = grounded;
+    public void playJumpSound() {
+        jumpSound.play();
     }
 
     // Implement InputProcessor methods
@@ -106,8 +99,4 @@ public class InputHandler implements InputProcessor {
     public void moveRight() {
         moveRight = true;
     }
-
-    public void dispose() {
-        jumpSound.dispose();
-    }
 }
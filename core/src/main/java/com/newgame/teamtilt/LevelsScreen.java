@@ -14,9 +14,8 @@ import com.badlogic.gdx.scenes.scene2d.ui.ImageButton;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.newgame.teamtilt.assets.GameAssets;
 import com.newgame.teamtilt.levels.LevelDefinition;
 import com.newgame.teamtilt.levels.LevelFactory;
 import com.newgame.teamtilt.levels.LevelProgress;
@@ -30,8 +29,7 @@ public class LevelsScreen implements Screen, InputProcessor {
     private final MultiplayerManager multiplayerManager;
     private final Stage stage;
     private final Skin skin;
-    private Texture backIconTexture;
-    private Texture greenUpTexture, greenDownTexture;
+    private TextureRegion whiteRegion, backIconRegion;
 
     public LevelsScreen(TeamTiltMain game, int worldIndex) {
         this(game, worldIndex, null);
@@ -42,6 +40,8 @@ public class LevelsScreen implements Screen, InputProcessor {
         this.worldIndex = worldIndex;
         this.multiplayerManager = multiplayerManager;
         this.stage = new Stage(new ScreenViewport());
+        this.whiteRegion = game.assets.borrow(GameAssets.WHITE);
+        this.backIconRegion = game.assets.borrow(GameAssets.ICON_BACK);
         this.skin = createSkin();
         buildUi();
         // Set this screen as the input processor for back button handling
@@ -55,14 +55,9 @@ public class LevelsScreen implements Screen, InputProcessor {
         font.getData().setScale(2f);
         s.add("default-font", font, BitmapFont.class);
 
-        Texture up = makeTex(1,1, 0.2f,0.2f,0.2f,1f);
-        Texture down = makeTex(1,1, 0.35f,0.35f,0.35f,1f);
-        // Precreate green styles for completed levels
-        greenUpTexture = makeTex(1,1, 0.2f,0.6f,0.2f,1f);
-        greenDownTexture = makeTex(1,1, 0.25f,0.7f,0.25f,1f);
         TextButton.TextButtonStyle tbs = new TextButton.TextButtonStyle();
-        tbs.up = new TextureRegionDrawable(new TextureRegion(up));
-        tbs.down = new TextureRegionDrawable(new TextureRegion(down));
+        tbs.up = new TextureRegionDrawable(whiteRegion).tint(new Color(0.2f,0.2f,0.2f,1f));
+        tbs.down = new TextureRegionDrawable(whiteRegion).tint(new Color(0.35f,0.35f,0.35f,1f));
         tbs.font = font;
         s.add("default", tbs);
 
@@ -72,15 +67,6 @@ public class LevelsScreen implements Screen, InputProcessor {
         return s;
     }
 
-    private Texture makeTex(int w,int h,float r,float g,float b,float a){
-        Pixmap p = new Pixmap(w,h, Pixmap.Format.RGBA8888);
-        p.setColor(r,g,b,a);
-        p.fill();
-        Texture t = new Texture(p);
-        p.dispose();
-        return t;
-    }
-
     private void buildUi() {
         Table root = new Table();
         root.setFillParent(true);
@@ -90,27 +76,29 @@ public class LevelsScreen implements Screen, InputProcessor {
         root.add(title).pad(20f).colspan(3);
         root.row();
 
-        // 3x2 grid = 6 levels
+        // Three levels per row
         int cols = 3;
-        int rows = 2;
+        int levelCount = LevelFactory.getLevelCount(worldIndex);
+        int rows = (levelCount + cols - 1) / cols;
         int level = 1;
         for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
+            for (int c = 0; c < cols && level <= levelCount; c++) {
                 final int levelIndex = level;
                 TextButton btn = new TextButton("Level " + level, skin);
                 // Ensure each button has its own style instance to avoid mutating the shared Skin style
                 TextButton.TextButtonStyle styleCopy = new TextButton.TextButtonStyle(skin.get(TextButton.TextButtonStyle.class));
                 if (LevelProgress.isCompleted(worldIndex, levelIndex)) {
                     btn.getLabel().setColor(Color.WHITE);
-                    styleCopy.up = new TextureRegionDrawable(new TextureRegion(greenUpTexture));
-                    styleCopy.down = new TextureRegionDrawable(new TextureRegion(greenDownTexture));
+                    styleCopy.up = new TextureRegionDrawable(whiteRegion).tint(new Color(0.2f,0.6f,0.2f,1f));
+                    styleCopy.down = new TextureRegionDrawable(whiteRegion).tint(new Color(0.25f,0.7f,0.25f,1f));
                 }
                 btn.setStyle(styleCopy);
                 btn.addListener(new InputListener(){
                     @Override
                     public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
                         LevelDefinition def = LevelFactory.getLevel(worldIndex, levelIndex);
-                        game.setScreen(new GameScreen(game, def, worldIndex, levelIndex, multiplayerManager));
+                        game.setScreen(new LoadingScreen(game, GameScreen.ASSETS,
+                            () -> new GameScreen(game, def, worldIndex, levelIndex, multiplayerManager)));
                         dispose();
                         return true;
                     }
@@ -122,8 +110,7 @@ public class LevelsScreen implements Screen, InputProcessor {
         }
 
         // Add translucent grey back chevron icon at top-left
-        backIconTexture = createBackIconTexture(80, 80, 0.6f, 0.6f, 0.6f, 0.6f);
-        ImageButton backIcon = new ImageButton(new TextureRegionDrawable(new TextureRegion(backIconTexture)));
+        ImageButton backIcon = new ImageButton(new TextureRegionDrawable(backIconRegion));
         backIcon.setSize(80, 80);
         backIcon.setPosition(20, Gdx.graphics.getHeight() - backIcon.getHeight() - 20);
         backIcon.addListener(new InputListener(){
@@ -143,6 +130,10 @@ public class LevelsScreen implements Screen, InputProcessor {
     public void render(float delta) {
         Gdx.gl.glClearColor(1,1,1,1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        // Keep the room up to date while a level is picked
+        if (multiplayerManager != null) {
+            multiplayerManager.pollEvents();
+        }
         stage.act(delta);
         stage.draw();
     }
@@ -156,31 +147,8 @@ public class LevelsScreen implements Screen, InputProcessor {
     public void dispose() {
         stage.dispose();
         skin.dispose();
-        if (backIconTexture != null) backIconTexture.dispose();
-        if (greenUpTexture != null) greenUpTexture.dispose();
-        if (greenDownTexture != null) greenDownTexture.dispose();
-    }
-
-    // Local helper to generate chevron '<' icon
-    private Texture createBackIconTexture(int width, int height, float r, float g, float b, float a) {
-        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
-        pixmap.setColor(0f, 0f, 0f, 0f);
-        pixmap.fill();
-        pixmap.setColor(r, g, b, a);
-        int thickness = Math.max(10, width / 8);
-        int margin = Math.max(8, width / 10);
-        int xRight = width - margin;
-        int xLeft = margin;
-        int yTop = margin;
-        int yMid = height / 2;
-        int yBot = height - margin;
-        for (int t = -thickness/2; t <= thickness/2; t++) {
-            pixmap.drawLine(xRight, yTop + t, xLeft, yMid + t);
-            pixmap.drawLine(xLeft, yMid + t, xRight, yBot + t);
-        }
-        Texture texture = new Texture(pixmap);
-        pixmap.dispose();
-        return texture;
+        game.assets.release(GameAssets.WHITE);
+        game.assets.release(GameAssets.ICON_BACK);
     }
 
     // InputProcessor methods for back button handling
@@ -238,4 +206,3 @@ public class LevelsScreen implements Screen, InputProcessor {
     }
 }
 
-
@@ -0,0 +1,94 @@
+package com.newgame.teamtilt;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+
+/**
+ * Loads the assets a screen declares and shows a progress bar meanwhile.
+ * Decoding happens on the AssetManager worker thread; GPU uploads are spread
+ * over frames so no single frame stalls. Switches to the next screen as soon
+ * as everything is resident, which is the first frame when nothing is missing.
+ */
+public class LoadingScreen implements Screen {
+    // Time per frame the AssetManager may spend finishing loads on the render thread
+    private static final int FRAME_BUDGET_MILLIS = 8;
+
+    /**
+     * Creates the screen to show once loading is done
+     */
+    public interface ScreenFactory {
+        Screen create();
+    }
+
+    private final TeamTiltMain game;
+    private final AssetDescriptor<?>[] assets;
+    private final ScreenFactory next;
+    private final ShapeRenderer shapeRenderer;
+    private boolean finished = false;
+
+    public LoadingScreen(TeamTiltMain game, AssetDescriptor<?>[] assets, ScreenFactory next) {
+        this.game = game;
+        this.assets = assets;
+        this.next = next;
+        this.shapeRenderer = new ShapeRenderer();
+        game.assets.queue(assets);
+    }
+
+    @Override
+    public void show() {}
+
+    @Override
+    public void render(float delta) {
+        if (finished) return;
+        if (game.assets.update(FRAME_BUDGET_MILLIS)) {
+            finished = true;
+            game.setScreen(next.create());
+            dispose();
+            return;
+        }
+
+        Gdx.gl.glClearColor(1, 1, 1, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        float width = Gdx.graphics.getWidth() * 0.6f;
+        float height = 24f;
+        float x = (Gdx.graphics.getWidth() - width) / 2f;
+        float y = (Gdx.graphics.getHeight() - height) / 2f;
+
+        // Progress bar
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(Color.LIGHT_GRAY);
+        shapeRenderer.rect(x, y, width, height);
+        shapeRenderer.setColor(Color.ORANGE);
+        shapeRenderer.rect(x, y, width * game.assets.getProgress(), height);
+        shapeRenderer.end();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        shapeRenderer.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+    }
+
+    @Override
+    public void pause() {}
+
+    @Override
+    public void resume() {}
+
+    @Override
+    public void hide() {}
+
+    @Override
+    public void dispose() {
+        if (!finished) {
+            // Left before the next screen took over the references, so drop them here
+            finished = true;
+            game.assets.unload(assets);
+        }
+        shapeRenderer.dispose();
+    }
+}
@@ -5,12 +5,18 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.newgame.teamtilt.assets.GameAssets;
 
 public class MainMenuScreen implements Screen, InputProcessor {
+    // Loaded by LoadingScreen before this screen is created
+    public static final AssetDescriptor<?>[] ASSETS = {
+        GameAssets.TITLE_FONT, GameAssets.START_FONT, GameAssets.MENU_BUTTON_FONT
+    };
+
     final TeamTiltMain game;
     private BitmapFont titleFont, smallFont, buttonFont;
     private GlyphLayout layoutTitle, layoutSmall, layoutButton;
@@ -26,24 +32,12 @@ public class MainMenuScreen implements Screen, InputProcessor {
         layoutSmall = new GlyphLayout();
         layoutButton = new GlyphLayout();
 
-        // Load fonts
-        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal("fonts/Matemasie-Regular.ttf"));
-
-        FreeTypeFontGenerator.FreeTypeFontParameter titleParam = new FreeTypeFontGenerator.FreeTypeFontParameter();
-        titleParam.size = 72;
-        titleFont = generator.generateFont(titleParam);
-
-        FreeTypeFontGenerator.FreeTypeFontParameter smallParam = new FreeTypeFontGenerator.FreeTypeFontParameter();
-        smallParam.size = 30;
-        smallFont = generator.generateFont(smallParam);
-
-        FreeTypeFontGenerator.FreeTypeFontParameter buttonParam = new FreeTypeFontGenerator.FreeTypeFontParameter();
-        buttonParam.size = 60;
-        buttonFont = generator.generateFont(buttonParam);
+        // Fonts were generated by the LoadingScreen
+        titleFont = game.assets.get(GameAssets.TITLE_FONT);
+        smallFont = game.assets.get(GameAssets.START_FONT);
+        buttonFont = game.assets.get(GameAssets.MENU_BUTTON_FONT);
         buttonFont.setColor(Color.WHITE); // Make text white
 
-        generator.dispose();
-
         // Set button text
         layoutButton.setText(buttonFont, "ONLINE");
 
@@ -137,14 +131,14 @@ public class MainMenuScreen implements Screen, InputProcessor {
             if (touchX >= buttonX && touchX <= buttonX + buttonWidth &&
                 touchY >= buttonY - buttonHeight && touchY <= buttonY) {
                 // Navigate to multiplayer menu
-                // Create desktop multiplayer service for now
-                com.newgame.teamtilt.multiplayer.MultiplayerService multiplayerService = 
-                    new com.newgame.teamtilt.multiplayer.DesktopMultiplayerService();
+                com.newgame.teamtilt.multiplayer.MultiplayerService multiplayerService =
+                    game.createMultiplayerService();
                 
                 com.newgame.teamtilt.multiplayer.MultiplayerManager multiplayerManager = 
                     new com.newgame.teamtilt.multiplayer.MultiplayerManager(multiplayerService);
                 
-                game.setScreen(new MultiplayerMenuScreen(game, multiplayerManager));
+                game.setScreen(new LoadingScreen(game, MultiplayerMenuScreen.ASSETS,
+                    () -> new MultiplayerMenuScreen(game, multiplayerManager)));
                 dispose();
             }
         }
@@ -164,9 +158,7 @@ public class MainMenuScreen implements Screen, InputProcessor {
 
     @Override
     public void dispose() {
-        titleFont.dispose();
-        smallFont.dispose();
-        buttonFont.dispose();
+        game.assets.unload(ASSETS);
         shapeRenderer.dispose();
     }
 
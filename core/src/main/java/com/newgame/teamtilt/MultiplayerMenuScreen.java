@@ -5,10 +5,12 @@ import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.newgame.teamtilt.assets.GameAssets;
+import com.newgame.teamtilt.levels.LevelFactory;
 import com.newgame.teamtilt.multiplayer.MultiplayerManager;
 import com.newgame.teamtilt.multiplayer.MultiplayerService;
 import com.newgame.teamtilt.ui.ToastManager;
@@ -17,6 +19,11 @@ import com.newgame.teamtilt.ui.ToastManager;
  * Multiplayer menu screen for creating/joining rooms
  */
 public class MultiplayerMenuScreen implements Screen, InputProcessor, MultiplayerService.MultiplayerListener {
+    // Loaded by LoadingScreen before this screen is created
+    public static final AssetDescriptor<?>[] ASSETS = {
+        GameAssets.HEADING_FONT, GameAssets.BUTTON_FONT, GameAssets.TOAST_FONT
+    };
+
     final TeamTiltMain game;
     private BitmapFont titleFont, buttonFont;
     private GlyphLayout layoutTitle, layoutButton;
@@ -36,27 +43,19 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
     private MultiplayerManager multiplayerManager;
     private ToastManager toastManager;
     private String currentRoomCode;
+    // Joined a room and waiting for the server to say which level it is playing
+    private boolean joining = false;
 
     public MultiplayerMenuScreen(TeamTiltMain game, MultiplayerManager multiplayerManager) {
         this.game = game;
         this.multiplayerManager = multiplayerManager;
         
-        // Initialize fonts
-        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal("fonts/Matemasie-Regular.ttf"));
-        FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
-        
-        // Title font
-        parameter.size = 48;
-        titleFont = generator.generateFont(parameter);
+        // Fonts were generated by the LoadingScreen
+        titleFont = game.assets.get(GameAssets.HEADING_FONT);
         titleFont.setColor(Color.BLACK);
-        
-        // Button font
-        parameter.size = 24;
-        buttonFont = generator.generateFont(parameter);
+        buttonFont = game.assets.get(GameAssets.BUTTON_FONT);
         buttonFont.setColor(Color.WHITE);
         
-        generator.dispose();
-        
         // Initialize layout objects
         layoutTitle = new GlyphLayout();
         layoutButton = new GlyphLayout();
@@ -65,7 +64,7 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
         shapeRenderer = new ShapeRenderer();
         
         // Initialize toast manager
-        toastManager = new ToastManager();
+        toastManager = new ToastManager(game.assets.get(GameAssets.TOAST_FONT));
         
         // Set button text and calculate positions
         layoutTitle.setText(titleFont, "Multiplayer");
@@ -117,6 +116,15 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
         Gdx.gl.glClearColor(1, 1, 1, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
 
+        // Sign-in and room answers arrive through here
+        if (multiplayerManager != null) {
+            multiplayerManager.pollEvents();
+            if (joining && multiplayerManager.isRoomLevelPending()) {
+                openLevel(multiplayerManager.getRoomWorld(), multiplayerManager.getRoomLevel());
+                return;
+            }
+        }
+
         String titleText = "Multiplayer";
         String createRoomText = "Create Room";
         String joinRoomText = "Join Room";
@@ -239,7 +247,7 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
             if (touchX >= createRoomButtonX && touchX <= createRoomButtonX + createRoomButtonWidth &&
                 touchY >= createRoomButtonY - createRoomButtonHeight && touchY <= createRoomButtonY) {
                 if (multiplayerManager != null) {
-                    multiplayerManager.createRoom(2); // Create room for 2 players
+                    multiplayerManager.createRoom(MultiplayerService.MAX_ROOM_PLAYERS);
                     // Wait for room creation callback before navigating
                 }
             }
@@ -261,8 +269,14 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
                 if (multiplayerManager != null) {
                     if (roomCodeInput.length() == 6) {
                         multiplayerManager.joinRoom(roomCodeInput);
-                        game.setScreen(new GameScreen(game, null, 1, 1, multiplayerManager));
-                        dispose();
+                        if (multiplayerManager.isAuthoritative()) {
+                            // The host picks the level; it is announced once the join goes through
+                            joining = true;
+                        } else {
+                            // Backends without an authority never announce one
+                            openLevel(1, 1);
+                            return;
+                        }
                     } else {
                         toastManager.showToast("Please enter a 6-digit room code", MultiplayerService.ToastType.WARNING);
                     }
@@ -272,12 +286,22 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
             // Check if "Back" button is clicked
             if (touchX >= backButtonX && touchX <= backButtonX + backButtonWidth &&
                 touchY >= backButtonY - backButtonHeight && touchY <= backButtonY) {
-                game.setScreen(new MainMenuScreen(game));
+                game.setScreen(new LoadingScreen(game, MainMenuScreen.ASSETS, () -> new MainMenuScreen(game)));
                 dispose();
             }
         }
     }
 
+    /**
+     * Load a level of the room and play it
+     */
+    private void openLevel(int worldIndex, int levelIndex) {
+        joining = false;
+        game.setScreen(new LoadingScreen(game, GameScreen.ASSETS,
+            () -> new GameScreen(game, LevelFactory.getLevel(worldIndex, levelIndex), worldIndex, levelIndex, multiplayerManager)));
+        dispose();
+    }
+
     @Override
     public void resize(int width, int height) {}
 
@@ -292,8 +316,7 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
 
     @Override
     public void dispose() {
-        titleFont.dispose();
-        buttonFont.dispose();
+        game.assets.unload(ASSETS);
         shapeRenderer.dispose();
         if (toastManager != null) {
             toastManager.dispose();
@@ -369,7 +392,7 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
                 return true;
             }
             // From multiplayer menu, go to MainMenuScreen
-            game.setScreen(new MainMenuScreen(game));
+            game.setScreen(new LoadingScreen(game, MainMenuScreen.ASSETS, () -> new MainMenuScreen(game)));
             dispose();
             return true;
         }
@@ -429,7 +452,8 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
     
     @Override
     public void onRoomJoined(String roomId) {
-        toastManager.showToast("Joined room successfully", MultiplayerService.ToastType.SUCCESS);
+        toastManager.showToast(joining ? "Joined room, waiting for the host to start a level" : "Joined room successfully",
+            MultiplayerService.ToastType.SUCCESS);
     }
     
     @Override
@@ -457,6 +481,11 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
         // Not used in this screen
     }
     
+    @Override
+    public void onAuthoritativeState(int inputSequence, MultiplayerService.PlayerData state) {
+        // Not used in this screen
+    }
+    
     @Override
     public void onRoomCreationFailed(String error) {
         toastManager.showToast("Room creation failed: " + error, MultiplayerService.ToastType.ERROR);
@@ -464,6 +493,7 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
     
     @Override
     public void onJoinRoomFailed(String error) {
+        joining = false;
         toastManager.showToast("Failed to join room: " + error, MultiplayerService.ToastType.ERROR);
     }
     
@@ -472,9 +502,12 @@ public class MultiplayerMenuScreen implements Screen, InputProcessor, Multiplaye
         currentRoomCode = roomCode;
         toastManager.showToast("Room created! Code: " + roomCode, MultiplayerService.ToastType.SUCCESS);
         
-        // Navigate to level selection screen for multiplayer
-        game.setScreen(new LevelsScreen(game, 1, multiplayerManager));
-        dispose();
+        // Navigate to level selection screen for multiplayer once this frame is drawn;
+        // events are delivered from render()
+        Gdx.app.postRunnable(() -> {
+            game.setScreen(new LevelsScreen(game, 1, multiplayerManager));
+            dispose();
+        });
     }
     
     @Override
@@ -1,31 +1,38 @@
 package com.newgame.teamtilt;
 
-import com.badlogic.gdx.physics.box2d.*;
-import com.badlogic.gdx.math.Vector2;
-
+/**
+ * A platform's rectangle in pixels, used for rendering and level queries.
+ * Collision for all of a level's platforms is created in one static body by
+ * {@link com.newgame.teamtilt.simulation.LevelGeometryBuilder}.
+ */
 public class Platform {
-    private Body body;
-    private static final float PPM = 100;  // Pixels per meter for Box2D scaling
-
-    public Platform(World world, float x, float y, float width, float height) {
-        BodyDef bodyDef = new BodyDef();
-        bodyDef.type = BodyDef.BodyType.StaticBody;
-        bodyDef.position.set((x + width / 2) / PPM, (y + height / 2) / PPM);
-
-        body = world.createBody(bodyDef);
+    private final float x, y;
+    private final float width, height;
+
+    /**
+     * @param x Left edge in pixels
+     * @param y Bottom edge in pixels
+     */
+    public Platform(float x, float y, float width, float height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
 
-        PolygonShape shape = new PolygonShape();
-        shape.setAsBox(width / 2 / PPM, height / 2 / PPM);
+    public float getX() {
+        return x;
+    }
 
-        FixtureDef fixtureDef = new FixtureDef();
-        fixtureDef.shape = shape;
-        fixtureDef.friction = 5f;
+    public float getY() {
+        return y;
+    }
 
-        body.createFixture(fixtureDef);
-        shape.dispose();
+    public float getWidth() {
+        return width;
     }
 
-    public Vector2 getPosition() {
-        return body.getPosition();
+    public float getHeight() {
+        return height;
     }
 }
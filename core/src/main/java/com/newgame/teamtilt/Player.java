@@ -1,13 +1,16 @@
 package com.newgame.teamtilt;
 
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
 import com.newgame.teamtilt.multiplayer.MultiplayerService;
 
 public class Player {
+    // Collision box in pixels, matches characters/character.png
+    public static final float WIDTH = 32f;
+    public static final float HEIGHT = 32f;
+
     private Body body;
-    private Texture texture;
     private final float PPM = 100f; // Pixels per meter
     private final float speed = 2.5f;
     private final float startX = 150, startY = 320; // Starting position
@@ -18,15 +21,22 @@ public class Player {
     private boolean isMovingLeft = false;
     private boolean isMovingRight = false;
     private boolean isJumping = false;
+    private int groundContacts = 0;
+
+    // Body position before the most recent physics step, used for render interpolation
+    private final Vector2 previousPosition = new Vector2();
+    // Where a remote player's kinematic body should be after the next step, in meters
+    private final Vector2 remoteTarget = new Vector2();
+    private boolean hasRemoteTarget = false;
+    // Farther than this from the target (meters) and the body is moved there directly
+    private static final float SNAP_DISTANCE = 2f;
 
-    public Player(World world, Texture texture) {
-        this.texture = texture;
+    public Player(World world) {
         this.isLocalPlayer = true;
         createPlayerBody(world);
     }
     
-    public Player(World world, Texture texture, String playerId) {
-        this.texture = texture;
+    public Player(World world, String playerId) {
         this.playerId = playerId;
         this.isLocalPlayer = false;
         createPlayerBody(world);
@@ -34,13 +44,15 @@ public class Player {
 
     private void createPlayerBody(World world) {
         BodyDef bodyDef = new BodyDef();
-        bodyDef.type = BodyDef.BodyType.DynamicBody;
+        // Remote players move along the received path; gravity and contacts must not fight it
+        bodyDef.type = isLocalPlayer ? BodyDef.BodyType.DynamicBody : BodyDef.BodyType.KinematicBody;
         bodyDef.position.set(startX / PPM, startY / PPM);
 
         body = world.createBody(bodyDef);
+        body.setUserData(this);
 
         PolygonShape shape = new PolygonShape();
-        shape.setAsBox(texture.getWidth() / 2 / PPM, texture.getHeight() / 2 / PPM);
+        shape.setAsBox(WIDTH / 2 / PPM, HEIGHT / 2 / PPM);
 
         FixtureDef fixtureDef = new FixtureDef();
         fixtureDef.shape = shape;
@@ -49,6 +61,7 @@ public class Player {
         body.createFixture(fixtureDef);
         body.setFixedRotation(true);
         shape.dispose();
+        previousPosition.set(body.getPosition());
     }
 
     public void updateMovement(boolean moveLeft, boolean moveRight) {
@@ -57,38 +70,86 @@ public class Player {
         
         if (moveLeft) {
             body.setLinearVelocity(-speed, body.getLinearVelocity().y);
-        }
-        if (moveRight) {
+        } else if (moveRight) {
             body.setLinearVelocity(speed, body.getLinearVelocity().y);
+        } else {
+            // stop horizontal movement when no input
+            body.setLinearVelocity(0f, body.getLinearVelocity().y);
         }
     }
 
-    public void jump() {
+    /**
+     * Jump if standing on something
+     * @return true if the jump impulse was applied
+     */
+    public boolean jump() {
+        if (!isGrounded()) return false;
         this.isJumping = true;
-        body.applyLinearImpulse(new Vector2(0, 2f), body.getWorldCenter(), true);
+        Vector2 center = body.getWorldCenter();
+        body.applyLinearImpulse(0, 2f, center.x, center.y, true);
+        groundContacts = 0;
+        return true;
+    }
+
+    public boolean isGrounded() {
+        return groundContacts > 0;
+    }
+
+    public void beginContact() {
+        groundContacts++;
+    }
+
+    public void endContact() {
+        if (groundContacts > 0) groundContacts--;
     }
     
     /**
-     * Update player from multiplayer data (for remote players)
+     * Set where a remote player should be, from interpolated network state (pixels)
      */
-    public void updateFromMultiplayerData(MultiplayerService.PlayerData data) {
+    public void setRemoteTarget(float x, float y, boolean isJumping, boolean isMovingLeft, boolean isMovingRight) {
         if (isLocalPlayer) return; // Don't update local player from network data
-        
-        body.setTransform(data.x / PPM, data.y / PPM, body.getAngle());
-        body.setLinearVelocity(data.velocityX, data.velocityY);
-        this.isMovingLeft = data.isMovingLeft;
-        this.isMovingRight = data.isMovingRight;
-        this.isJumping = data.isJumping;
+
+        remoteTarget.set(x / PPM, y / PPM);
+        hasRemoteTarget = true;
+        this.isMovingLeft = isMovingLeft;
+        this.isMovingRight = isMovingRight;
+        this.isJumping = isJumping;
+    }
+
+    /**
+     * Give a remote player's kinematic body the velocity that reaches its target in one step
+     */
+    public void driveToTarget(float timeStep) {
+        if (!hasRemoteTarget) return;
+        Vector2 position = body.getPosition();
+        float dx = remoteTarget.x - position.x;
+        float dy = remoteTarget.y - position.y;
+        if (dx * dx + dy * dy > SNAP_DISTANCE * SNAP_DISTANCE) {
+            // Respawn or a long stall: jump there instead of sliding through the level
+            body.setTransform(remoteTarget, 0);
+            body.setLinearVelocity(0, 0);
+            previousPosition.set(remoteTarget);
+            return;
+        }
+        body.setLinearVelocity(dx / timeStep, dy / timeStep);
     }
     
     /**
      * Get current player data for multiplayer synchronization
      */
     public MultiplayerService.PlayerData getPlayerData() {
+        return getPlayerData(new MultiplayerService.PlayerData(null));
+    }
+    
+    /**
+     * Fill an existing instance with the current player data; the per-frame form
+     * @return out
+     */
+    public MultiplayerService.PlayerData getPlayerData(MultiplayerService.PlayerData out) {
         Vector2 position = body.getPosition();
         Vector2 velocity = body.getLinearVelocity();
         
-        return new MultiplayerService.PlayerData(
+        return out.set(
             playerId != null ? playerId : "local",
             position.x * PPM,
             position.y * PPM,
@@ -106,14 +167,35 @@ public class Player {
 
     public void respawn() {
         body.setTransform(startX / PPM, startY / PPM, 0);
+        // Don't interpolate across the teleport
+        previousPosition.set(body.getPosition());
     }
 
-    public Body getBody() {
-        return body;
+    /**
+     * Remember the current body position; call right before each fixed physics step
+     */
+    public void savePreviousPosition() {
+        previousPosition.set(body.getPosition());
+    }
+
+    /**
+     * X position in pixels, blended between the last two physics steps
+     * @param alpha Fraction of a time step left in the accumulator (0..1)
+     */
+    public float getInterpolatedX(float alpha) {
+        return MathUtils.lerp(previousPosition.x, body.getPosition().x, alpha) * PPM;
     }
 
-    public Texture getTexture() {
-        return texture;
+    /**
+     * Y position in pixels, blended between the last two physics steps
+     * @param alpha Fraction of a time step left in the accumulator (0..1)
+     */
+    public float getInterpolatedY(float alpha) {
+        return MathUtils.lerp(previousPosition.y, body.getPosition().y, alpha) * PPM;
+    }
+
+    public Body getBody() {
+        return body;
     }
 
     public float getPPM() {
@@ -1,17 +1,80 @@
 package com.newgame.teamtilt;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.newgame.teamtilt.assets.GameAssets;
+import com.newgame.teamtilt.levels.LevelProgress;
+import com.newgame.teamtilt.metrics.Metrics;
+import com.newgame.teamtilt.multiplayer.DesktopMultiplayerService;
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+import com.newgame.teamtilt.multiplayer.net.UdpMultiplayerService;
+import com.newgame.teamtilt.simulation.Replay;
+
+import java.io.File;
 
 /** {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms. */
 public class TeamTiltMain extends Game {
     public SpriteBatch batch;
+    // Shared by every screen; loaded once for the lifetime of the app
+    public GameAssets assets;
+    // Relay server to play against; null uses the offline stub
+    private final String serverHost;
+    private final int serverPort;
+    // Replay file to watch instead of opening the menu; null for normal play
+    private String replayPath;
+    // Step solo levels on a thread of their own instead of in render()
+    private boolean threadedSimulation;
+
+    public TeamTiltMain() {
+        this(null, 0);
+    }
+
+    public TeamTiltMain(String serverHost, int serverPort) {
+        this.serverHost = serverHost;
+        this.serverPort = serverPort;
+    }
+
+    /**
+     * Start straight into playback of a recorded attempt, e.g. one sent in with a bug report
+     * @param path Replay file path on the local file system
+     */
+    public void setReplayPath(String path) {
+        this.replayPath = path;
+    }
+
+    /**
+     * Run solo simulation steps on a dedicated thread so slow frames don't hold up physics
+     */
+    public void setThreadedSimulation(boolean threadedSimulation) {
+        this.threadedSimulation = threadedSimulation;
+    }
+
+    public boolean isThreadedSimulation() {
+        return threadedSimulation;
+    }
 
     @Override
     public void create() {
         batch = new SpriteBatch();
-        // Set the first screen here, for example, the Main Menu Screen
-        this.setScreen(new MainMenuScreen(this));
+        assets = new GameAssets();
+        if (replayPath != null) {
+            Replay replay = Replay.load(Gdx.files.absolute(new File(replayPath).getAbsolutePath()));
+            this.setScreen(new LoadingScreen(this, GameScreen.ASSETS, () -> new GameScreen(this, replay)));
+            return;
+        }
+        // Load what the main menu needs, then show it
+        this.setScreen(new LoadingScreen(this, MainMenuScreen.ASSETS, () -> new MainMenuScreen(this)));
+    }
+
+    /**
+     * Fresh multiplayer backend for an online session
+     */
+    public MultiplayerService createMultiplayerService() {
+        if (serverHost != null) {
+            return new UdpMultiplayerService(serverHost, serverPort);
+        }
+        return new DesktopMultiplayerService();
     }
 
     @Override
@@ -19,9 +82,19 @@ public class TeamTiltMain extends Game {
         super.render(); // Calls the render method of the active screen
     }
 
+    @Override
+    public void pause() {
+        super.pause();
+        // Backgrounding is often the last chance on mobile; keep the report current for field reports
+        Metrics.export();
+        LevelProgress.flush();
+    }
+
     @Override
     public void dispose() {
+        LevelProgress.flush();
         batch.dispose();
+        assets.dispose();
         // Dispose of other resources if necessary
     }
 }
@@ -14,20 +14,23 @@ import com.badlogic.gdx.scenes.scene2d.ui.ImageButton;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.InputProcessor;
+import com.newgame.teamtilt.assets.GameAssets;
+import com.newgame.teamtilt.levels.LevelFactory;
 
 public class WorldsScreen implements Screen, InputProcessor {
     private final TeamTiltMain game;
     private final Stage stage;
     private final Skin skin;
-    private Texture backIconTexture;
+    private TextureRegion whiteRegion, backIconRegion;
 
     public WorldsScreen(TeamTiltMain game) {
         this.game = game;
         this.stage = new Stage(new ScreenViewport());
+        this.whiteRegion = game.assets.borrow(GameAssets.WHITE);
+        this.backIconRegion = game.assets.borrow(GameAssets.ICON_BACK);
         this.skin = createSkin();
         buildUi();
         // Set this screen as the input processor for back button handling
@@ -41,11 +44,9 @@ public class WorldsScreen implements Screen, InputProcessor {
         font.getData().setScale(2f);
         s.add("default-font", font, BitmapFont.class);
 
-        Texture up = makeTex(1,1, 0.2f,0.2f,0.2f,1f);
-        Texture down = makeTex(1,1, 0.35f,0.35f,0.35f,1f);
         TextButton.TextButtonStyle tbs = new TextButton.TextButtonStyle();
-        tbs.up = new TextureRegionDrawable(new TextureRegion(up));
-        tbs.down = new TextureRegionDrawable(new TextureRegion(down));
+        tbs.up = new TextureRegionDrawable(whiteRegion).tint(new Color(0.2f,0.2f,0.2f,1f));
+        tbs.down = new TextureRegionDrawable(whiteRegion).tint(new Color(0.35f,0.35f,0.35f,1f));
         tbs.font = font;
         s.add("default", tbs);
 
@@ -55,15 +56,6 @@ public class WorldsScreen implements Screen, InputProcessor {
         return s;
     }
 
-    private Texture makeTex(int w,int h,float r,float g,float b,float a){
-        Pixmap p = new Pixmap(w,h, Pixmap.Format.RGBA8888);
-        p.setColor(r,g,b,a);
-        p.fill();
-        Texture t = new Texture(p);
-        p.dispose();
-        return t;
-    }
-
     private void buildUi() {
         Table root = new Table();
         root.setFillParent(true);
@@ -73,8 +65,9 @@ public class WorldsScreen implements Screen, InputProcessor {
         root.add(title).pad(20f).colspan(2);
         root.row();
 
-        // 4 worlds laid out 2x2
-        for (int i = 1; i <= 4; i++) {
+        // Worlds laid out two per row
+        int worldCount = LevelFactory.getWorldCount();
+        for (int i = 1; i <= worldCount; i++) {
             final int worldIndex = i;
             TextButton btn = new TextButton("World " + i, skin);
             btn.addListener(new InputListener(){
@@ -90,14 +83,13 @@ public class WorldsScreen implements Screen, InputProcessor {
         }
 
         // Add translucent grey back chevron icon at top-left
-        backIconTexture = createBackIconTexture(80, 80, 0.6f, 0.6f, 0.6f, 0.6f);
-        ImageButton backIcon = new ImageButton(new TextureRegionDrawable(new TextureRegion(backIconTexture)));
+        ImageButton backIcon = new ImageButton(new TextureRegionDrawable(backIconRegion));
         backIcon.setSize(80, 80);
         backIcon.setPosition(20, Gdx.graphics.getHeight() - backIcon.getHeight() - 20);
         backIcon.addListener(new InputListener(){
             @Override
             public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-                game.setScreen(new MainMenuScreen(game));
+                game.setScreen(new LoadingScreen(game, MainMenuScreen.ASSETS, () -> new MainMenuScreen(game)));
                 dispose();
                 return true;
             }
@@ -124,33 +116,8 @@ public class WorldsScreen implements Screen, InputProcessor {
     public void dispose() {
         stage.dispose();
         skin.dispose();
-        if (backIconTexture != null) backIconTexture.dispose();
-    }
-
-    // Local helper to generate chevron '<' icon
-    private Texture createBackIconTexture(int width, int height, float r, float g, float b, float a) {
-        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
-        pixmap.setColor(0f, 0f, 0f, 0f);
-        pixmap.fill();
-        pixmap.setColor(r, g, b, a);
-        // Thicker chevron stroke while keeping the same clickable size
-        int thickness = Math.max(10, width / 8);
-        int margin = Math.max(8, width / 10);
-        int xRight = width - margin;
-        int xLeft = margin;
-        int yTop = margin;
-        int yMid = height / 2;
-        int yBot = height - margin;
-
-        // Draw two thick diagonal strokes to form '<'
-        for (int t = -thickness/2; t <= thickness/2; t++) {
-            pixmap.drawLine(xRight, yTop + t, xLeft, yMid + t);
-            pixmap.drawLine(xLeft, yMid + t, xRight, yBot + t);
-        }
-
-        Texture texture = new Texture(pixmap);
-        pixmap.dispose();
-        return texture;
+        game.assets.release(GameAssets.WHITE);
+        game.assets.release(GameAssets.ICON_BACK);
     }
 
     // InputProcessor methods for back button handling
@@ -159,7 +126,7 @@ public class WorldsScreen implements Screen, InputProcessor {
         // Android back button is keycode 131 (Input.Keys.BACK)
         if (keycode == 131) {
             // From WorldsScreen, go to MainMenuScreen
-            game.setScreen(new MainMenuScreen(game));
+            game.setScreen(new LoadingScreen(game, MainMenuScreen.ASSETS, () -> new MainMenuScreen(game)));
             dispose();
             return true;
         }
@@ -208,4 +175,3 @@ public class WorldsScreen implements Screen, InputProcessor {
     }
 }
 
-
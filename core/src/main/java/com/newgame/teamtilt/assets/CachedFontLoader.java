@@ -0,0 +1,193 @@
+package com.newgame.teamtilt.assets;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Loads pre-rasterized bitmap fonts, running FreeType only when no cached copy exists.
+ * Fonts are keyed by TTF, size, color and charset. The first time a key is
+ * requested the glyphs are rasterized with FreeType and the glyph pages are
+ * written to local storage as an AngelCode .fnt file plus PNGs; later launches
+ * read those files and never touch FreeType. Rasterizing, encoding and decoding
+ * all happen on the AssetManager worker thread; only the texture upload runs on
+ * the render thread.
+ */
+public class CachedFontLoader extends AsynchronousAssetLoader<BitmapFont, CachedFontLoader.FontParameter> {
+    public static final String SUFFIX = ".font";
+    private static final String CACHE_DIR = "fontcache/";
+    // Bump when the generated output changes so stale caches are ignored
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAGE_SIZE = 1024;
+
+    public static class FontParameter extends AssetLoaderParameters<BitmapFont> {
+        public String fontFile;
+        public int size;
+        public Color color = new Color(Color.WHITE);
+        public String characters = FreeTypeFontGenerator.DEFAULT_CHARS;
+    }
+
+    // State handed from loadAsync to loadSync for the font being loaded
+    private BitmapFont.BitmapFontData data;
+    private final Array<Pixmap> pages = new Array<>();
+    private PixmapPacker packer;
+
+    public CachedFontLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    /**
+     * Descriptor for a font; equal size, color and charset always map to the same cached font
+     */
+    public static AssetDescriptor<BitmapFont> descriptor(String fontFile, int size, Color color, String characters) {
+        FontParameter parameter = new FontParameter();
+        parameter.fontFile = fontFile;
+        parameter.size = size;
+        parameter.color.set(color);
+        parameter.characters = characters;
+        String key = new FileHandle(fontFile).nameWithoutExtension() + "-" + size + "-" + color
+            + "-" + Integer.toHexString(characters.hashCode()) + "-v" + FORMAT_VERSION;
+        return new AssetDescriptor<>(key + SUFFIX, BitmapFont.class, parameter);
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, FontParameter parameter) {
+        return null;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, FontParameter parameter) {
+        String key = file.nameWithoutExtension();
+        FileHandle fnt = Gdx.files.local(CACHE_DIR + key + ".fnt");
+        if (fnt.exists()) {
+            try {
+                data = new BitmapFont.BitmapFontData(fnt, false);
+                for (String imagePath : data.imagePaths) {
+                    pages.add(new Pixmap(Gdx.files.getFileHandle(imagePath, Files.FileType.Local)));
+                }
+                return;
+            } catch (Exception e) {
+                Gdx.app.error("CachedFontLoader", "Ignoring broken font cache " + fnt.path() + ": " + e.getMessage());
+                for (Pixmap page : pages) page.dispose();
+                pages.clear();
+            }
+        }
+        generate(key, fnt, parameter);
+    }
+
+    private void generate(String key, FileHandle fnt, FontParameter parameter) {
+        packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 1, false);
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(resolve(parameter.fontFile));
+        try {
+            FreeTypeFontGenerator.FreeTypeFontParameter fontParameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
+            fontParameter.size = parameter.size;
+            fontParameter.color = parameter.color;
+            fontParameter.characters = parameter.characters;
+            fontParameter.packer = packer;
+            data = generator.generateData(fontParameter);
+        } finally {
+            generator.dispose();
+        }
+        for (PixmapPacker.Page page : packer.getPages()) {
+            pages.add(page.getPixmap());
+        }
+        try {
+            writeCache(key, fnt);
+        } catch (Exception e) {
+            // Still usable this session; it just gets generated again next launch
+            Gdx.app.error("CachedFontLoader", "Could not write font cache " + fnt.path() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the glyph pages and an AngelCode text .fnt describing them
+     */
+    private void writeCache(String key, FileHandle fnt) {
+        StringBuilder out = new StringBuilder();
+        out.append("info face=\"").append(key).append("\" size=").append((int) data.lineHeight)
+            .append(" bold=0 italic=0 charset=\"\" unicode=1 stretchH=100 smooth=1 aa=1 padding=0,0,0,0 spacing=0,0\n");
+        int base = (int) (data.capHeight + (data.flipped ? -data.ascent : data.ascent));
+        out.append("common lineHeight=").append((int) data.lineHeight).append(" base=").append(base)
+            .append(" scaleW=").append(PAGE_SIZE).append(" scaleH=").append(PAGE_SIZE)
+            .append(" pages=").append(pages.size).append(" packed=0\n");
+        for (int i = 0; i < pages.size; i++) {
+            String pageName = key + "_" + i + ".png";
+            PixmapIO.writePNG(fnt.sibling(pageName), pages.get(i));
+            out.append("page id=").append(i).append(" file=\"").append(pageName).append("\"\n");
+        }
+
+        Array<BitmapFont.Glyph> glyphs = new Array<>();
+        for (BitmapFont.Glyph[] page : data.glyphs) {
+            if (page == null) continue;
+            for (BitmapFont.Glyph glyph : page) {
+                if (glyph != null) glyphs.add(glyph);
+            }
+        }
+        out.append("chars count=").append(glyphs.size).append('\n');
+        for (BitmapFont.Glyph glyph : glyphs) {
+            out.append("char id=").append(glyph.id)
+                .append(" x=").append(glyph.srcX)
+                .append(" y=").append(glyph.srcY)
+                .append(" width=").append(glyph.width)
+                .append(" height=").append(glyph.height)
+                .append(" xoffset=").append(glyph.xoffset)
+                .append(" yoffset=").append(data.flipped ? glyph.yoffset : -(glyph.height + glyph.yoffset))
+                .append(" xadvance=").append(glyph.xadvance)
+                .append(" page=").append(glyph.page)
+                .append(" chnl=0\n");
+        }
+
+        StringBuilder kernings = new StringBuilder();
+        int kerningCount = 0;
+        for (BitmapFont.Glyph first : glyphs) {
+            for (BitmapFont.Glyph second : glyphs) {
+                int amount = first.getKerning((char) second.id);
+                if (amount != 0) {
+                    kernings.append("kerning first=").append(first.id).append(" second=").append(second.id)
+                        .append(" amount=").append(amount).append('\n');
+                    kerningCount++;
+                }
+            }
+        }
+        out.append("kernings count=").append(kerningCount).append('\n').append(kernings);
+        // Written last so a partially written cache is never picked up
+        fnt.writeString(out.toString(), false, "UTF-8");
+    }
+
+    @Override
+    public BitmapFont loadSync(AssetManager manager, String fileName, FileHandle file, FontParameter parameter) {
+        Array<TextureRegion> regions = new Array<>(pages.size);
+        for (Pixmap page : pages) {
+            Texture texture = new Texture(page);
+            texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+            regions.add(new TextureRegion(texture));
+        }
+        BitmapFont font = new BitmapFont(data, regions, true);
+        font.setOwnsTexture(true);
+
+        if (packer != null) {
+            // Disposes the page pixmaps as well
+            packer.dispose();
+            packer = null;
+        } else {
+            for (Pixmap page : pages) page.dispose();
+        }
+        pages.clear();
+        data = null;
+        return font;
+    }
+}
@@ -0,0 +1,167 @@
+package com.newgame.teamtilt.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Application-wide asset registry built on an {@link AssetManager}.
+ * Screens declare the assets they need as descriptors; a LoadingScreen
+ * queues them, and the manager decodes them on its worker thread and uploads
+ * them in small time slices per frame. The manager reference counts every
+ * asset: each queue() must be matched by an unload() when the screen goes away.
+ * The packed texture atlas is pinned for the lifetime of the app, so switching
+ * screens or restarting a level never reloads textures. Screens borrow atlas
+ * regions by name and release them when disposed; the counts catch screens
+ * that leak or over-release. Fonts come from {@link CachedFontLoader} and are
+ * pinned on first use, so each size/color/charset is rasterized once per process.
+ */
+public class GameAssets implements Disposable {
+    public static final String ATLAS = "atlas/game.atlas";
+    private static final String FONT_FILE = "fonts/Matemasie-Regular.ttf";
+
+    // Region names inside the atlas (folder/file without extension)
+    public static final String BACKGROUND = "backgrounds/background";
+    public static final String PLATFORM = "platforms/platform";
+    public static final String CHARACTER = "characters/character";
+    public static final String BUTTON_LEFT = "buttons/left";
+    public static final String BUTTON_RIGHT = "buttons/right";
+    public static final String BUTTON_JUMP = "buttons/jump";
+    public static final String WHITE = "ui/white";
+    public static final String ICON_PAUSE = "ui/pause";
+    public static final String ICON_RESUME = "ui/resume";
+    public static final String ICON_BACK = "ui/back";
+
+    public static final AssetDescriptor<TextureAtlas> ATLAS_ASSET =
+        new AssetDescriptor<>(ATLAS, TextureAtlas.class);
+    public static final AssetDescriptor<Sound> JUMP_SOUND =
+        new AssetDescriptor<>("sounds/jump_sound.wav", Sound.class);
+
+    // Fonts are keyed by size, color and charset; equal keys share one BitmapFont
+    public static final AssetDescriptor<BitmapFont> TITLE_FONT = font(72, Color.WHITE);
+    public static final AssetDescriptor<BitmapFont> START_FONT = font(30, Color.WHITE);
+    public static final AssetDescriptor<BitmapFont> MENU_BUTTON_FONT = font(60, Color.WHITE);
+    public static final AssetDescriptor<BitmapFont> HEADING_FONT = font(48, Color.WHITE);
+    public static final AssetDescriptor<BitmapFont> BUTTON_FONT = font(24, Color.WHITE);
+    public static final AssetDescriptor<BitmapFont> TOAST_FONT = font(24, Color.WHITE);
+
+    private final AssetManager manager;
+    private TextureAtlas atlas;
+    private final ObjectMap<String, TextureRegion> regions = new ObjectMap<>();
+    private final ObjectIntMap<String> borrowCounts = new ObjectIntMap<>();
+    private final ObjectSet<String> pinnedFonts = new ObjectSet<>();
+
+    public GameAssets() {
+        FileHandleResolver resolver = new InternalFileHandleResolver();
+        manager = new AssetManager(resolver);
+        manager.setLoader(BitmapFont.class, CachedFontLoader.SUFFIX, new CachedFontLoader(resolver));
+        // Pinned: this reference is only released in dispose()
+        manager.load(ATLAS_ASSET);
+    }
+
+    private static AssetDescriptor<BitmapFont> font(int size, Color color) {
+        return CachedFontLoader.descriptor(FONT_FILE, size, color, FreeTypeFontGenerator.DEFAULT_CHARS);
+    }
+
+    /**
+     * Queue assets for background loading; already loaded assets only gain a reference
+     */
+    public void queue(AssetDescriptor<?>[] descriptors) {
+        for (AssetDescriptor<?> descriptor : descriptors) {
+            manager.load(descriptor);
+            if (descriptor.type == BitmapFont.class && pinnedFonts.add(descriptor.fileName)) {
+                // Extra reference only released in dispose(), so screens never unload a font
+                manager.load(descriptor);
+            }
+        }
+    }
+
+    /**
+     * Drop the references taken by {@link #queue(AssetDescriptor[])}. Assets still queued or
+     * loading are dropped from the queue too, so leaving a LoadingScreen early leaks nothing.
+     */
+    public void unload(AssetDescriptor<?>[] descriptors) {
+        for (AssetDescriptor<?> descriptor : descriptors) {
+            if (manager.contains(descriptor.fileName)) {
+                manager.unload(descriptor.fileName);
+            }
+        }
+    }
+
+    /**
+     * Advance loading for at most the given time
+     * @return true once everything queued so far is loaded
+     */
+    public boolean update(int millis) {
+        return manager.update(millis);
+    }
+
+    /**
+     * Loading progress between 0 and 1
+     */
+    public float getProgress() {
+        return manager.getProgress();
+    }
+
+    public <T> T get(AssetDescriptor<T> descriptor) {
+        return manager.get(descriptor);
+    }
+
+    /**
+     * Borrow a region; every call must be matched by {@link #release(String)}
+     */
+    public TextureRegion borrow(String name) {
+        TextureRegion region = regions.get(name);
+        if (region == null) {
+            if (atlas == null) {
+                atlas = manager.get(ATLAS_ASSET);
+            }
+            region = atlas.findRegion(name);
+            if (region == null) {
+                throw new GdxRuntimeException("Missing atlas region: " + name);
+            }
+            regions.put(name, region);
+        }
+        borrowCounts.getAndIncrement(name, 0, 1);
+        return region;
+    }
+
+    public void release(String name) {
+        int count = borrowCounts.get(name, 0);
+        if (count <= 0) {
+            Gdx.app.error("GameAssets", "Released region that was not borrowed: " + name);
+            return;
+        }
+        borrowCounts.put(name, count - 1);
+    }
+
+    /**
+     * Number of outstanding borrows of the given region
+     */
+    public int getBorrowCount(String name) {
+        return borrowCounts.get(name, 0);
+    }
+
+    @Override
+    public void dispose() {
+        for (ObjectIntMap.Entry<String> entry : borrowCounts) {
+            if (entry.value > 0) {
+                Gdx.app.error("GameAssets", "Region still borrowed at shutdown: " + entry.key + " x" + entry.value);
+            }
+        }
+        manager.dispose();
+    }
+}
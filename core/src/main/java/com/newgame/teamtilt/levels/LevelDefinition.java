@@ -4,6 +4,10 @@ import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
 import com.newgame.teamtilt.Platform;
 
+/**
+ * Describes one level's layout. Platforms added here are turned into collision
+ * geometry afterwards, all in one static body, so build only creates the views.
+ */
 public interface LevelDefinition {
     void build(World world, Array<Platform> platforms);
 }
@@ -0,0 +1,103 @@
+package com.newgame.teamtilt.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.newgame.teamtilt.Platform;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Every level, read straight from the levels.bin blob the compileLevels build task
+ * produces from assets/levels/world*.json. The blob is mapped where the platform
+ * allows it and only ever read with absolute gets, so nothing is parsed up front
+ * and levels can be built from any thread.
+ */
+public final class LevelLibrary {
+    public static final String FILE = "levels.bin";
+    private static final int MAGIC = 0x54544C56; // "TTLV"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int PLATFORM_SIZE = 16;
+
+    private final ByteBuffer data;
+    // Offset of each world's level count, indexed from 0
+    private final int[] worldOffsets;
+
+    public LevelLibrary(ByteBuffer data) {
+        this.data = data;
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new GdxRuntimeException("Not a compiled level file");
+        }
+        if (data.getShort(4) != VERSION) {
+            throw new GdxRuntimeException("Unsupported level file version: " + data.getShort(4));
+        }
+        worldOffsets = new int[data.getShort(6)];
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < worldOffsets.length; i++) {
+            worldOffsets[i] = offset;
+            offset += 2 + data.getShort(offset) * 4;
+        }
+    }
+
+    /**
+     * Map the file if possible, otherwise read it into memory (classpath and compressed assets)
+     */
+    public static LevelLibrary load(FileHandle file) {
+        ByteBuffer data;
+        try {
+            data = file.map();
+        } catch (GdxRuntimeException e) {
+            data = ByteBuffer.wrap(file.readBytes());
+        }
+        return new LevelLibrary(data);
+    }
+
+    public int getWorldCount() {
+        return worldOffsets.length;
+    }
+
+    /**
+     * @param worldIndex 1-based world number
+     */
+    public int getLevelCount(int worldIndex) {
+        if (worldIndex < 1 || worldIndex > worldOffsets.length) return 0;
+        return data.getShort(worldOffsets[worldIndex - 1]);
+    }
+
+    /**
+     * @param worldIndex 1-based world number
+     * @param levelIndex 1-based level number within the world
+     */
+    public LevelDefinition getLevel(int worldIndex, int levelIndex) {
+        if (levelIndex < 1 || levelIndex > getLevelCount(worldIndex)) {
+            throw new GdxRuntimeException("No level " + worldIndex + "-" + levelIndex);
+        }
+        int offset = data.getInt(worldOffsets[worldIndex - 1] + 2 + (levelIndex - 1) * 4);
+        return new CompiledLevel(data, offset);
+    }
+
+    /**
+     * Adapts one level record to the LevelDefinition contract
+     */
+    private static class CompiledLevel implements LevelDefinition {
+        private final ByteBuffer data;
+        private final int offset;
+
+        CompiledLevel(ByteBuffer data, int offset) {
+            this.data = data;
+            this.offset = offset;
+        }
+
+        @Override
+        public void build(World world, Array<Platform> platforms) {
+            int count = data.getShort(offset);
+            platforms.ensureCapacity(count);
+            for (int i = 0, p = offset + 2; i < count; i++, p += PLATFORM_SIZE) {
+                platforms.add(new Platform(data.getFloat(p), data.getFloat(p + 4),
+                    data.getFloat(p + 8), data.getFloat(p + 12)));
+            }
+        }
+    }
+}
@@ -3,63 +3,134 @@ package com.newgame.teamtilt.levels;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Preferences;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
-
+/**
+ * Saved progress for every level, backed by a {@link ProgressStore} in local
+ * storage. Lookups are array reads; saving happens on the store's writer thread.
+ */
 public final class LevelProgress {
-    private static final String PREF_NAME = "teamtilt.progress";
-    private static final String KEY_COMPLETED = "completed";
+    private static final String FILE = "progress.bin";
+    // Where progress lived before the binary store; imported once, then left alone
+    private static final String LEGACY_PREF_NAME = "teamtilt.progress";
+    private static final String LEGACY_KEY_COMPLETED = "completed";
+    private static final String LEGACY_KEY_BEST_TICKS = "bestTicks";
+    // Stars for finishing a level; no level awards more yet
+    private static final int COMPLETION_STARS = 1;
 
-    private static final Set<String> completed = new HashSet<>();
-    private static boolean loaded = false;
+    private static ProgressStore store;
 
     private LevelProgress() {}
 
-    public static synchronized void markCompleted(int worldIndex, int levelIndex) {
-        ensureLoaded();
-        if (completed.add(key(worldIndex, levelIndex))) {
-            persist();
+    public static void markCompleted(int worldIndex, int levelIndex) {
+        store().markCompleted(worldIndex, levelIndex);
+    }
+
+    public static boolean isCompleted(int worldIndex, int levelIndex) {
+        return store().isCompleted(worldIndex, levelIndex);
+    }
+
+    /**
+     * Mark a level completed in the given time and keep it if it beats the best so far
+     * @param ticks Simulation ticks from start to the door
+     * @return True if this is the new best time
+     */
+    public static boolean recordCompletion(int worldIndex, int levelIndex, int ticks) {
+        return store().recordCompletion(worldIndex, levelIndex, ticks, COMPLETION_STARS);
+    }
+
+    /**
+     * @return Fastest recorded completion in simulation ticks, or -1 if there is none
+     */
+    public static int getBestTicks(int worldIndex, int levelIndex) {
+        return store().getBestTicks(worldIndex, levelIndex);
+    }
+
+    /**
+     * Count one more try at a level
+     */
+    public static void recordAttempt(int worldIndex, int levelIndex) {
+        store().recordAttempt(worldIndex, levelIndex);
+    }
+
+    public static int getAttempts(int worldIndex, int levelIndex) {
+        return store().getAttempts(worldIndex, levelIndex);
+    }
+
+    public static int getStars(int worldIndex, int levelIndex) {
+        return store().getStars(worldIndex, levelIndex);
+    }
+
+    /**
+     * Wait until every change so far is on disk
+     */
+    public static void flush() {
+        ProgressStore loaded = getLoadedStore();
+        if (loaded != null) loaded.flush();
+    }
+
+    /**
+     * Drop the in-memory copy so the next lookup re-reads saved progress
+     */
+    public static synchronized void reload() {
+        if (store != null) {
+            store.dispose();
+            store = null;
         }
     }
 
-    public static synchronized boolean isCompleted(int worldIndex, int levelIndex) {
-        ensureLoaded();
-        return completed.contains(key(worldIndex, levelIndex));
+    /**
+     * Forget all completed levels, including saved progress
+     */
+    public static void reset() {
+        store().clear();
     }
 
-    private static void ensureLoaded() {
-        if (loaded) return;
-        loaded = true;
-        try {
-            Preferences prefs = Gdx.app.getPreferences(PREF_NAME);
-            String saved = prefs.getString(KEY_COMPLETED, "");
-            if (saved != null && !saved.isEmpty()) {
-                completed.clear();
-                completed.addAll(Arrays.stream(saved.split(";"))
-                        .filter(s -> s != null && !s.isEmpty())
-                        .collect(Collectors.toSet()));
+    private static synchronized ProgressStore getLoadedStore() {
+        return store;
+    }
+
+    private static synchronized ProgressStore store() {
+        if (store == null) {
+            boolean existed = Gdx.files.local(FILE).exists();
+            store = new ProgressStore(Gdx.files.local(FILE));
+            if (!existed) {
+                importLegacy(store);
             }
-        } catch (Exception ignored) {
-            // If preferences fail, keep in-memory only
         }
+        return store;
     }
 
-    private static void persist() {
+    /**
+     * Carry over progress saved by earlier versions in Preferences
+     */
+    private static void importLegacy(ProgressStore target) {
         try {
-            Preferences prefs = Gdx.app.getPreferences(PREF_NAME);
-            String joined = String.join(";", completed);
-            prefs.putString(KEY_COMPLETED, joined);
-            prefs.flush();
+            Preferences prefs = Gdx.app.getPreferences(LEGACY_PREF_NAME);
+            for (String key : prefs.getString(LEGACY_KEY_COMPLETED, "").split(";")) {
+                int[] level = parseKey(key);
+                if (level != null) target.markCompleted(level[0], level[1]);
+            }
+            // "w:l=ticks" entries
+            for (String entry : prefs.getString(LEGACY_KEY_BEST_TICKS, "").split(";")) {
+                int separator = entry.indexOf('=');
+                int[] level = separator > 0 ? parseKey(entry.substring(0, separator)) : null;
+                if (level == null) continue;
+                target.recordCompletion(level[0], level[1], Integer.parseInt(entry.substring(separator + 1)), COMPLETION_STARS);
+            }
         } catch (Exception ignored) {
-            // Ignore persistence errors to avoid crashing the game
+            // Old progress is best effort; start fresh rather than crash
         }
     }
 
-    private static String key(int w, int l) {
-        return w + ":" + l;
+    /**
+     * @return {world, level} from a "w:l" key, or null if it is malformed
+     */
+    private static int[] parseKey(String key) {
+        int separator = key.indexOf(':');
+        if (separator <= 0) return null;
+        try {
+            return new int[] { Integer.parseInt(key.substring(0, separator)), Integer.parseInt(key.substring(separator + 1)) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
-
-
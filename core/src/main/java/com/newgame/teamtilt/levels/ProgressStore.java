@@ -0,0 +1,273 @@
+package com.newgame.teamtilt.levels;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-level progress in flat arrays indexed by world and level, so lookups are
+ * plain array reads. On disk it is a binary journal of fixed 16-byte records:
+ * every change appends the level's whole record and the last record for a
+ * level wins when loading. Once the journal holds far more records than
+ * levels, it is compacted into one record per level. All file work happens
+ * on a single background thread, in the order the changes were made.
+ *
+ * <pre>
+ * header: int magic "TTPG", short version, short reserved
+ * record: short world, short level, byte flags, byte stars, short reserved, int best ticks, int attempts
+ * </pre>
+ */
+public final class ProgressStore implements Disposable {
+    public static final int MAX_WORLDS = 16;
+    public static final int MAX_LEVELS = 64;
+    private static final int SLOTS = MAX_WORLDS * MAX_LEVELS;
+
+    private static final int MAGIC = 0x54545047; // "TTPG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 16;
+    private static final int FLAG_COMPLETED = 1;
+    // Journal records allowed on top of one per level before compacting
+    private static final int COMPACT_SLACK = 64;
+
+    private final FileHandle file;
+    private final byte[] flags = new byte[SLOTS];
+    private final byte[] stars = new byte[SLOTS];
+    private final int[] bestTicks = new int[SLOTS];
+    private final int[] attempts = new int[SLOTS];
+    // Records in the file, touched only by the writer thread
+    private int journalRecords = 0;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "progress-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Load progress from the file if it exists
+     */
+    public ProgressStore(FileHandle file) {
+        this.file = file;
+        Arrays.fill(bestTicks, -1);
+        if (file.exists()) {
+            load();
+        }
+    }
+
+    public synchronized boolean isCompleted(int worldIndex, int levelIndex) {
+        int slot = slot(worldIndex, levelIndex);
+        return slot >= 0 && (flags[slot] & FLAG_COMPLETED) != 0;
+    }
+
+    /**
+     * @return Fastest completion in simulation ticks, or -1 if there is none
+     */
+    public synchronized int getBestTicks(int worldIndex, int levelIndex) {
+        int slot = slot(worldIndex, levelIndex);
+        return slot >= 0 ? bestTicks[slot] : -1;
+    }
+
+    public synchronized int getAttempts(int worldIndex, int levelIndex) {
+        int slot = slot(worldIndex, levelIndex);
+        return slot >= 0 ? attempts[slot] : 0;
+    }
+
+    public synchronized int getStars(int worldIndex, int levelIndex) {
+        int slot = slot(worldIndex, levelIndex);
+        return slot >= 0 ? stars[slot] : 0;
+    }
+
+    /**
+     * @return True if the level was not completed before
+     */
+    public synchronized boolean markCompleted(int worldIndex, int levelIndex) {
+        int slot = slot(worldIndex, levelIndex);
+        if (slot < 0 || (flags[slot] & FLAG_COMPLETED) != 0) return false;
+        flags[slot] |= FLAG_COMPLETED;
+        append(slot);
+        return true;
+    }
+
+    /**
+     * Mark completed, keep the time if it is the best and raise the stars if more were earned
+     * @return True if this is the new best time
+     */
+    public synchronized boolean recordCompletion(int worldIndex, int levelIndex, int ticks, int earnedStars) {
+        int slot = slot(worldIndex, levelIndex);
+        if (slot < 0) return false;
+        boolean improved = bestTicks[slot] < 0 || ticks < bestTicks[slot];
+        boolean changed = improved || (flags[slot] & FLAG_COMPLETED) == 0 || earnedStars > stars[slot];
+        flags[slot] |= FLAG_COMPLETED;
+        if (improved) bestTicks[slot] = ticks;
+        stars[slot] = (byte) Math.max(stars[slot], earnedStars);
+        if (changed) append(slot);
+        return improved;
+    }
+
+    public synchronized void recordAttempt(int worldIndex, int levelIndex) {
+        int slot = slot(worldIndex, levelIndex);
+        if (slot < 0) return;
+        attempts[slot]++;
+        append(slot);
+    }
+
+    /**
+     * Forget everything, on disk too
+     */
+    public synchronized void clear() {
+        Arrays.fill(flags, (byte) 0);
+        Arrays.fill(stars, (byte) 0);
+        Arrays.fill(bestTicks, -1);
+        Arrays.fill(attempts, 0);
+        writer.execute(this::compact);
+    }
+
+    /**
+     * Wait for queued writes to reach the file, e.g. before the app is paused or closed
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get(2, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            Gdx.app.error("ProgressStore", "Progress writes did not finish", e);
+        }
+    }
+
+    /**
+     * Finish queued writes and stop the writer thread
+     */
+    @Override
+    public void dispose() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(2, TimeUnit.SECONDS)) {
+                Gdx.app.error("ProgressStore", "Progress writes did not finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queue the slot's current record for appending; called with the lock held
+     */
+    private void append(int slot) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        putRecord(record, slot);
+        byte[] bytes = record.array();
+        writer.execute(() -> writeRecord(bytes));
+    }
+
+    private void writeRecord(byte[] record) {
+        try {
+            if (!file.exists()) {
+                compact();
+                return;
+            }
+            try (OutputStream out = file.write(true)) {
+                out.write(record);
+            }
+            journalRecords++;
+            if (journalRecords > occupiedSlots() + COMPACT_SLACK) {
+                compact();
+            }
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("ProgressStore", "Could not save progress", e);
+        }
+    }
+
+    /**
+     * Rewrite the file as one record per level with any progress, through a temporary file
+     */
+    private void compact() {
+        ByteBuffer data;
+        synchronized (this) {
+            data = ByteBuffer.allocate(HEADER_SIZE + occupiedSlots() * RECORD_SIZE);
+            data.putInt(MAGIC).putShort((short) VERSION).putShort((short) 0);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                if (isOccupied(slot)) putRecord(data, slot);
+            }
+        }
+        FileHandle temp = file.sibling(file.name() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(temp.write(false))) {
+            out.write(data.array(), 0, data.position());
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("ProgressStore", "Could not compact progress", e);
+            return;
+        }
+        temp.moveTo(file);
+        journalRecords = (data.position() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Parse the file under the lock; any compaction is queued only once every record is in,
+     * so the writer never snapshots half-loaded progress over the file
+     */
+    private synchronized void load() {
+        try {
+            ByteBuffer data = ByteBuffer.wrap(file.readBytes());
+            if (data.remaining() < HEADER_SIZE || data.getInt() != MAGIC || data.getShort() != VERSION) {
+                // Keep it for inspection; the first change then starts a fresh file in its place
+                FileHandle unreadable = file.sibling(file.name() + ".unreadable");
+                Gdx.app.error("ProgressStore", "Moving unreadable progress file to " + unreadable.path());
+                file.moveTo(unreadable);
+                return;
+            }
+            data.getShort();
+            // A record cut short by a crash mid-append is ignored, and compacted away before
+            // anything is appended after it
+            boolean torn = data.remaining() % RECORD_SIZE != 0;
+            while (data.remaining() >= RECORD_SIZE) {
+                int world = data.getShort(), level = data.getShort();
+                byte recordFlags = data.get(), recordStars = data.get();
+                data.getShort();
+                int recordBest = data.getInt(), recordAttempts = data.getInt();
+                journalRecords++;
+                int slot = slot(world, level);
+                if (slot < 0) continue;
+                flags[slot] = recordFlags;
+                stars[slot] = recordStars;
+                bestTicks[slot] = recordBest;
+                attempts[slot] = recordAttempts;
+            }
+            if (torn) {
+                writer.execute(this::compact);
+            }
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("ProgressStore", "Could not read progress", e);
+        }
+    }
+
+    private void putRecord(ByteBuffer out, int slot) {
+        out.putShort((short) (slot / MAX_LEVELS + 1)).putShort((short) (slot % MAX_LEVELS + 1));
+        out.put(flags[slot]).put(stars[slot]).putShort((short) 0);
+        out.putInt(bestTicks[slot]).putInt(attempts[slot]);
+    }
+
+    private synchronized int occupiedSlots() {
+        int count = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (isOccupied(slot)) count++;
+        }
+        return count;
+    }
+
+    private boolean isOccupied(int slot) {
+        return flags[slot] != 0 || stars[slot] != 0 || bestTicks[slot] >= 0 || attempts[slot] != 0;
+    }
+
+    private static int slot(int worldIndex, int levelIndex) {
+        if (worldIndex < 1 || worldIndex > MAX_WORLDS || levelIndex < 1 || levelIndex > MAX_LEVELS) return -1;
+        return (worldIndex - 1) * MAX_LEVELS + levelIndex - 1;
+    }
+}
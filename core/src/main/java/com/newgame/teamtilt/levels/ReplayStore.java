@@ -0,0 +1,83 @@
+package com.newgame.teamtilt.levels;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.newgame.teamtilt.simulation.GhostTraceReader;
+import com.newgame.teamtilt.simulation.GhostTraceWriter;
+import com.newgame.teamtilt.simulation.Replay;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Replays of recent level attempts in local storage, one file per attempt.
+ * Only the newest {@link #MAX_ATTEMPTS} are kept, so a player can send the
+ * file of a run that went wrong without the folder growing forever. Also
+ * holds the position trace of the best run of each level, raced as a ghost.
+ */
+public final class ReplayStore {
+    public static final String DIRECTORY = "replays";
+    public static final String EXTENSION = "ttr";
+    private static final String GHOST_DIRECTORY = "ghosts";
+    private static final int MAX_ATTEMPTS = 20;
+
+    private ReplayStore() {}
+
+    /**
+     * Save a finished attempt as replays/w&lt;world&gt;-l&lt;level&gt;-&lt;time&gt;.ttr
+     * @return The file written, or null if it could not be written
+     */
+    public static FileHandle saveAttempt(Replay replay) {
+        if (replay.getTickCount() == 0) return null;
+        FileHandle file = Gdx.files.local(DIRECTORY + "/w" + replay.getWorldIndex() + "-l" + replay.getLevelIndex()
+            + "-" + System.currentTimeMillis() + "." + EXTENSION);
+        try {
+            replay.save(file);
+            pruneAttempts();
+            return file;
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("ReplayStore", "Could not save replay", e);
+            return null;
+        }
+    }
+
+    /**
+     * Keep the trace of a new best run, replacing the previous one
+     */
+    public static void saveBestRun(int worldIndex, int levelIndex, GhostTraceWriter trace) {
+        try {
+            trace.save(bestRunFile(worldIndex, levelIndex));
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("ReplayStore", "Could not save best run", e);
+        }
+    }
+
+    /**
+     * Start streaming the best run of a level
+     * @return The reader, to be disposed by the caller, or null if there is no readable best run
+     */
+    public static GhostTraceReader openBestRun(int worldIndex, int levelIndex) {
+        FileHandle file = bestRunFile(worldIndex, levelIndex);
+        if (!file.exists()) return null;
+        try {
+            return new GhostTraceReader(file);
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("ReplayStore", "Ignoring unreadable best run " + file.path(), e);
+            return null;
+        }
+    }
+
+    private static FileHandle bestRunFile(int worldIndex, int levelIndex) {
+        return Gdx.files.local(GHOST_DIRECTORY + "/w" + worldIndex + "-l" + levelIndex + ".ghost");
+    }
+
+    private static void pruneAttempts() {
+        FileHandle[] attempts = Gdx.files.local(DIRECTORY).list("." + EXTENSION);
+        if (attempts.length <= MAX_ATTEMPTS) return;
+        Arrays.sort(attempts, Comparator.comparingLong(FileHandle::lastModified));
+        for (int i = 0; i < attempts.length - MAX_ATTEMPTS; i++) {
+            attempts[i].delete();
+        }
+    }
+}
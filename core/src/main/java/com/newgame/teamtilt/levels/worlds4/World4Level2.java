@@ -1,17 +0,0 @@
-package com.newgame.teamtilt.levels.worlds4;
-
-import com.badlogic.gdx.physics.box2d.World;
-import com.badlogic.gdx.utils.Array;
-import com.newgame.teamtilt.Platform;
-import com.newgame.teamtilt.levels.LevelDefinition;
-
-public class World4Level2 implements LevelDefinition {
-    private static final float W = 300f, H = 20f;
-    @Override
-    public void build(World world, Array<Platform> platforms) {
-        platforms.add(new Platform(world, 180, 160, W, H));
-        platforms.add(new Platform(world, 480, 220, W, H));
-    }
-}
-
-
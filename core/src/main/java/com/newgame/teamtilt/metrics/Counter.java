@@ -0,0 +1,29 @@
+package com.newgame.teamtilt.metrics;
+
+/**
+ * Monotonic count of events since the app started
+ */
+public final class Counter {
+    private final String name;
+    private long value;
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        value++;
+    }
+
+    public void add(long amount) {
+        value += amount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long get() {
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+package com.newgame.teamtilt.metrics;
+
+/**
+ * Latest value of something sampled, e.g. a body count or bytes sent so far
+ */
+public final class Gauge {
+    private final String name;
+    private double value;
+
+    Gauge(String name) {
+        this.name = name;
+    }
+
+    public void set(double value) {
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double get() {
+        return value;
+    }
+}
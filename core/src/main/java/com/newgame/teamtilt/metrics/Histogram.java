@@ -0,0 +1,120 @@
+package com.newgame.teamtilt.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of recorded values over fixed buckets. Recording is a binary
+ * search and an increment; percentiles resolve to the upper bound of the
+ * bucket they fall in, so choose bounds fine enough where precision matters.
+ */
+public final class Histogram {
+    private final String name;
+    // Ascending upper bounds; values above the last one land in an overflow bucket
+    private final float[] bounds;
+    private final long[] counts;
+    private long count;
+    private double sum;
+    private float max;
+
+    Histogram(String name, float[] bounds) {
+        this.name = name;
+        this.bounds = bounds.clone();
+        Arrays.sort(this.bounds);
+        this.counts = new long[bounds.length + 1];
+    }
+
+    public void record(float value) {
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        if (value > max) max = value;
+    }
+
+    /**
+     * Record the milliseconds elapsed since a {@link System#nanoTime()} reading
+     */
+    public void recordSince(long startNanos) {
+        record((System.nanoTime() - startNanos) / 1_000_000f);
+    }
+
+    /**
+     * @param fraction 0..1, e.g. 0.99 for p99
+     * @return Upper bound of the bucket holding that fraction of all values; 0 if nothing was recorded
+     */
+    public float percentile(float fraction) {
+        return percentileSince(fraction, null);
+    }
+
+    /**
+     * Percentile over only the values recorded after {@code baseline} was filled by {@link #copyCounts}
+     * @param baseline Earlier bucket counts, or null for every value
+     */
+    public float percentileSince(float fraction, long[] baseline) {
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i] - (baseline != null ? baseline[i] : 0);
+        }
+        if (total == 0) return 0f;
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            seen += counts[i] - (baseline != null ? baseline[i] : 0);
+            if (seen >= rank) return bounds[i];
+        }
+        return max;
+    }
+
+    /**
+     * Snapshot the bucket counts into {@code out}, sized {@link #getBucketCount()}
+     */
+    public void copyCounts(long[] out) {
+        System.arraycopy(counts, 0, out, 0, counts.length);
+    }
+
+    /**
+     * Number of buckets including the overflow bucket
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Upper bound of a bucket; infinite for the overflow bucket
+     */
+    public float getBucketBound(int bucket) {
+        return bucket < bounds.length ? bounds[bucket] : Float.POSITIVE_INFINITY;
+    }
+
+    public long getBucketValue(int bucket) {
+        return counts[bucket];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public float getMean() {
+        return count == 0 ? 0f : (float) (sum / count);
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    private int bucket(float value) {
+        int low = 0, high = bounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bounds[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,33 @@
+package com.newgame.teamtilt.metrics;
+
+/**
+ * Names of the metrics the game records, shared by the code that updates
+ * them and the HUD that reads them. Timings are in milliseconds.
+ */
+public final class MetricNames {
+    public static final String FRAME_TIME = "frame.time_ms";
+    public static final String FRAME_CPU_TIME = "frame.cpu_ms";
+    public static final String PHYSICS_STEP_TIME = "physics.step_ms";
+    public static final String PHYSICS_STEPS = "physics.steps";
+    public static final String PHYSICS_BODIES = "physics.bodies";
+    public static final String PHYSICS_CONTACTS = "physics.contacts";
+    public static final String WORLD_DRAW_TIME = "render.world_ms";
+    public static final String DRAW_CALLS = "render.draw_calls";
+    public static final String STAGE_ACT_TIME = "ui.stage_act_ms";
+    public static final String STAGE_DRAW_TIME = "ui.stage_draw_ms";
+    public static final String TOAST_TIME = "ui.toasts_ms";
+    public static final String NET_UPDATE_TIME = "net.update_ms";
+    public static final String NET_STATES_SENT = "net.states_sent";
+    public static final String NET_BYTES_SENT = "net.bytes_sent";
+    public static final String NET_BYTES_RECEIVED = "net.bytes_received";
+    // Room server selector thread: work per loop, excluding the wait for packets
+    public static final String SERVER_LOOP_TIME = "server.loop_ms";
+    // Room server, per scheduler shard: prefix + shard index + suffix
+    public static final String SERVER_SHARD_PREFIX = "server.shard.";
+    public static final String SERVER_SHARD_TICK_TIME = ".tick_ms";
+    public static final String SERVER_SHARD_OVERRUNS = ".overruns";
+    public static final String SERVER_SHARD_ROOMS = ".rooms";
+    public static final String SERVER_SHARD_ASLEEP = ".asleep";
+
+    private MetricNames() {}
+}
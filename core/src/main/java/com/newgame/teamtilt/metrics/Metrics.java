@@ -0,0 +1,153 @@
+package com.newgame.teamtilt.metrics;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * App-wide registry of counters, gauges and histograms. Look a metric up once,
+ * typically into a static field, then update it on the hot path; updates are
+ * plain field writes and never allocate or lock. Readers on another thread may
+ * see a slightly stale value, which is fine for diagnostics.
+ */
+public final class Metrics {
+    /** Local file {@link #export()} writes to, for attaching to field reports */
+    public static final String REPORT_FILE = "teamtilt-metrics.json";
+
+    /** Bucket bounds for timings in milliseconds, dense around one 60 fps frame */
+    public static final float[] MILLIS_BUCKETS = {
+        0.1f, 0.25f, 0.5f, 1f, 2f, 3f, 4f, 6f, 8f, 10f, 12f, 14f, 15f, 16f, 16.7f, 17.5f,
+        18f, 20f, 22f, 25f, 28f, 33.4f, 40f, 50f, 66.7f, 100f, 150f, 250f
+    };
+
+    private static final Array<Counter> counters = new Array<>();
+    private static final Array<Gauge> gauges = new Array<>();
+    private static final Array<Histogram> histograms = new Array<>();
+
+    private Metrics() {}
+
+    public static synchronized Counter counter(String name) {
+        for (Counter counter : counters) {
+            if (counter.getName().equals(name)) return counter;
+        }
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    public static synchronized Gauge gauge(String name) {
+        for (Gauge gauge : gauges) {
+            if (gauge.getName().equals(name)) return gauge;
+        }
+        Gauge gauge = new Gauge(name);
+        gauges.add(gauge);
+        return gauge;
+    }
+
+    /**
+     * @param bounds Bucket upper bounds; ignored if the histogram already exists
+     */
+    public static synchronized Histogram histogram(String name, float[] bounds) {
+        for (Histogram histogram : histograms) {
+            if (histogram.getName().equals(name)) return histogram;
+        }
+        Histogram histogram = new Histogram(name, bounds);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Timing histogram using {@link #MILLIS_BUCKETS}
+     */
+    public static Histogram timer(String name) {
+        return histogram(name, MILLIS_BUCKETS);
+    }
+
+    /**
+     * Write every metric to {@link #REPORT_FILE} in local storage
+     * @return The file written, or null if it could not be written
+     */
+    public static FileHandle export() {
+        FileHandle file = Gdx.files.local(REPORT_FILE);
+        Writer writer = null;
+        try {
+            writer = file.writer(false, "UTF-8");
+            write(writer);
+            Gdx.app.log("Metrics", "Wrote " + file.path());
+            return file;
+        } catch (IOException | GdxRuntimeException e) {
+            Gdx.app.error("Metrics", "Could not write " + file.path(), e);
+            return null;
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Write every metric as a JSON document
+     */
+    public static synchronized void write(Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        json.set("time", System.currentTimeMillis());
+        if (Gdx.app != null) {
+            json.set("platform", Gdx.app.getType().name());
+            json.set("osVersion", Gdx.app.getVersion());
+        }
+        if (Gdx.graphics != null) {
+            json.set("width", Gdx.graphics.getWidth());
+            json.set("height", Gdx.graphics.getHeight());
+        }
+
+        json.object("counters");
+        for (Counter counter : counters) {
+            json.set(counter.getName(), counter.get());
+        }
+        json.pop();
+
+        json.object("gauges");
+        for (Gauge gauge : gauges) {
+            json.set(gauge.getName(), gauge.get());
+        }
+        json.pop();
+
+        json.object("histograms");
+        for (Histogram histogram : histograms) {
+            json.object(histogram.getName());
+            json.set("count", histogram.getCount());
+            json.set("mean", histogram.getMean());
+            json.set("p50", histogram.percentile(0.5f));
+            json.set("p90", histogram.percentile(0.9f));
+            json.set("p99", histogram.percentile(0.99f));
+            json.set("max", histogram.getMax());
+            // [upper bound, count] per non-empty bucket; the overflow bucket's bound is written as -1
+            json.array("buckets");
+            for (int i = 0; i < histogram.getBucketCount(); i++) {
+                long value = histogram.getBucketValue(i);
+                if (value == 0) continue;
+                float bound = histogram.getBucketBound(i);
+                json.array();
+                json.value(Float.isInfinite(bound) ? -1f : bound);
+                json.value(value);
+                json.pop();
+            }
+            json.pop();
+            json.pop();
+        }
+        json.pop();
+
+        json.pop();
+        json.flush();
+    }
+}
@@ -6,11 +6,14 @@ import java.util.Random;
 
 /**
  * Desktop stub implementation of MultiplayerService for development
- * This provides mock functionality when running on desktop
+ * This provides mock functionality when running on desktop. Answers that a
+ * real backend would deliver later are queued and arrive on the next poll.
  */
-public class DesktopMultiplayerService implements MultiplayerService {
+public class DesktopMultiplayerService implements MultiplayerService, MultiplayerEventQueue.Handler {
+    private static final int EVENT_CAPACITY = 256;
     
     private MultiplayerListener listener;
+    private final MultiplayerEventQueue events = new MultiplayerEventQueue(EVENT_CAPACITY);
     private boolean isSignedIn = false;
     private String playerId;
     private String playerName;
@@ -27,15 +30,11 @@ public class DesktopMultiplayerService implements MultiplayerService {
     
     @Override
     public void signIn() {
-        Gdx.app.postRunnable(() -> {
-            isSignedIn = true;
-            playerId = "desktop_player_" + System.currentTimeMillis();
-            playerName = "Desktop Player";
-            
-            if (listener != null) {
-                listener.onSignInSuccess();
-            }
-        });
+        MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.SIGN_IN_SUCCESS);
+        if (event == null) return;
+        event.text = "desktop_player_" + System.currentTimeMillis();
+        event.detail = "Desktop Player";
+        events.publish(event);
     }
     
     @Override
@@ -76,19 +75,11 @@ public class DesktopMultiplayerService implements MultiplayerService {
             return;
         }
         
-        Gdx.app.postRunnable(() -> {
-            currentRoomId = "desktop_room_" + System.currentTimeMillis();
-            currentRoomCode = generateRoomCode();
-            players.clear();
-            players.add(new PlayerInfo(playerId, playerName, true));
-            
-            if (listener != null) {
-                listener.onRoomCreated(currentRoomId);
-                listener.onRoomJoined(currentRoomId);
-                listener.onRoomCodeGenerated(currentRoomCode);
-                listener.onToastMessage("Room created! Code: " + currentRoomCode, MultiplayerService.ToastType.SUCCESS);
-            }
-        });
+        MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.ROOM_CREATED);
+        if (event == null) return;
+        event.text = "desktop_room_" + System.currentTimeMillis();
+        event.detail = generateRoomCode();
+        events.publish(event);
     }
     
     @Override
@@ -109,18 +100,12 @@ public class DesktopMultiplayerService implements MultiplayerService {
             return;
         }
         
-        Gdx.app.postRunnable(() -> {
-            // For demo purposes, accept any 6-digit code
-            currentRoomId = "room_" + roomCode;
-            currentRoomCode = roomCode;
-            players.clear();
-            players.add(new PlayerInfo(playerId, playerName, false));
-            
-            if (listener != null) {
-                listener.onRoomJoined(currentRoomId);
-                listener.onToastMessage("Joined room with code: " + roomCode, MultiplayerService.ToastType.SUCCESS);
-            }
-        });
+        // For demo purposes, accept any 6-digit code
+        MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.ROOM_JOINED);
+        if (event == null) return;
+        event.text = "room_" + roomCode;
+        event.detail = roomCode;
+        events.publish(event);
     }
     
     @Override
@@ -149,21 +134,85 @@ public class DesktopMultiplayerService implements MultiplayerService {
         Gdx.app.log("DesktopMultiplayer", "Mock message sent: " + message);
         // Simulate receiving the message
         if (listener != null && currentRoomId != null) {
-            Gdx.app.postRunnable(() -> {
-                listener.onMessageReceived(playerId, message);
-            });
+            MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.MESSAGE);
+            if (event == null) return;
+            event.text = message;
+            event.detail = playerId;
+            events.publish(event);
         }
     }
     
     @Override
     public void sendPlayerData(PlayerData playerData) {
-        Gdx.app.log("DesktopMultiplayer", "Mock player data sent for: " + playerData.playerId);
-        // Simulate receiving the data
+        // Simulate receiving the data; the caller reuses its instance, so deliver a copy.
+        // Sent several times a second, so unlike the room events this is not logged.
         if (listener != null && currentRoomId != null) {
-            Gdx.app.postRunnable(() -> {
-                listener.onPlayerDataReceived(playerData.playerId, playerData);
-            });
+            MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.PLAYER_DATA);
+            if (event == null) return;
+            event.data.set(playerData);
+            events.publish(event);
+        }
+    }
+    
+    @Override
+    public void pollEvents() {
+        events.drain(this);
+    }
+    
+    @Override
+    public void handle(MultiplayerEventQueue.Event event) {
+        switch (event.type) {
+            case SIGN_IN_SUCCESS:
+                isSignedIn = true;
+                playerId = event.text;
+                playerName = event.detail;
+                if (listener != null) {
+                    listener.onSignInSuccess();
+                }
+                break;
+            case ROOM_CREATED:
+                currentRoomId = event.text;
+                currentRoomCode = event.detail;
+                players.clear();
+                players.add(new PlayerInfo(playerId, playerName, true));
+                if (listener != null) {
+                    listener.onRoomCreated(currentRoomId);
+                    listener.onRoomJoined(currentRoomId);
+                    listener.onRoomCodeGenerated(currentRoomCode);
+                    listener.onToastMessage("Room created! Code: " + currentRoomCode, MultiplayerService.ToastType.SUCCESS);
+                }
+                break;
+            case ROOM_JOINED:
+                currentRoomId = event.text;
+                currentRoomCode = event.detail;
+                players.clear();
+                players.add(new PlayerInfo(playerId, playerName, false));
+                if (listener != null) {
+                    listener.onRoomJoined(currentRoomId);
+                    listener.onToastMessage("Joined room with code: " + currentRoomCode, MultiplayerService.ToastType.SUCCESS);
+                }
+                break;
+            case MESSAGE:
+                if (listener != null && currentRoomId != null) {
+                    listener.onMessageReceived(event.detail, event.text);
+                }
+                break;
+            case PLAYER_DATA:
+                if (listener != null && currentRoomId != null) {
+                    listener.onPlayerDataReceived(event.data.playerId, event.data);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private MultiplayerEventQueue.Event claim(MultiplayerEventQueue.Type type) {
+        MultiplayerEventQueue.Event event = events.claim(type);
+        if (event == null) {
+            Gdx.app.error("DesktopMultiplayer", "Event queue full, dropping " + type);
         }
+        return event;
     }
     
     @Override
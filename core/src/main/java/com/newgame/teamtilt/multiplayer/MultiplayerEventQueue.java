@@ -0,0 +1,157 @@
+package com.newgame.teamtilt.multiplayer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free queue of multiplayer events from any number of network threads to
+ * the game thread. Player data and authoritative state go through a bounded
+ * ring where every slot holds a preallocated {@link Event}, so publishing them
+ * copies into the slot instead of allocating; producers claim a slot by
+ * advancing a shared counter, fill it and mark it ready. When the game thread
+ * falls a full ring behind, those are dropped, since newer ones supersede them.
+ * Every other event changes room or level state and has usually been acked on
+ * the wire already, so it is never dropped: each gets an event of its own on an
+ * unbounded queue. The game thread drains both once per tick, control events
+ * first, which is the only point where remote state changes.
+ */
+public final class MultiplayerEventQueue {
+    public enum Type {
+        SIGN_IN_SUCCESS, SIGN_IN_FAILED, ROOM_CREATED, ROOM_JOINED, JOIN_FAILED,
+        PLAYER_JOINED, PLAYER_LEFT, MESSAGE, PLAYER_DATA, AUTHORITATIVE_STATE,
+        LEVEL_STARTED, LEVEL_COMPLETE, CONNECTION_LOST, TOAST;
+
+        /**
+         * Whether a newer event of the same type makes this one redundant, so it may be dropped
+         */
+        public boolean isDroppable() {
+            return this == PLAYER_DATA || this == AUTHORITATIVE_STATE;
+        }
+    }
+
+    /**
+     * One queued event. Which fields are set depends on the type; the slot is reused, so
+     * read what is needed while handling it.
+     */
+    public static final class Event {
+        public Type type;
+        // Player or room id, failure reason or message text
+        public String text;
+        // Player name, room code or message sender
+        public String detail;
+        public boolean flag;
+        public int sequence;
+        // Room slot of the player a join or leave is about
+        public int slot;
+        // 1-based level a level event is about
+        public int worldIndex, levelIndex;
+        public MultiplayerService.ToastType toastType;
+        public final MultiplayerService.PlayerData data = new MultiplayerService.PlayerData(null);
+        private long position;
+
+        private void clear() {
+            text = null;
+            detail = null;
+            toastType = null;
+        }
+    }
+
+    /**
+     * Called on the game thread for each drained event
+     */
+    public interface Handler {
+        void handle(Event event);
+    }
+
+    private final Event[] events;
+    // Per slot: equal to the position when free for that position, position + 1 once published
+    private final AtomicLongArray states;
+    private final int mask;
+    // Next position to claim, shared by all producers
+    private final AtomicLong tail = new AtomicLong();
+    // Next position to drain, game thread only
+    private long head = 0;
+    // Events that must not be dropped; rare, so allocated one at a time
+    private final ConcurrentLinkedQueue<Event> control = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param capacity Ring slots for droppable events; rounded up to a power of two
+     */
+    public MultiplayerEventQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        events = new Event[size];
+        states = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            events[i] = new Event();
+            states.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Producer side: reserve an event to fill, then hand it to {@link #publish(Event)}
+     * @return The event, or null for a {@link Type#isDroppable() droppable} type if the game
+     *         thread has fallen a full ring behind; never null for any other type
+     */
+    public Event claim(Type type) {
+        if (!type.isDroppable()) {
+            Event event = new Event();
+            event.position = -1;
+            event.type = type;
+            return event;
+        }
+        while (true) {
+            long position = tail.get();
+            long state = states.get((int) position & mask);
+            if (state < position) return null;
+            if (state == position && tail.compareAndSet(position, position + 1)) {
+                Event event = events[(int) position & mask];
+                event.position = position;
+                event.type = type;
+                return event;
+            }
+        }
+    }
+
+    /**
+     * Producer side: make a filled slot visible to the game thread
+     */
+    public void publish(Event event) {
+        if (event.position < 0) {
+            control.add(event);
+            return;
+        }
+        states.lazySet((int) event.position & mask, event.position + 1);
+    }
+
+    /**
+     * Game thread: hand published events to the handler, control events first so that a
+     * player's join always comes before its data, then the ring oldest first, at most one
+     * ring's worth per call. A slot still being filled stops the drain; it and anything after
+     * it go out next time.
+     * @return Number of events handled
+     */
+    public int drain(Handler handler) {
+        int drained = 0;
+        Event event;
+        while ((event = control.poll()) != null) {
+            handler.handle(event);
+            drained++;
+        }
+        int ringDrained = 0;
+        while (ringDrained < events.length) {
+            int index = (int) head & mask;
+            if (states.get(index) != head + 1) return drained;
+            event = events[index];
+            handler.handle(event);
+            event.clear();
+            // Free the slot for the position one lap ahead
+            states.lazySet(index, head + events.length);
+            head++;
+            ringDrained++;
+            drained++;
+        }
+        return drained;
+    }
+}
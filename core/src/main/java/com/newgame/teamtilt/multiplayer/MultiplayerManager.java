@@ -1,8 +1,13 @@
 package com.newgame.teamtilt.multiplayer;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.newgame.teamtilt.metrics.Counter;
+import com.newgame.teamtilt.metrics.Gauge;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.metrics.MetricNames;
+import com.newgame.teamtilt.metrics.Metrics;
 
 /**
  * Manages multiplayer functionality and player synchronization
@@ -11,11 +16,32 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
     
     private MultiplayerService multiplayerService;
     private MultiplayerService.MultiplayerListener listener;
-    private Array<MultiplayerPlayer> remotePlayers = new Array<>();
+    // Remote players by room slot, so packets and renderers reach them with an array read.
+    // The id lookup is only used when players join or leave.
+    private final MultiplayerPlayer[] remotePlayers = new MultiplayerPlayer[MultiplayerService.MAX_ROOM_PLAYERS];
+    private final ObjectIntMap<String> slotsById = new ObjectIntMap<>();
+    private int remotePlayerCount = 0;
+    // Bumped whenever a slot changes hands
+    private int rosterVersion = 0;
     private String localPlayerId;
     private boolean isHost = false;
     private long lastSyncTime = 0;
     private static final long SYNC_INTERVAL = 100; // Send updates every 100ms
+    // Newest authoritative state for the local player, waiting to be reconciled
+    private final MultiplayerService.PlayerData authoritativeState = new MultiplayerService.PlayerData(null);
+    private int authoritativeSequence = -1;
+    // Level the authority declared complete and the game has not acted on yet; 0 if none
+    private int completedWorld = 0, completedLevel = 0;
+    // Level the local player is in, announced again on joining a room; 0 if none
+    private int currentWorld = 0, currentLevel = 0;
+    // Level the authority says the room is playing; 0 if it has not said
+    private int roomWorld = 0, roomLevel = 0;
+    // Reused for every sync; services copy what they send
+    private final MultiplayerService.PlayerData outgoingData = new MultiplayerService.PlayerData(null);
+    private static final Histogram UPDATE_TIME = Metrics.timer(MetricNames.NET_UPDATE_TIME);
+    private static final Counter STATES_SENT = Metrics.counter(MetricNames.NET_STATES_SENT);
+    private static final Gauge BYTES_SENT = Metrics.gauge(MetricNames.NET_BYTES_SENT);
+    private static final Gauge BYTES_RECEIVED = Metrics.gauge(MetricNames.NET_BYTES_RECEIVED);
     
     public MultiplayerManager(MultiplayerService service) {
         this.multiplayerService = service;
@@ -57,8 +83,17 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
      */
     public void leaveRoom() {
         isHost = false;
+        currentWorld = currentLevel = roomWorld = roomLevel = 0;
         multiplayerService.leaveRoom();
-        remotePlayers.clear();
+        clearRemotePlayers();
+    }
+    
+    /**
+     * Deliver network events that arrived since the last call. Call once per tick on the game
+     * thread; remote players and room state only change in here.
+     */
+    public void pollEvents() {
+        multiplayerService.pollEvents();
     }
     
     /**
@@ -66,21 +101,133 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
      */
     public void updatePlayerData(float x, float y, float velocityX, float velocityY, 
                                 boolean isJumping, boolean isMovingLeft, boolean isMovingRight) {
+        long start = System.nanoTime();
         long currentTime = System.currentTimeMillis();
         if (currentTime - lastSyncTime >= SYNC_INTERVAL && multiplayerService.isInRoom()) {
-            MultiplayerService.PlayerData playerData = new MultiplayerService.PlayerData(
-                localPlayerId, x, y, velocityX, velocityY, isJumping, isMovingLeft, isMovingRight
-            );
-            multiplayerService.sendPlayerData(playerData);
+            outgoingData.set(localPlayerId, x, y, velocityX, velocityY, isJumping, isMovingLeft, isMovingRight);
+            multiplayerService.sendPlayerData(outgoingData);
             lastSyncTime = currentTime;
+            STATES_SENT.increment();
+        }
+        // Totals include input and everything the network thread sends on its own
+        BYTES_SENT.set(multiplayerService.getBytesSent());
+        BYTES_RECEIVED.set(multiplayerService.getBytesReceived());
+        UPDATE_TIME.recordSince(start);
+    }
+    
+    /**
+     * Forward a local input frame to the authority
+     */
+    public void sendInput(int sequence, int buttons) {
+        if (multiplayerService.isInRoom()) {
+            multiplayerService.sendInput(sequence, buttons);
+        }
+    }
+    
+    /**
+     * Tell the room which level this player has started; only the host's choice moves the room
+     */
+    public void startLevel(int worldIndex, int levelIndex) {
+        currentWorld = worldIndex;
+        currentLevel = levelIndex;
+        completedWorld = completedLevel = 0;
+        if (isHost) {
+            roomWorld = worldIndex;
+            roomLevel = levelIndex;
         }
+        if (multiplayerService.isInRoom()) {
+            multiplayerService.startLevel(worldIndex, levelIndex);
+        }
+    }
+    
+    /**
+     * Whether the server, not this client, decides when a level is complete
+     */
+    public boolean isAuthoritative() {
+        return multiplayerService.isAuthoritative();
+    }
+    
+    /**
+     * Whether the room is playing a level other than the one the local player is in, so the
+     * game should load {@link #getRoomWorld()}-{@link #getRoomLevel()}
+     */
+    public boolean isRoomLevelPending() {
+        return roomLevel > 0 && (roomWorld != currentWorld || roomLevel != currentLevel);
+    }
+    
+    /**
+     * @return 1-based world of the room's level, or 0 if the authority has not announced one
+     */
+    public int getRoomWorld() {
+        return roomWorld;
+    }
+    
+    /**
+     * @return 1-based level of the room's level, or 0 if the authority has not announced one
+     */
+    public int getRoomLevel() {
+        return roomLevel;
+    }
+    
+    /**
+     * Consume the authority's verdict that the given level is complete
+     * @return True once for each time the level was declared complete
+     */
+    public boolean takeLevelComplete(int worldIndex, int levelIndex) {
+        if (completedWorld != worldIndex || completedLevel != levelIndex) return false;
+        completedWorld = completedLevel = 0;
+        return true;
+    }
+    
+    /**
+     * Take the newest authoritative state for the local player, if one arrived since the last call
+     * @return The input sequence it reflects, or -1 if there is none
+     */
+    public int takeAuthoritativeState(MultiplayerService.PlayerData out) {
+        int sequence = authoritativeSequence;
+        if (sequence < 0) return -1;
+        out.x = authoritativeState.x;
+        out.y = authoritativeState.y;
+        out.velocityX = authoritativeState.velocityX;
+        out.velocityY = authoritativeState.velocityY;
+        authoritativeSequence = -1;
+        return sequence;
+    }
+    
+    public long getBytesSent() {
+        return multiplayerService.getBytesSent();
+    }
+    
+    public long getBytesReceived() {
+        return multiplayerService.getBytesReceived();
     }
     
     /**
-     * Get all remote players
+     * Tell the transport which level area positions are quantized across
      */
-    public Array<MultiplayerPlayer> getRemotePlayers() {
-        return remotePlayers;
+    public void setLevelBounds(float minX, float minY, float maxX, float maxY) {
+        multiplayerService.setLevelBounds(minX, minY, maxX, maxY);
+    }
+    
+    /**
+     * Remote player in a room slot
+     * @param slot 0 to {@link MultiplayerService#MAX_ROOM_PLAYERS} - 1
+     * @return The player, or null if the slot is free or holds the local player
+     */
+    public MultiplayerPlayer getRemotePlayer(int slot) {
+        return remotePlayers[slot];
+    }
+    
+    public int getRemotePlayerCount() {
+        return remotePlayerCount;
+    }
+    
+    /**
+     * Changes whenever a remote player joins or leaves, so callers can skip re-pairing
+     * their own per-slot state when nothing moved
+     */
+    public int getRosterVersion() {
+        return rosterVersion;
     }
     
     /**
@@ -130,7 +277,7 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
     public void onSignOut() {
         localPlayerId = null;
         isHost = false;
-        remotePlayers.clear();
+        clearRemotePlayers();
         Gdx.app.log("MultiplayerManager", "Signed out");
     }
     
@@ -142,20 +289,40 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
     @Override
     public void onRoomJoined(String roomId) {
         Gdx.app.log("MultiplayerManager", "Joined room: " + roomId);
+        if (currentWorld > 0) {
+            // The level was started before the room was ready
+            multiplayerService.startLevel(currentWorld, currentLevel);
+        }
     }
     
     @Override
     public void onRoomLeft() {
         isHost = false;
-        remotePlayers.clear();
+        currentWorld = currentLevel = roomWorld = roomLevel = 0;
+        clearRemotePlayers();
         Gdx.app.log("MultiplayerManager", "Left room");
     }
     
     @Override
     public void onPlayerJoined(MultiplayerService.PlayerInfo player) {
         Gdx.app.log("MultiplayerManager", "Player joined: " + player.name);
-        MultiplayerPlayer remotePlayer = new MultiplayerPlayer(player.id, player.name);
-        remotePlayers.add(remotePlayer);
+        // A rejoin under the same id replaces the old entry
+        removeRemotePlayer(player.id);
+        int slot = player.slot;
+        if (slot < 0 || slot >= remotePlayers.length) {
+            slot = freeSlot();
+        } else if (remotePlayers[slot] != null) {
+            // The backend reassigned the slot; whoever held it is gone
+            removeRemotePlayer(remotePlayers[slot].getId());
+        }
+        if (slot < 0) {
+            Gdx.app.error("MultiplayerManager", "No free slot for " + player.name);
+            return;
+        }
+        remotePlayers[slot] = new MultiplayerPlayer(player.id, player.name, slot);
+        slotsById.put(player.id, slot);
+        remotePlayerCount++;
+        rosterVersion++;
         
         // Show toast message
         if (listener != null) {
@@ -166,7 +333,7 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
     @Override
     public void onPlayerLeft(MultiplayerService.PlayerInfo player) {
         Gdx.app.log("MultiplayerManager", "Player left: " + player.name);
-        remotePlayers.removeValue(new MultiplayerPlayer(player.id, player.name), false);
+        removeRemotePlayer(player.id);
         
         // Show toast message
         if (listener != null) {
@@ -181,12 +348,48 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
     
     @Override
     public void onPlayerDataReceived(String playerId, MultiplayerService.PlayerData data) {
-        // Update remote player data
-        for (MultiplayerPlayer remotePlayer : remotePlayers) {
-            if (remotePlayer.getId().equals(playerId)) {
-                remotePlayer.updateFromData(data);
-                break;
-            }
+        int slot = data.slot;
+        if (slot < 0 || slot >= remotePlayers.length) {
+            // Backends without slots fall back to the id
+            slot = slotsById.get(playerId, -1);
+            if (slot < 0) return;
+        }
+        MultiplayerPlayer remotePlayer = remotePlayers[slot];
+        // The slot may have changed hands since this was sent
+        if (remotePlayer != null && remotePlayer.getId().equals(playerId)) {
+            remotePlayer.updateFromData(data);
+        }
+    }
+    
+    @Override
+    public void onAuthoritativeState(int inputSequence, MultiplayerService.PlayerData state) {
+        // Only the newest matters; older ones would be rejected by reconciliation anyway
+        if (inputSequence > authoritativeSequence) {
+            authoritativeSequence = inputSequence;
+            authoritativeState.x = state.x;
+            authoritativeState.y = state.y;
+            authoritativeState.velocityX = state.velocityX;
+            authoritativeState.velocityY = state.velocityY;
+        }
+    }
+    
+    @Override
+    public void onLevelComplete(int worldIndex, int levelIndex) {
+        Gdx.app.log("MultiplayerManager", "Level " + worldIndex + "-" + levelIndex + " complete");
+        completedWorld = worldIndex;
+        completedLevel = levelIndex;
+        if (listener != null) {
+            listener.onLevelComplete(worldIndex, levelIndex);
+        }
+    }
+    
+    @Override
+    public void onLevelStarted(int worldIndex, int levelIndex) {
+        Gdx.app.log("MultiplayerManager", "Room is playing level " + worldIndex + "-" + levelIndex);
+        roomWorld = worldIndex;
+        roomLevel = levelIndex;
+        if (listener != null) {
+            listener.onLevelStarted(worldIndex, levelIndex);
         }
     }
     
@@ -226,21 +429,52 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
         }
     }
     
+    private void removeRemotePlayer(String playerId) {
+        int slot = slotsById.remove(playerId, -1);
+        if (slot < 0) return;
+        remotePlayers[slot] = null;
+        remotePlayerCount--;
+        rosterVersion++;
+    }
+    
+    private void clearRemotePlayers() {
+        for (int slot = 0; slot < remotePlayers.length; slot++) {
+            remotePlayers[slot] = null;
+        }
+        slotsById.clear();
+        remotePlayerCount = 0;
+        rosterVersion++;
+    }
+    
+    /**
+     * Lowest free slot, for backends that don't assign one
+     */
+    private int freeSlot() {
+        for (int slot = 0; slot < remotePlayers.length; slot++) {
+            if (remotePlayers[slot] == null) return slot;
+        }
+        return -1;
+    }
+    
     /**
      * Represents a remote player in multiplayer mode
      */
     public static class MultiplayerPlayer {
         private String id;
         private String name;
+        private final int slot;
         private float x, y;
         private float velocityX, velocityY;
         private boolean isJumping;
         private boolean isMovingLeft, isMovingRight;
         private long lastUpdateTime;
+        // Received states, rendered a little in the past to hide network jitter
+        private final SnapshotBuffer snapshots = new SnapshotBuffer();
         
-        public MultiplayerPlayer(String id, String name) {
+        public MultiplayerPlayer(String id, String name, int slot) {
             this.id = id;
             this.name = name;
+            this.slot = slot;
             this.lastUpdateTime = System.currentTimeMillis();
         }
         
@@ -253,11 +487,28 @@ public class MultiplayerManager implements MultiplayerService.MultiplayerListene
             this.isMovingLeft = data.isMovingLeft;
             this.isMovingRight = data.isMovingRight;
             this.lastUpdateTime = System.currentTimeMillis();
+            snapshots.add(data);
+        }
+        
+        /**
+         * Interpolated state to display at the given time
+         * @return false if no data has arrived yet
+         */
+        public boolean sample(long now, SnapshotBuffer.Sample out) {
+            return snapshots.sample(now, out);
+        }
+        
+        /**
+         * How far in the past this player is currently shown, in milliseconds
+         */
+        public float getInterpolationDelay() {
+            return snapshots.getDelayMillis();
         }
         
         // Getters
         public String getId() { return id; }
         public String getName() { return name; }
+        public int getSlot() { return slot; }
         public float getX() { return x; }
         public float getY() { return y; }
         public float getVelocityX() { return velocityX; }
@@ -7,6 +7,10 @@ import com.badlogic.gdx.utils.Array;
  * This allows the core game to work with different multiplayer backends
  */
 public interface MultiplayerService {
+    /**
+     * Most players a room can hold, local player included; room slots run from 0 to this minus one
+     */
+    int MAX_ROOM_PLAYERS = 16;
     
     /**
      * Initialize the multiplayer service
@@ -44,7 +48,7 @@ public interface MultiplayerService {
     
     /**
      * Create a new multiplayer room
-     * @param maxPlayers Maximum number of players (2-4)
+     * @param maxPlayers Maximum number of players (2-{@link #MAX_ROOM_PLAYERS})
      */
     void createRoom(int maxPlayers);
     
@@ -73,10 +77,65 @@ public interface MultiplayerService {
     
     /**
      * Send player state data to other players
-     * @param playerData Player state data
+     * @param playerData Player state data; copied, so the caller may reuse it
      */
     void sendPlayerData(PlayerData playerData);
     
+    /**
+     * Tell the room which level this player is in, so an authoritative backend can run it.
+     * Only the host's choice changes the room's level; the others follow
+     * {@link MultiplayerListener#onLevelStarted(int, int)}.
+     * @param worldIndex 1-based
+     * @param levelIndex 1-based
+     */
+    default void startLevel(int worldIndex, int levelIndex) {
+    }
+    
+    /**
+     * Whether the backend simulates levels itself and decides when they are complete,
+     * reported through {@link MultiplayerListener#onLevelComplete(int, int)}
+     */
+    default boolean isAuthoritative() {
+        return false;
+    }
+    
+    /**
+     * Deliver events that arrived since the last call to the listener, on the calling thread.
+     * Call once per tick from the game thread; listener callbacks happen nowhere else except
+     * in direct answer to a call made on the game thread.
+     */
+    default void pollEvents() {
+    }
+    
+    /**
+     * Send one local input frame to the authority, if the backend has one
+     * @param sequence Increasing input number, echoed back with authoritative state
+     * @param buttons InputFrame button bits
+     */
+    default void sendInput(int sequence, int buttons) {
+    }
+    
+    /**
+     * Total bytes written to the network since the service started, for diagnostics
+     */
+    default long getBytesSent() {
+        return 0;
+    }
+    
+    /**
+     * Total bytes read from the network since the service started, for diagnostics
+     */
+    default long getBytesReceived() {
+        return 0;
+    }
+    
+    /**
+     * Level area in pixels that player positions fall within, used to compress them on the wire.
+     * Every player in a room must report the same bounds.
+     */
+    default void setLevelBounds(float minX, float minY, float maxX, float maxY) {
+    }
+    
     /**
      * Get list of players in current room
      * @return Array of player information
@@ -101,7 +160,8 @@ public interface MultiplayerService {
     void dispose();
     
     /**
-     * Listener interface for multiplayer events
+     * Listener interface for multiplayer events, called on the game thread. PlayerData passed
+     * in is only valid during the call; copy what should be kept.
      */
     interface MultiplayerListener {
         void onSignInSuccess();
@@ -114,10 +174,24 @@ public interface MultiplayerService {
         void onPlayerLeft(PlayerInfo player);
         void onMessageReceived(String playerId, String message);
         void onPlayerDataReceived(String playerId, PlayerData data);
+        void onAuthoritativeState(int inputSequence, PlayerData state);
         void onRoomCreationFailed(String error);
         void onJoinRoomFailed(String error);
         void onRoomCodeGenerated(String roomCode);
         void onToastMessage(String message, ToastType type);
+        
+        /**
+         * An authoritative backend decided the room's level is complete
+         */
+        default void onLevelComplete(int worldIndex, int levelIndex) {
+        }
+        
+        /**
+         * An authoritative backend says the room is playing this level, e.g. because the host
+         * picked it or it was running when this player joined
+         */
+        default void onLevelStarted(int worldIndex, int levelIndex) {
+        }
     }
     
     /**
@@ -134,11 +208,18 @@ public interface MultiplayerService {
         public String id;
         public String name;
         public boolean isHost;
+        // Room slot assigned at join, or -1 if the backend doesn't number players
+        public int slot;
         
         public PlayerInfo(String id, String name, boolean isHost) {
+            this(id, name, isHost, -1);
+        }
+        
+        public PlayerInfo(String id, String name, boolean isHost, int slot) {
             this.id = id;
             this.name = name;
             this.isHost = isHost;
+            this.slot = slot;
         }
     }
     
@@ -147,6 +228,8 @@ public interface MultiplayerService {
      */
     class PlayerData {
         public String playerId;
+        // Sender's room slot, or -1 if unknown; lets receivers find the player without the id
+        public int slot = -1;
         public float x, y;
         public float velocityX, velocityY;
         public boolean isJumping;
@@ -170,5 +253,30 @@ public interface MultiplayerService {
             this.isMovingRight = isMovingRight;
             this.timestamp = System.currentTimeMillis();
         }
+        
+        /**
+         * Overwrite every field, stamping the current time, so one instance can be reused per frame
+         */
+        public PlayerData set(String playerId, float x, float y, float velocityX, float velocityY,
+                              boolean isJumping, boolean isMovingLeft, boolean isMovingRight) {
+            this.playerId = playerId;
+            this.x = x;
+            this.y = y;
+            this.velocityX = velocityX;
+            this.velocityY = velocityY;
+            this.isJumping = isJumping;
+            this.isMovingLeft = isMovingLeft;
+            this.isMovingRight = isMovingRight;
+            this.timestamp = System.currentTimeMillis();
+            return this;
+        }
+        
+        public PlayerData set(PlayerData other) {
+            set(other.playerId, other.x, other.y, other.velocityX, other.velocityY,
+                other.isJumping, other.isMovingLeft, other.isMovingRight);
+            this.slot = other.slot;
+            this.timestamp = other.timestamp;
+            return this;
+        }
     }
 }
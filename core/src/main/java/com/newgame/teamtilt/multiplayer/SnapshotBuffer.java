@@ -0,0 +1,136 @@
+package com.newgame.teamtilt.multiplayer;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Time-stamped ring buffer of one remote player's received states.
+ * Remote players are shown slightly in the past so that there is almost
+ * always a snapshot on either side of the render time to blend between.
+ * The delay adapts to the measured arrival interval and jitter. When packets
+ * are late the last state is extrapolated along its velocity for a short,
+ * clamped time and then held.
+ */
+public class SnapshotBuffer {
+    private static final int CAPACITY = 32;
+    // Bounds for the adaptive interpolation delay, in milliseconds
+    private static final float MIN_DELAY = 50f;
+    private static final float MAX_DELAY = 400f;
+    // How far past the newest snapshot we are willing to guess
+    private static final long MAX_EXTRAPOLATION = 150;
+    // Weight of each new arrival in the running interval and jitter averages
+    private static final float SMOOTHING = 0.1f;
+    private static final float PPM = 100f;
+
+    /**
+     * Sampled state; positions in pixels, velocities in meters per second like PlayerData
+     */
+    public static class Sample {
+        public float x, y;
+        public float velocityX, velocityY;
+        public boolean isJumping, isMovingLeft, isMovingRight;
+    }
+
+    private final long[] times = new long[CAPACITY];
+    private final float[] xs = new float[CAPACITY];
+    private final float[] ys = new float[CAPACITY];
+    private final float[] velocityXs = new float[CAPACITY];
+    private final float[] velocityYs = new float[CAPACITY];
+    private final byte[] flags = new byte[CAPACITY];
+    // Index of the next write and number of valid entries
+    private int head = 0;
+    private int count = 0;
+
+    private float meanInterval = 100f;
+    private float jitter = 0f;
+
+    public void add(MultiplayerService.PlayerData data) {
+        if (count > 0) {
+            long newest = times[index(count - 1)];
+            // Drop out-of-order arrivals; the buffer must stay sorted by time
+            if (data.timestamp <= newest) return;
+            float interval = data.timestamp - newest;
+            jitter += (Math.abs(interval - meanInterval) - jitter) * SMOOTHING;
+            meanInterval += (interval - meanInterval) * SMOOTHING;
+        }
+        times[head] = data.timestamp;
+        xs[head] = data.x;
+        ys[head] = data.y;
+        velocityXs[head] = data.velocityX;
+        velocityYs[head] = data.velocityY;
+        flags[head] = (byte) ((data.isJumping ? 1 : 0) | (data.isMovingLeft ? 2 : 0) | (data.isMovingRight ? 4 : 0));
+        head = (head + 1) % CAPACITY;
+        if (count < CAPACITY) count++;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void clear() {
+        count = 0;
+        head = 0;
+    }
+
+    /**
+     * How far behind real time remote players are rendered: one typical interval plus room for jitter
+     */
+    public float getDelayMillis() {
+        return MathUtils.clamp(meanInterval + 2f * jitter, MIN_DELAY, MAX_DELAY);
+    }
+
+    /**
+     * State at {@code now} minus the interpolation delay
+     * @return false if nothing has been received yet
+     */
+    public boolean sample(long now, Sample out) {
+        if (count == 0) return false;
+        // Epoch milliseconds need a double; a float rounds them to steps of minutes
+        double renderTime = now - (double) getDelayMillis();
+
+        int oldest = index(0);
+        if (renderTime <= times[oldest]) {
+            copy(oldest, out);
+            return true;
+        }
+
+        int newest = index(count - 1);
+        if (renderTime >= times[newest]) {
+            copy(newest, out);
+            float ahead = (float) Math.min(renderTime - times[newest], MAX_EXTRAPOLATION) / 1000f;
+            out.x += velocityXs[newest] * PPM * ahead;
+            out.y += velocityYs[newest] * PPM * ahead;
+            return true;
+        }
+
+        // Newest pair that brackets the render time
+        for (int i = count - 2; i >= 0; i--) {
+            int from = index(i);
+            if (times[from] <= renderTime) {
+                int to = index(i + 1);
+                float alpha = (float) ((renderTime - times[from]) / (times[to] - times[from]));
+                copy(alpha < 0.5f ? from : to, out);
+                out.x = MathUtils.lerp(xs[from], xs[to], alpha);
+                out.y = MathUtils.lerp(ys[from], ys[to], alpha);
+                out.velocityX = MathUtils.lerp(velocityXs[from], velocityXs[to], alpha);
+                out.velocityY = MathUtils.lerp(velocityYs[from], velocityYs[to], alpha);
+                return true;
+            }
+        }
+        copy(oldest, out);
+        return true;
+    }
+
+    private int index(int i) {
+        return (head - count + i + CAPACITY) % CAPACITY;
+    }
+
+    private void copy(int i, Sample out) {
+        out.x = xs[i];
+        out.y = ys[i];
+        out.velocityX = velocityXs[i];
+        out.velocityY = velocityYs[i];
+        out.isJumping = (flags[i] & 1) != 0;
+        out.isMovingLeft = (flags[i] & 2) != 0;
+        out.isMovingRight = (flags[i] & 4) != 0;
+    }
+}
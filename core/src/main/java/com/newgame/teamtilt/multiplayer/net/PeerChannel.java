@@ -0,0 +1,153 @@
+package com.newgame.teamtilt.multiplayer.net;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sequencing state for one remote endpoint.
+ * Reliable packets are numbered, kept until acked, resent on a timer and
+ * handed out strictly in order. Unreliable packets are numbered only so that
+ * late or duplicated ones can be dropped. Not thread safe: each channel is
+ * owned by the network thread that reads and writes its socket.
+ */
+public class PeerChannel {
+    public static final long RESEND_MILLIS = 150;
+    public static final int MAX_ATTEMPTS = 20;
+    // Reliable packets this far ahead of the next expected one are dropped rather than buffered
+    private static final int RECEIVE_WINDOW = 256;
+
+    private static class Pending {
+        final ByteBuffer packet;
+        long sentAt;
+        int attempts;
+
+        Pending(ByteBuffer packet, long sentAt) {
+            this.packet = packet;
+            this.sentAt = sentAt;
+            this.attempts = 1;
+        }
+    }
+
+    private int nextReliableSend = 0;
+    private int nextReliableReceive = 0;
+    private int nextUnreliableSend = 0;
+    private int lastUnreliableReceive = -1;
+    private final IntMap<Pending> pending = new IntMap<>();
+    private final IntMap<ByteBuffer> outOfOrder = new IntMap<>();
+
+    /**
+     * Frame a message for the reliable channel and keep it until acked
+     * @return The packet, ready to be written
+     */
+    public ByteBuffer wrapReliable(ByteBuffer body, long now) {
+        int sequence = nextReliableSend++;
+        ByteBuffer packet = frame(Protocol.CHANNEL_RELIABLE, sequence, body);
+        pending.put(sequence, new Pending(packet, now));
+        return packet.duplicate();
+    }
+
+    /**
+     * Frame a message for the unreliable channel
+     */
+    public ByteBuffer wrapUnreliable(ByteBuffer body) {
+        return frame(Protocol.CHANNEL_UNRELIABLE, nextUnreliableSend++, body);
+    }
+
+    /**
+     * Frame a message for the unreliable channel into a reused buffer, e.g. a direct one
+     * @param out Needs room for {@link Protocol#MAX_PACKET_SIZE} bytes
+     * @return out, ready to be written
+     */
+    public ByteBuffer wrapUnreliable(ByteBuffer body, ByteBuffer out) {
+        int start = body.position();
+        out.clear();
+        out.put(Protocol.CHANNEL_UNRELIABLE).putInt(nextUnreliableSend++).put(body).flip();
+        body.position(start);
+        return out;
+    }
+
+    public static ByteBuffer ack(int sequence) {
+        ByteBuffer packet = ByteBuffer.allocate(Protocol.HEADER_SIZE);
+        packet.put(Protocol.CHANNEL_ACK).putInt(sequence).flip();
+        return packet;
+    }
+
+    private static ByteBuffer frame(byte channel, int sequence, ByteBuffer body) {
+        ByteBuffer packet = ByteBuffer.allocate(Protocol.HEADER_SIZE + body.remaining());
+        packet.put(channel).putInt(sequence).put(body.duplicate()).flip();
+        return packet;
+    }
+
+    public void acknowledge(int sequence) {
+        pending.remove(sequence);
+    }
+
+    /**
+     * @return false if this unreliable packet is older than one already received
+     */
+    public boolean acceptUnreliable(int sequence) {
+        // Compare by difference so the check survives int wrap-around
+        if (lastUnreliableReceive != -1 && sequence - lastUnreliableReceive <= 0) {
+            return false;
+        }
+        lastUnreliableReceive = sequence;
+        return true;
+    }
+
+    /**
+     * Accept a reliable packet and collect every body that is now deliverable in order.
+     * The caller must ack the sequence whatever this returns, since the ack may have been lost.
+     */
+    public void receiveReliable(int sequence, ByteBuffer body, Array<ByteBuffer> deliverable) {
+        int ahead = sequence - nextReliableReceive;
+        if (ahead < 0 || ahead >= RECEIVE_WINDOW) {
+            // Duplicate of something already delivered, or too far ahead to hold
+            return;
+        }
+        if (ahead > 0) {
+            if (!outOfOrder.containsKey(sequence)) {
+                outOfOrder.put(sequence, copy(body));
+            }
+            return;
+        }
+        deliverable.add(copy(body));
+        nextReliableReceive++;
+        ByteBuffer next;
+        while ((next = outOfOrder.remove(nextReliableReceive)) != null) {
+            deliverable.add(next);
+            nextReliableReceive++;
+        }
+    }
+
+    /**
+     * Collect reliable packets whose resend timer has expired
+     * @return false once a packet has gone unacked for {@link #MAX_ATTEMPTS} sends; the peer should be dropped
+     */
+    public boolean collectResends(long now, Array<ByteBuffer> resends) {
+        for (Pending entry : pending.values()) {
+            if (now - entry.sentAt < RESEND_MILLIS) continue;
+            if (entry.attempts >= MAX_ATTEMPTS) {
+                return false;
+            }
+            entry.attempts++;
+            entry.sentAt = now;
+            resends.add(entry.packet.duplicate());
+        }
+        return true;
+    }
+
+    /**
+     * Number of reliable packets still waiting for an ack
+     */
+    public int getPendingCount() {
+        return pending.size;
+    }
+
+    private static ByteBuffer copy(ByteBuffer body) {
+        ByteBuffer copy = ByteBuffer.allocate(body.remaining());
+        copy.put(body.duplicate()).flip();
+        return copy;
+    }
+}
@@ -0,0 +1,266 @@
+package com.newgame.teamtilt.multiplayer.net;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of {@link MultiplayerService.PlayerData}.
+ * Players are addressed by a 1-byte room slot instead of their id string.
+ * Positions and velocities are quantized to 16 bits across the level bounds,
+ * and the three booleans share a mask byte with the changed-field bits. Each
+ * update is delta coded against the newest snapshot that every other room
+ * member has acknowledged, so a player running along a platform costs about
+ * six bytes. Every update also acks the newest snapshot it has from each other
+ * player. The layout is
+ *
+ * <pre>
+ * slot, sequence, mask, [baseline], changed fields (u16 each), ack count, (slot, sequence)*
+ * </pre>
+ *
+ * Not thread safe; owned by the network thread.
+ */
+public class PlayerDataCodec {
+    public static final int MAX_SLOTS = MultiplayerService.MAX_ROOM_PLAYERS;
+    // Smallest valid payload: slot, sequence, mask and ack count with nothing else
+    public static final int MIN_SIZE = 4;
+    // Snapshots remembered per player for use as delta baselines
+    private static final int HISTORY = 32;
+    private static final int FIELDS = 4;
+    // Velocities are clamped to this many meters per second either way
+    private static final float MAX_VELOCITY = 16f;
+    private static final int QUANTIZED_MAX = 0xFFFF;
+
+    // Mask byte: changed fields, the three booleans, and whether a baseline follows
+    private static final int FIELD_X = 1;
+    private static final int JUMPING = 1 << 4;
+    private static final int MOVING_LEFT = 1 << 5;
+    private static final int MOVING_RIGHT = 1 << 6;
+    private static final int HAS_BASELINE = 1 << 7;
+
+    private float minX = 0, minY = -200;
+    private float rangeX = 4096, rangeY = 2048;
+
+    private final String[] slotIds = new String[MAX_SLOTS];
+    private final ObjectIntMap<String> slotsById = new ObjectIntMap<>();
+    private int localSlot = -1;
+
+    // Our own recent snapshots, indexed by sequence % HISTORY
+    private final int[] sent = new int[HISTORY * FIELDS];
+    private final int[] sentSequence = new int[HISTORY];
+    private int nextSequence = 0;
+    // Which of our recent sequences each remote slot has acked, indexed like sentSequence
+    private final int[][] ackedBy = new int[MAX_SLOTS][HISTORY];
+
+    // Snapshots received from each slot
+    private final int[][] received = new int[MAX_SLOTS][HISTORY * FIELDS];
+    private final int[][] receivedSequence = new int[MAX_SLOTS][HISTORY];
+    private final int[] lastReceived = new int[MAX_SLOTS];
+
+    private final int[] quantized = new int[FIELDS];
+
+    public PlayerDataCodec() {
+        reset();
+    }
+
+    /**
+     * Level area in pixels that positions are quantized across; every peer must use the same bounds
+     */
+    public void setBounds(float minX, float minY, float maxX, float maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.rangeX = Math.max(1f, maxX - minX);
+        this.rangeY = Math.max(1f, maxY - minY);
+    }
+
+    /**
+     * Forget every slot and snapshot, e.g. when entering a new room
+     */
+    public void reset() {
+        Arrays.fill(slotIds, null);
+        slotsById.clear();
+        localSlot = -1;
+        Arrays.fill(sentSequence, -1);
+        Arrays.fill(lastReceived, -1);
+        for (int slot = 0; slot < MAX_SLOTS; slot++) {
+            Arrays.fill(ackedBy[slot], -1);
+            Arrays.fill(receivedSequence[slot], -1);
+        }
+    }
+
+    public void setLocalSlot(int slot, String playerId) {
+        localSlot = slot;
+        assign(slot, playerId);
+    }
+
+    /**
+     * Bind a room slot to a player; any history from a previous occupant is dropped
+     */
+    public void assign(int slot, String playerId) {
+        release(slot);
+        slotIds[slot] = playerId;
+        slotsById.put(playerId, slot);
+    }
+
+    public void release(int slot) {
+        if (slotIds[slot] != null) {
+            slotsById.remove(slotIds[slot], 0);
+            slotIds[slot] = null;
+        }
+        Arrays.fill(ackedBy[slot], -1);
+        lastReceived[slot] = -1;
+        Arrays.fill(receivedSequence[slot], -1);
+    }
+
+    /**
+     * Slot of the given player, or -1
+     */
+    public int getSlot(String playerId) {
+        return slotsById.get(playerId, -1);
+    }
+
+    /**
+     * Append one update for the local player
+     */
+    public void encode(MultiplayerService.PlayerData data, ByteBuffer out) {
+        int sequence = nextSequence;
+        nextSequence = (nextSequence + 1) & 0xFF;
+        quantize(data, quantized);
+        int offset = (sequence % HISTORY) * FIELDS;
+        System.arraycopy(quantized, 0, sent, offset, FIELDS);
+        sentSequence[sequence % HISTORY] = sequence;
+
+        int baseline = findBaseline(sequence);
+        int mask = (data.isJumping ? JUMPING : 0) | (data.isMovingLeft ? MOVING_LEFT : 0) | (data.isMovingRight ? MOVING_RIGHT : 0);
+        int baseOffset = (baseline % HISTORY) * FIELDS;
+        for (int field = 0; field < FIELDS; field++) {
+            if (baseline < 0 || sent[baseOffset + field] != quantized[field]) {
+                mask |= FIELD_X << field;
+            }
+        }
+        if (baseline >= 0) mask |= HAS_BASELINE;
+
+        out.put((byte) localSlot).put((byte) sequence).put((byte) mask);
+        if (baseline >= 0) out.put((byte) baseline);
+        for (int field = 0; field < FIELDS; field++) {
+            if ((mask & (FIELD_X << field)) != 0) {
+                out.putShort((short) quantized[field]);
+            }
+        }
+        writeAcks(out);
+    }
+
+    /**
+     * Newest earlier snapshot that every other occupied slot has acked, or -1 to send everything
+     */
+    private int findBaseline(int sequence) {
+        for (int age = 1; age < HISTORY; age++) {
+            int candidate = (sequence - age) & 0xFF;
+            int index = candidate % HISTORY;
+            if (sentSequence[index] != candidate) return -1;
+            boolean ackedByAll = true;
+            boolean anyReceiver = false;
+            for (int slot = 0; slot < MAX_SLOTS && ackedByAll; slot++) {
+                if (slot == localSlot || slotIds[slot] == null) continue;
+                anyReceiver = true;
+                ackedByAll = ackedBy[slot][index] == candidate;
+            }
+            if (!anyReceiver) return -1;
+            if (ackedByAll) return candidate;
+        }
+        return -1;
+    }
+
+    private void writeAcks(ByteBuffer out) {
+        int countPosition = out.position();
+        out.put((byte) 0);
+        int count = 0;
+        for (int slot = 0; slot < MAX_SLOTS; slot++) {
+            if (slot == localSlot || lastReceived[slot] < 0) continue;
+            out.put((byte) slot).put((byte) lastReceived[slot]);
+            count++;
+        }
+        out.put(countPosition, (byte) count);
+    }
+
+    /**
+     * Read one update from a remote player
+     * @return false if it was stale or its baseline is no longer known; the acks are still applied
+     */
+    public boolean decode(ByteBuffer in, MultiplayerService.PlayerData out) {
+        int slot = in.get() & 0xFF;
+        int sequence = in.get() & 0xFF;
+        int mask = in.get() & 0xFF;
+        int baseline = (mask & HAS_BASELINE) != 0 ? in.get() & 0xFF : -1;
+        for (int field = 0; field < FIELDS; field++) {
+            if ((mask & (FIELD_X << field)) != 0) {
+                quantized[field] = in.getShort() & QUANTIZED_MAX;
+            }
+        }
+        int ackCount = in.get() & 0xFF;
+        for (int i = 0; i < ackCount; i++) {
+            int ackSlot = in.get() & 0xFF;
+            int acked = in.get() & 0xFF;
+            if (ackSlot == localSlot && slot < MAX_SLOTS) {
+                ackedBy[slot][acked % HISTORY] = acked;
+            }
+        }
+
+        if (slot >= MAX_SLOTS || slotIds[slot] == null || !isNewer(sequence, lastReceived[slot])) {
+            return false;
+        }
+        int[] history = received[slot];
+        int[] sequences = receivedSequence[slot];
+        if (baseline >= 0) {
+            if (sequences[baseline % HISTORY] != baseline) return false;
+            int baseOffset = (baseline % HISTORY) * FIELDS;
+            for (int field = 0; field < FIELDS; field++) {
+                if ((mask & (FIELD_X << field)) == 0) {
+                    quantized[field] = history[baseOffset + field];
+                }
+            }
+        }
+        System.arraycopy(quantized, 0, history, (sequence % HISTORY) * FIELDS, FIELDS);
+        sequences[sequence % HISTORY] = sequence;
+        lastReceived[slot] = sequence;
+
+        out.playerId = slotIds[slot];
+        out.slot = slot;
+        out.x = dequantize(quantized[0], minX, rangeX);
+        out.y = dequantize(quantized[1], minY, rangeY);
+        out.velocityX = dequantize(quantized[2], -MAX_VELOCITY, 2 * MAX_VELOCITY);
+        out.velocityY = dequantize(quantized[3], -MAX_VELOCITY, 2 * MAX_VELOCITY);
+        out.isJumping = (mask & JUMPING) != 0;
+        out.isMovingLeft = (mask & MOVING_LEFT) != 0;
+        out.isMovingRight = (mask & MOVING_RIGHT) != 0;
+        out.timestamp = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Compare 8-bit sequences across wrap-around; anything beats -1
+     */
+    private static boolean isNewer(int sequence, int than) {
+        if (than < 0) return true;
+        int difference = (sequence - than) & 0xFF;
+        return difference != 0 && difference < 128;
+    }
+
+    private void quantize(MultiplayerService.PlayerData data, int[] out) {
+        out[0] = quantize(data.x, minX, rangeX);
+        out[1] = quantize(data.y, minY, rangeY);
+        out[2] = quantize(data.velocityX, -MAX_VELOCITY, 2 * MAX_VELOCITY);
+        out[3] = quantize(data.velocityY, -MAX_VELOCITY, 2 * MAX_VELOCITY);
+    }
+
+    private static int quantize(float value, float min, float range) {
+        int q = Math.round((value - min) / range * QUANTIZED_MAX);
+        return Math.max(0, Math.min(QUANTIZED_MAX, q));
+    }
+
+    private static float dequantize(int value, float min, float range) {
+        return min + value * range / QUANTIZED_MAX;
+    }
+}
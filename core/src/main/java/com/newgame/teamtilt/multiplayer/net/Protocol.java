@@ -0,0 +1,76 @@
+package com.newgame.teamtilt.multiplayer.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire constants shared by {@link UdpMultiplayerService} and the relay server.
+ * Every datagram starts with a channel byte and a sequence number, followed by
+ * a message type and its payload. Acks carry only the acknowledged sequence.
+ * Room messages give each member a slot byte (0-15) that player data uses in
+ * place of the id string, and that clients index their remote players by.
+ */
+public final class Protocol {
+    public static final int DEFAULT_PORT = 7777;
+    // Stays under the common 1280 byte IPv6 minimum MTU
+    public static final int MAX_PACKET_SIZE = 1200;
+    public static final int HEADER_SIZE = 5;
+
+    public static final byte CHANNEL_UNRELIABLE = 0;
+    public static final byte CHANNEL_RELIABLE = 1;
+    public static final byte CHANNEL_ACK = 2;
+
+    // Client -> server
+    public static final byte HELLO = 1;
+    public static final byte CREATE_ROOM = 2;
+    public static final byte JOIN_ROOM = 3;
+    public static final byte LEAVE_ROOM = 4;
+    public static final byte BYE = 5;
+    public static final byte PING = 6;
+    // Unreliable: int first sequence, byte count, then one button byte per frame.
+    // Repeats the newest unacked frames so a lost packet costs nothing.
+    public static final byte INPUT = 7;
+    // Reliable: byte world, byte level. The sender is now playing that level. From the host
+    // this picks the room's level; anyone else may only restart the level the room is on.
+    public static final byte START_LEVEL = 8;
+
+    // Server -> client
+    public static final byte WELCOME = 20;
+    public static final byte ROOM_CREATED = 21;
+    public static final byte ROOM_JOINED = 22;
+    public static final byte JOIN_FAILED = 23;
+    public static final byte PLAYER_JOINED = 24;
+    public static final byte PLAYER_LEFT = 25;
+    // Unreliable: int input sequence, then x, y in pixels and velocity in m/s as floats.
+    // Authoritative state of the receiving player after that input.
+    public static final byte STATE = 26;
+    // Reliable: byte world, byte level. The server saw a player reach the door.
+    public static final byte LEVEL_COMPLETE = 27;
+    // Unreliable: one server tick for the receiving player. Byte 1 if a STATE payload follows,
+    // then byte count and that many PLAYER_DATA payloads, one per other player.
+    public static final byte SNAPSHOT = 28;
+    // Reliable: byte world, byte level. The room is playing that level; load it. Sent to the
+    // other members when the host picks a level, and to anyone joining while one is running.
+    public static final byte LEVEL_STARTED = 29;
+
+    // Both directions; the server stamps the sender before relaying.
+    // PLAYER_DATA bodies are encoded by PlayerDataCodec; their first byte is the sender's slot.
+    public static final byte MESSAGE = 40;
+    public static final byte PLAYER_DATA = 41;
+
+    private Protocol() {
+    }
+
+    public static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,781 @@
+package com.newgame.teamtilt.multiplayer.net;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.newgame.teamtilt.multiplayer.MultiplayerEventQueue;
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MultiplayerService that talks to the relay server over UDP.
+ * A single selector thread owns the non-blocking socket and all channel state.
+ * Room events travel on the reliable ordered channel; player data goes on the
+ * unreliable channel, where stale packets are simply dropped, encoded with
+ * {@link PlayerDataCodec} against the last snapshot peers acked. Calls from the
+ * game thread are queued for the network thread, and received messages go back
+ * through a {@link MultiplayerEventQueue} that the game thread drains in
+ * {@link #pollEvents()}.
+ */
+public class UdpMultiplayerService implements MultiplayerService, MultiplayerEventQueue.Handler {
+    private static final long SELECT_MILLIS = 20;
+    private static final long PING_MILLIS = 1000;
+    private static final long TIMEOUT_MILLIS = 10000;
+    // Each INPUT packet repeats up to this many of the newest unacknowledged frames
+    private static final int INPUT_REDUNDANCY = 8;
+    // Room events plus a few seconds of player data for a full room, should a frame stall
+    private static final int EVENT_CAPACITY = 1024;
+
+    private static class Outgoing {
+        final ByteBuffer body;
+        final boolean reliable;
+
+        Outgoing(ByteBuffer body, boolean reliable) {
+            this.body = body;
+            this.reliable = reliable;
+        }
+    }
+
+    private final InetSocketAddress serverAddress;
+    private final ConcurrentLinkedQueue<Outgoing> outgoing = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<float[]> pendingBounds = new AtomicReference<>();
+    private final MultiplayerEventQueue events = new MultiplayerEventQueue(EVENT_CAPACITY);
+    private final Random random = new Random();
+    // Newest local inputs, written by the game thread and sent by the network thread; guarded by itself
+    private final int[] inputButtons = new int[INPUT_REDUNDANCY];
+    private int newestInput = 0;
+    private boolean inputPending = false;
+    // Newest local player state; only the latest matters, so it is one slot rather than a queue.
+    // Encoded on the network thread, which owns the codec. Guarded by itself.
+    private final PlayerData pendingData = new PlayerData(null);
+    private boolean dataPending = false;
+
+    // Network thread only
+    private PeerChannel peer;
+    private final PlayerDataCodec codec = new PlayerDataCodec();
+    private final PlayerData decoded = new PlayerData(null);
+    private final PlayerData encoding = new PlayerData(null);
+    private String networkPlayerId;
+    // Newest input sequence the server has reported state for
+    private int acknowledgedInput = 0;
+    // Newest input sequence sent this level; state for anything newer belongs to the last level
+    private int sentInput = 0;
+    // Set by the game thread when a level starts and input sequences begin again at 1
+    private volatile boolean inputRestarted = false;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(Protocol.MAX_PACKET_SIZE);
+    private final Array<ByteBuffer> delivered = new Array<>();
+    private final Array<ByteBuffer> resends = new Array<>();
+    private DatagramChannel datagram;
+    private Selector selector;
+    private long lastSent, lastHeard;
+
+    // Written by the network thread only, read by diagnostics
+    private volatile long bytesSent, bytesReceived;
+
+    private volatile boolean running = false;
+    private Thread networkThread;
+
+    // Game thread only
+    private MultiplayerListener listener;
+    private boolean isSignedIn = false;
+    private String playerId;
+    private String playerName;
+    private String currentRoomId;
+    private String currentRoomCode;
+    private Array<PlayerInfo> players = new Array<>();
+
+    public UdpMultiplayerService(String host, int port) {
+        this.serverAddress = new InetSocketAddress(host, port);
+    }
+
+    @Override
+    public void initialize(MultiplayerListener listener) {
+        this.listener = listener;
+        Gdx.app.log("UdpMultiplayer", "Multiplayer service initialized for " + serverAddress);
+    }
+
+    @Override
+    public void signIn() {
+        if (!running) {
+            try {
+                start();
+            } catch (IOException e) {
+                if (listener != null) {
+                    listener.onSignInFailed(e.getMessage());
+                    listener.onToastMessage("Could not reach server", ToastType.ERROR);
+                }
+                return;
+            }
+        }
+        playerName = "Player " + (1000 + random.nextInt(9000));
+        ByteBuffer body = body(Protocol.HELLO);
+        Protocol.putString(body, playerName);
+        send(body, true);
+    }
+
+    @Override
+    public void signOut() {
+        if (running) {
+            send(body(Protocol.BYE), false);
+        }
+        isSignedIn = false;
+        playerId = null;
+        playerName = null;
+        currentRoomId = null;
+        players.clear();
+
+        if (listener != null) {
+            listener.onSignOut();
+        }
+    }
+
+    @Override
+    public boolean isSignedIn() {
+        return isSignedIn;
+    }
+
+    @Override
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    @Override
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    @Override
+    public void createRoom(int maxPlayers) {
+        if (!isSignedIn) {
+            if (listener != null) {
+                listener.onRoomCreationFailed("Not signed in");
+                listener.onToastMessage("Failed to create room: Not signed in", ToastType.ERROR);
+            }
+            return;
+        }
+        ByteBuffer body = body(Protocol.CREATE_ROOM);
+        body.put((byte) maxPlayers);
+        send(body, true);
+    }
+
+    @Override
+    public void joinRoom(String roomCode) {
+        if (!isSignedIn) {
+            if (listener != null) {
+                listener.onJoinRoomFailed("Not signed in");
+                listener.onToastMessage("Failed to join room: Not signed in", ToastType.ERROR);
+            }
+            return;
+        }
+
+        if (roomCode == null || roomCode.length() != 6) {
+            if (listener != null) {
+                listener.onJoinRoomFailed("Invalid room code");
+                listener.onToastMessage("Invalid room code format", ToastType.ERROR);
+            }
+            return;
+        }
+
+        ByteBuffer body = body(Protocol.JOIN_ROOM);
+        Protocol.putString(body, roomCode);
+        send(body, true);
+    }
+
+    @Override
+    public void leaveRoom() {
+        boolean wasInRoom = currentRoomId != null;
+        currentRoomId = null;
+        currentRoomCode = null;
+        players.clear();
+        if (wasInRoom) {
+            send(body(Protocol.LEAVE_ROOM), true);
+        }
+
+        if (listener != null) {
+            listener.onRoomLeft();
+            listener.onToastMessage("Left room", ToastType.INFO);
+        }
+    }
+
+    @Override
+    public String generateRoomCode() {
+        return currentRoomCode;
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        if (currentRoomId == null) return;
+        ByteBuffer body = body(Protocol.MESSAGE);
+        Protocol.putString(body, message);
+        send(body, true);
+    }
+
+    @Override
+    public void sendPlayerData(PlayerData playerData) {
+        if (currentRoomId == null) return;
+        synchronized (pendingData) {
+            pendingData.set(playerData);
+            dataPending = true;
+        }
+        selector.wakeup();
+    }
+
+    @Override
+    public void sendInput(int sequence, int buttons) {
+        if (currentRoomId == null) return;
+        synchronized (inputButtons) {
+            if (sequence != newestInput + 1) {
+                // Gap or restart; older buttons no longer line up with their sequences
+                Arrays.fill(inputButtons, 0);
+            }
+            inputButtons[sequence % INPUT_REDUNDANCY] = buttons;
+            newestInput = sequence;
+            inputPending = true;
+        }
+        selector.wakeup();
+    }
+
+    @Override
+    public void startLevel(int worldIndex, int levelIndex) {
+        if (currentRoomId == null) return;
+        synchronized (inputButtons) {
+            Arrays.fill(inputButtons, 0);
+            newestInput = 0;
+            inputPending = false;
+        }
+        inputRestarted = true;
+        ByteBuffer body = body(Protocol.START_LEVEL);
+        body.put((byte) worldIndex).put((byte) levelIndex);
+        send(body, true);
+    }
+
+    @Override
+    public boolean isAuthoritative() {
+        // The server runs every level a room plays
+        return true;
+    }
+
+    @Override
+    public void setLevelBounds(float minX, float minY, float maxX, float maxY) {
+        pendingBounds.set(new float[]{minX, minY, maxX, maxY});
+    }
+
+    @Override
+    public void pollEvents() {
+        events.drain(this);
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public Array<PlayerInfo> getPlayers() {
+        return new Array<>(players);
+    }
+
+    @Override
+    public boolean isInRoom() {
+        return currentRoomId != null;
+    }
+
+    @Override
+    public String getCurrentRoomId() {
+        return currentRoomId;
+    }
+
+    @Override
+    public void dispose() {
+        leaveRoom();
+        signOut();
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (networkThread != null) {
+            try {
+                networkThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ByteBuffer body(byte type) {
+        ByteBuffer body = ByteBuffer.allocate(Protocol.MAX_PACKET_SIZE - Protocol.HEADER_SIZE);
+        body.put(type);
+        return body;
+    }
+
+    private void send(ByteBuffer body, boolean reliable) {
+        body.flip();
+        outgoing.add(new Outgoing(body, reliable));
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private void start() throws IOException {
+        // Fresh sequence numbers; the server sees every new socket as a new peer
+        peer = new PeerChannel();
+        codec.reset();
+        outgoing.clear();
+        synchronized (pendingData) {
+            dataPending = false;
+        }
+        acknowledgedInput = sentInput = 0;
+        inputRestarted = false;
+        synchronized (inputButtons) {
+            newestInput = 0;
+            inputPending = false;
+        }
+        datagram = DatagramChannel.open();
+        datagram.configureBlocking(false);
+        datagram.connect(serverAddress);
+        selector = Selector.open();
+        datagram.register(selector, SelectionKey.OP_READ);
+        lastSent = lastHeard = System.currentTimeMillis();
+        running = true;
+        networkThread = new Thread(this::runNetwork, "UdpMultiplayer");
+        networkThread.setDaemon(true);
+        networkThread.start();
+    }
+
+    private void runNetwork() {
+        try {
+            while (running) {
+                selector.select(SELECT_MILLIS);
+                selector.selectedKeys().clear();
+                long now = System.currentTimeMillis();
+                receive(now);
+                flushOutgoing(now);
+
+                resends.clear();
+                boolean alive = peer.collectResends(now, resends);
+                for (ByteBuffer packet : resends) {
+                    write(packet, now);
+                }
+                if (!alive || now - lastHeard > TIMEOUT_MILLIS) {
+                    publishConnectionLost("Connection to server lost");
+                    break;
+                }
+                if (now - lastSent > PING_MILLIS) {
+                    ByteBuffer ping = ByteBuffer.allocate(1).put(Protocol.PING);
+                    ping.flip();
+                    write(peer.wrapUnreliable(ping), now);
+                }
+            }
+            // Push out the goodbye queued by dispose()
+            flushOutgoing(System.currentTimeMillis());
+        } catch (IOException | RuntimeException e) {
+            // Anything that escapes ends the session, so the game must hear about it
+            publishConnectionLost(e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            running = false;
+            try {
+                selector.close();
+                datagram.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void flushOutgoing(long now) throws IOException {
+        float[] bounds = pendingBounds.getAndSet(null);
+        if (bounds != null) {
+            codec.setBounds(bounds[0], bounds[1], bounds[2], bounds[3]);
+        }
+        Outgoing message;
+        while ((message = outgoing.poll()) != null) {
+            ByteBuffer packet = message.reliable ? peer.wrapReliable(message.body, now) : peer.wrapUnreliable(message.body);
+            write(packet, now);
+        }
+        flushPlayerData(now);
+        flushInput(now);
+    }
+
+    private void flushPlayerData(long now) throws IOException {
+        synchronized (pendingData) {
+            if (!dataPending) return;
+            dataPending = false;
+            encoding.set(pendingData);
+        }
+        ByteBuffer body = body(Protocol.PLAYER_DATA);
+        codec.encode(encoding, body);
+        body.flip();
+        write(peer.wrapUnreliable(body), now);
+    }
+
+    /**
+     * Send the newest input frames the server has not acknowledged, oldest first
+     */
+    private void flushInput(long now) throws IOException {
+        if (inputRestarted) {
+            inputRestarted = false;
+            acknowledgedInput = sentInput = 0;
+        }
+        ByteBuffer body;
+        synchronized (inputButtons) {
+            if (!inputPending) return;
+            inputPending = false;
+            int first = Math.max(acknowledgedInput + 1, newestInput - INPUT_REDUNDANCY + 1);
+            if (first > newestInput) return;
+            body = body(Protocol.INPUT);
+            body.putInt(first);
+            body.put((byte) (newestInput - first + 1));
+            for (int sequence = first; sequence <= newestInput; sequence++) {
+                body.put((byte) inputButtons[sequence % INPUT_REDUNDANCY]);
+            }
+            sentInput = newestInput;
+        }
+        body.flip();
+        write(peer.wrapUnreliable(body), now);
+    }
+
+    private void write(ByteBuffer packet, long now) throws IOException {
+        try {
+            bytesSent += datagram.write(packet);
+        } catch (PortUnreachableException e) {
+            // Server not up yet; reliable packets are resent until it answers or we time out
+        }
+        lastSent = now;
+    }
+
+    private void receive(long now) throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            int read;
+            try {
+                read = datagram.read(receiveBuffer);
+            } catch (PortUnreachableException e) {
+                return;
+            }
+            if (read <= 0) return;
+            bytesReceived += read;
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() < Protocol.HEADER_SIZE) continue;
+            lastHeard = now;
+
+            byte channel = receiveBuffer.get();
+            int sequence = receiveBuffer.getInt();
+            switch (channel) {
+                case Protocol.CHANNEL_ACK:
+                    peer.acknowledge(sequence);
+                    break;
+                case Protocol.CHANNEL_UNRELIABLE:
+                    if (receiveBuffer.hasRemaining() && peer.acceptUnreliable(sequence)) {
+                        receiveMessage(receiveBuffer);
+                    }
+                    break;
+                case Protocol.CHANNEL_RELIABLE:
+                    write(PeerChannel.ack(sequence), now);
+                    delivered.clear();
+                    peer.receiveReliable(sequence, receiveBuffer, delivered);
+                    for (ByteBuffer body : delivered) {
+                        receiveMessage(body);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Dispatch one message, dropping it if it is short or malformed rather than losing the network thread
+     */
+    private void receiveMessage(ByteBuffer body) {
+        try {
+            dispatch(body);
+        } catch (RuntimeException e) {
+            Gdx.app.error("UdpMultiplayer", "Dropped malformed message", e);
+        }
+    }
+
+    /**
+     * Decode a message on the network thread and queue it for the game thread. Every field
+     * is read before its event is claimed, so a short message never leaves a slot unpublished.
+     */
+    private void dispatch(ByteBuffer body) {
+        MultiplayerEventQueue.Event event;
+        byte type = body.get();
+        switch (type) {
+            case Protocol.WELCOME: {
+                String id = Protocol.getString(body);
+                networkPlayerId = id;
+                event = claim(MultiplayerEventQueue.Type.SIGN_IN_SUCCESS);
+                if (event == null) break;
+                event.text = id;
+                events.publish(event);
+                break;
+            }
+            case Protocol.ROOM_CREATED:
+            case Protocol.ROOM_JOINED: {
+                boolean created = type == Protocol.ROOM_CREATED;
+                String roomId = Protocol.getString(body);
+                String roomCode = Protocol.getString(body);
+                codec.reset();
+                codec.setLocalSlot(body.get(), networkPlayerId);
+                event = claim(created ? MultiplayerEventQueue.Type.ROOM_CREATED : MultiplayerEventQueue.Type.ROOM_JOINED);
+                if (event != null) {
+                    event.text = roomId;
+                    event.detail = roomCode;
+                    events.publish(event);
+                }
+                if (created) break;
+                // Members already in the room follow as joins
+                int count = body.get();
+                for (int i = 0; i < count; i++) {
+                    String id = Protocol.getString(body);
+                    String name = Protocol.getString(body);
+                    boolean host = body.get() != 0;
+                    int slot = body.get();
+                    codec.assign(slot, id);
+                    publishPlayerJoined(id, name, host, slot);
+                }
+                break;
+            }
+            case Protocol.JOIN_FAILED: {
+                String reason = Protocol.getString(body);
+                event = claim(MultiplayerEventQueue.Type.JOIN_FAILED);
+                if (event == null) break;
+                event.text = reason;
+                events.publish(event);
+                break;
+            }
+            case Protocol.PLAYER_JOINED: {
+                String id = Protocol.getString(body);
+                String name = Protocol.getString(body);
+                boolean host = body.get() != 0;
+                int slot = body.get();
+                codec.assign(slot, id);
+                publishPlayerJoined(id, name, host, slot);
+                break;
+            }
+            case Protocol.PLAYER_LEFT: {
+                String id = Protocol.getString(body);
+                int slot = codec.getSlot(id);
+                if (slot >= 0) codec.release(slot);
+                event = claim(MultiplayerEventQueue.Type.PLAYER_LEFT);
+                if (event == null) break;
+                event.text = id;
+                event.slot = slot;
+                events.publish(event);
+                break;
+            }
+            case Protocol.MESSAGE: {
+                String from = Protocol.getString(body);
+                String message = Protocol.getString(body);
+                event = claim(MultiplayerEventQueue.Type.MESSAGE);
+                if (event == null) break;
+                event.text = message;
+                event.detail = from;
+                events.publish(event);
+                break;
+            }
+            case Protocol.PLAYER_DATA:
+                receivePlayerData(body);
+                break;
+            case Protocol.LEVEL_STARTED:
+            case Protocol.LEVEL_COMPLETE: {
+                int worldIndex = body.get(), levelIndex = body.get();
+                event = claim(type == Protocol.LEVEL_STARTED
+                    ? MultiplayerEventQueue.Type.LEVEL_STARTED : MultiplayerEventQueue.Type.LEVEL_COMPLETE);
+                if (event == null) break;
+                event.worldIndex = worldIndex;
+                event.levelIndex = levelIndex;
+                events.publish(event);
+                break;
+            }
+            case Protocol.STATE:
+                receiveState(body);
+                break;
+            case Protocol.SNAPSHOT: {
+                if (body.get() != 0) receiveState(body);
+                int count = body.get() & 0xFF;
+                for (int i = 0; i < count; i++) {
+                    receivePlayerData(body);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private void receivePlayerData(ByteBuffer body) {
+        if (!codec.decode(body, decoded)) return;
+        MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.PLAYER_DATA);
+        if (event == null) return;
+        // Stamped with the arrival time by the codec
+        event.data.set(decoded);
+        events.publish(event);
+    }
+
+    /**
+     * Read a STATE payload; it is always read whole, since a snapshot may continue after it
+     */
+    private void receiveState(ByteBuffer body) {
+        int sequence = body.getInt();
+        float x = body.getFloat(), y = body.getFloat();
+        float velocityX = body.getFloat(), velocityY = body.getFloat();
+        if (sequence <= acknowledgedInput || sequence > sentInput) return;
+        acknowledgedInput = sequence;
+        MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.AUTHORITATIVE_STATE);
+        if (event == null) return;
+        event.sequence = sequence;
+        event.data.set(networkPlayerId, x, y, velocityX, velocityY, false, false, false);
+        events.publish(event);
+    }
+
+    private void publishPlayerJoined(String id, String name, boolean host, int slot) {
+        MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.PLAYER_JOINED);
+        if (event == null) return;
+        event.text = id;
+        event.detail = name;
+        event.flag = host;
+        event.slot = slot;
+        events.publish(event);
+    }
+
+    private void publishConnectionLost(String reason) {
+        MultiplayerEventQueue.Event event = claim(MultiplayerEventQueue.Type.CONNECTION_LOST);
+        if (event == null) return;
+        event.text = reason;
+        events.publish(event);
+    }
+
+    private MultiplayerEventQueue.Event claim(MultiplayerEventQueue.Type type) {
+        MultiplayerEventQueue.Event event = events.claim(type);
+        if (event == null) {
+            Gdx.app.error("UdpMultiplayer", "Event queue full, dropping " + type);
+        }
+        return event;
+    }
+
+    /**
+     * Apply a queued event to the game-thread state and tell the listener; game thread only
+     */
+    @Override
+    public void handle(MultiplayerEventQueue.Event event) {
+        switch (event.type) {
+            case SIGN_IN_SUCCESS:
+                playerId = event.text;
+                isSignedIn = true;
+                if (listener != null) {
+                    listener.onSignInSuccess();
+                }
+                break;
+            case ROOM_CREATED:
+                currentRoomId = event.text;
+                currentRoomCode = event.detail;
+                players.clear();
+                players.add(new PlayerInfo(playerId, playerName, true));
+                if (listener != null) {
+                    listener.onRoomCreated(currentRoomId);
+                    listener.onRoomJoined(currentRoomId);
+                    listener.onRoomCodeGenerated(currentRoomCode);
+                    listener.onToastMessage("Room created! Code: " + currentRoomCode, ToastType.SUCCESS);
+                }
+                break;
+            case ROOM_JOINED:
+                currentRoomId = event.text;
+                currentRoomCode = event.detail;
+                players.clear();
+                players.add(new PlayerInfo(playerId, playerName, false));
+                if (listener != null) {
+                    listener.onRoomJoined(currentRoomId);
+                    listener.onToastMessage("Joined room with code: " + currentRoomCode, ToastType.SUCCESS);
+                }
+                break;
+            case JOIN_FAILED:
+                if (listener != null) {
+                    listener.onJoinRoomFailed(event.text);
+                }
+                break;
+            case PLAYER_JOINED: {
+                if (currentRoomId == null) break;
+                PlayerInfo player = new PlayerInfo(event.text, event.detail, event.flag, event.slot);
+                players.add(player);
+                if (listener != null) {
+                    listener.onPlayerJoined(player);
+                }
+                break;
+            }
+            case PLAYER_LEFT:
+                for (int i = 0; i < players.size; i++) {
+                    PlayerInfo player = players.get(i);
+                    if (player.id.equals(event.text)) {
+                        players.removeIndex(i);
+                        if (listener != null) {
+                            listener.onPlayerLeft(player);
+                        }
+                        break;
+                    }
+                }
+                break;
+            case MESSAGE:
+                if (listener != null) {
+                    listener.onMessageReceived(event.detail, event.text);
+                }
+                break;
+            case PLAYER_DATA:
+                if (listener != null && currentRoomId != null) {
+                    listener.onPlayerDataReceived(event.data.playerId, event.data);
+                }
+                break;
+            case AUTHORITATIVE_STATE:
+                if (listener != null && currentRoomId != null) {
+                    listener.onAuthoritativeState(event.sequence, event.data);
+                }
+                break;
+            case LEVEL_STARTED:
+                if (listener != null && currentRoomId != null) {
+                    listener.onLevelStarted(event.worldIndex, event.levelIndex);
+                }
+                break;
+            case LEVEL_COMPLETE:
+                if (listener != null && currentRoomId != null) {
+                    listener.onLevelComplete(event.worldIndex, event.levelIndex);
+                }
+                break;
+            case CONNECTION_LOST:
+                connectionLost(event.text);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void connectionLost(String reason) {
+        boolean wasSignedIn = isSignedIn;
+        isSignedIn = false;
+        currentRoomId = null;
+        currentRoomCode = null;
+        players.clear();
+        if (listener == null) return;
+        if (wasSignedIn) {
+            listener.onRoomLeft();
+            listener.onSignOut();
+        } else {
+            listener.onSignInFailed(reason);
+        }
+        listener.onToastMessage("Disconnected: " + reason, ToastType.ERROR);
+    }
+}
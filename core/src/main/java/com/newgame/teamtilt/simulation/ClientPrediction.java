@@ -0,0 +1,110 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.math.Vector2;
+import com.newgame.teamtilt.Player;
+
+/**
+ * Client-side prediction for one input-driven player.
+ * Every local input frame gets a sequence number and is applied immediately,
+ * and the position it produced is remembered. When the authority reports the
+ * state after a given sequence, the prediction for that sequence is checked.
+ * If it was off, the player is rewound to the authoritative state and every
+ * input the authority has not seen yet is replayed through the physics step.
+ */
+public class ClientPrediction {
+    // Inputs kept for replay; two seconds of ticks
+    private static final int CAPACITY = 128;
+    // Prediction errors below this many pixels are left alone
+    private static final float CORRECTION_PIXELS = 2f;
+
+    private final GameSimulation simulation;
+    private final int playerIndex;
+    private final int[] buttons = new int[CAPACITY];
+    private final float[] predictedX = new float[CAPACITY];
+    private final float[] predictedY = new float[CAPACITY];
+    private int nextSequence = 1;
+    private int lastAcknowledged = 0;
+    private int corrections = 0;
+
+    public ClientPrediction(GameSimulation simulation, int playerIndex) {
+        this.simulation = simulation;
+        this.playerIndex = playerIndex;
+    }
+
+    /**
+     * Stamp the player's input frame with the next sequence number and remember it;
+     * call after filling the frame and before stepping
+     */
+    public void record() {
+        InputFrame frame = simulation.getInput(playerIndex);
+        frame.sequence = nextSequence++;
+        buttons[frame.sequence % CAPACITY] = frame.buttons;
+    }
+
+    /**
+     * Remember where the step for the last recorded input left the player; call after stepping
+     */
+    public void storeResult() {
+        storeResult(nextSequence - 1);
+    }
+
+    private void storeResult(int sequence) {
+        Vector2 position = simulation.getPlayers().get(playerIndex).getBody().getPosition();
+        predictedX[sequence % CAPACITY] = position.x;
+        predictedY[sequence % CAPACITY] = position.y;
+    }
+
+    /**
+     * Apply authoritative state for the player as of the given input sequence
+     * @param x Position in pixels
+     * @param velocityX Velocity in meters per second
+     * @return true if the prediction was wrong and inputs were replayed
+     */
+    public boolean reconcile(int acknowledgedSequence, float x, float y, float velocityX, float velocityY) {
+        if (acknowledgedSequence <= lastAcknowledged || acknowledgedSequence >= nextSequence) {
+            // Stale or reordered update, or one for input we never sent
+            return false;
+        }
+        lastAcknowledged = acknowledgedSequence;
+
+        Player player = simulation.getPlayers().get(playerIndex);
+        float ppm = player.getPPM();
+        int pendingCount = nextSequence - 1 - acknowledgedSequence;
+        if (pendingCount < CAPACITY) {
+            int slot = acknowledgedSequence % CAPACITY;
+            float errorX = (predictedX[slot] * ppm) - x;
+            float errorY = (predictedY[slot] * ppm) - y;
+            if (errorX * errorX + errorY * errorY <= CORRECTION_PIXELS * CORRECTION_PIXELS) {
+                return false;
+            }
+        }
+
+        simulation.rewindPlayer(playerIndex, x, y, velocityX, velocityY);
+        InputFrame frame = simulation.getInput(playerIndex);
+        int current = frame.buttons;
+        // Inputs older than the buffer are gone; accept the server state as-is for those
+        int firstReplay = Math.max(acknowledgedSequence + 1, nextSequence - CAPACITY + 1);
+        for (int sequence = firstReplay; sequence < nextSequence; sequence++) {
+            frame.buttons = buttons[sequence % CAPACITY];
+            simulation.resimulate();
+            storeResult(sequence);
+        }
+        frame.buttons = current;
+        corrections++;
+        return true;
+    }
+
+    /**
+     * Number of inputs applied locally that the authority has not confirmed yet
+     */
+    public int getPendingCount() {
+        return nextSequence - 1 - lastAcknowledged;
+    }
+
+    /**
+     * Number of times a misprediction forced a rewind and replay
+     */
+    public int getCorrectionCount() {
+        return corrections;
+    }
+}
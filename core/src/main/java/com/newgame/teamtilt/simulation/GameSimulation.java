@@ -0,0 +1,453 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.newgame.teamtilt.Platform;
+import com.newgame.teamtilt.Player;
+import com.newgame.teamtilt.levels.LevelDefinition;
+import com.newgame.teamtilt.metrics.Counter;
+import com.newgame.teamtilt.metrics.Gauge;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.metrics.MetricNames;
+import com.newgame.teamtilt.metrics.Metrics;
+
+/**
+ * Headless game state: the Box2D world, players, platforms and the exit door.
+ * Advances in fixed ticks from per-player input frames and never touches
+ * graphics, audio or wall-clock time, so it can run on a plain JVM.
+ * Platforms, triggers and players are kept in spatial hashes, which every
+ * area lookup (rendering, trigger checks) goes through.
+ */
+public class GameSimulation implements Disposable {
+    public static final float TIME_STEP = 1 / 60f;
+    public static final int VELOCITY_ITERATIONS = 6;
+    public static final int POSITION_ITERATIONS = 2;
+
+    public static final float PLATFORM_WIDTH = 300;
+    public static final float PLATFORM_HEIGHT = 20;
+    public static final float DOOR_WIDTH = 40f;
+    public static final float DOOR_HEIGHT = 80f;
+    private static final float PPM = 100f;
+    // Room around the level geometry that players can still reach, in pixels
+    private static final float BOUNDS_MARGIN = 400f;
+    // Spatial index cell edge in pixels, about one platform wide
+    private static final float INDEX_CELL_SIZE = 256f;
+
+    private static final Histogram STEP_TIME = Metrics.timer(MetricNames.PHYSICS_STEP_TIME);
+    private static final Counter STEPS = Metrics.counter(MetricNames.PHYSICS_STEPS);
+    private static final Gauge BODIES = Metrics.gauge(MetricNames.PHYSICS_BODIES);
+    private static final Gauge CONTACTS = Metrics.gauge(MetricNames.PHYSICS_CONTACTS);
+
+    /**
+     * Callbacks for things the presentation layer reacts to
+     */
+    public interface Listener {
+        void onPlayerJumped(Player player);
+        void onLevelComplete(Player player);
+    }
+
+    private final World world;
+    private final Array<Platform> platforms = new Array<>();
+    private final SpatialHash<Platform> platformIndex = new SpatialHash<>(INDEX_CELL_SIZE);
+    private final SpatialHash<Trigger> triggerIndex = new SpatialHash<>(INDEX_CELL_SIZE);
+    // Local and remote players, refreshed after every step
+    private final SpatialHash<Player> playerIndex = new SpatialHash<>(INDEX_CELL_SIZE);
+    private final ObjectIntMap<Player> playerIds = new ObjectIntMap<>();
+    private final Array<Trigger> touchedTriggers = new Array<>();
+    // Input-driven players; index matches the input frame slot
+    private final Array<Player> players = new Array<>();
+    private final Array<InputFrame> inputs = new Array<>();
+    // Players whose state comes from the network
+    private final Array<Player> remotePlayers = new Array<>();
+    private float doorX, doorY;
+    private final Rectangle bounds = new Rectangle();
+    private boolean levelComplete = false;
+    // Where the finisher touched the door, in pixels, before it was despawned
+    private final Vector2 finishPosition = new Vector2();
+    private long tick = 0;
+    private Listener listener;
+    // Client prediction against an authoritative server, which alone decides when the level is done
+    private boolean predicting = false;
+    private final boolean recordMetrics;
+
+    public GameSimulation(LevelDefinition levelDefinition) {
+        this(levelDefinition, true);
+    }
+
+    /**
+     * @param recordMetrics False to leave the shared physics metrics alone. They are
+     *        single-writer, so simulations stepped on several threads at once must not record.
+     */
+    public GameSimulation(LevelDefinition levelDefinition, boolean recordMetrics) {
+        this.recordMetrics = recordMetrics;
+        world = new World(new Vector2(0, -9.8f), true);
+
+        world.setContactListener(new ContactListener() {
+            @Override
+            public void beginContact(Contact contact) {
+                Object a = contact.getFixtureA().getBody().getUserData();
+                Object b = contact.getFixtureB().getBody().getUserData();
+                if (a instanceof Player) ((Player) a).beginContact();
+                if (b instanceof Player) ((Player) b).beginContact();
+            }
+
+            @Override
+            public void endContact(Contact contact) {
+                Object a = contact.getFixtureA().getBody().getUserData();
+                Object b = contact.getFixtureB().getBody().getUserData();
+                if (a instanceof Player) ((Player) a).endContact();
+                if (b instanceof Player) ((Player) b).endContact();
+            }
+
+            @Override
+            public void preSolve(Contact contact, Manifold oldManifold) {}
+
+            @Override
+            public void postSolve(Contact contact, ContactImpulse impulse) {}
+        });
+
+        // Collect platforms from level definition if provided
+        if (levelDefinition != null) {
+            levelDefinition.build(world, platforms);
+        } else {
+            // default layout if none provided
+            platforms.add(new Platform(100, 100, PLATFORM_WIDTH, PLATFORM_HEIGHT));
+            platforms.add(new Platform(400, 120, PLATFORM_WIDTH, PLATFORM_HEIGHT));
+            platforms.add(new Platform(700, 170, PLATFORM_WIDTH, PLATFORM_HEIGHT));
+            platforms.add(new Platform(400, 240, PLATFORM_WIDTH, PLATFORM_HEIGHT));
+            platforms.add(new Platform(50, 240, PLATFORM_WIDTH, PLATFORM_HEIGHT));
+        }
+        new LevelGeometryBuilder().build(world, platforms);
+        for (Platform p : platforms) {
+            platformIndex.add(p, p.getX(), p.getY(), p.getWidth(), p.getHeight());
+        }
+
+        placeDoor();
+        triggerIndex.add(new Trigger(Trigger.Type.DOOR, doorX, doorY, DOOR_WIDTH, DOOR_HEIGHT),
+            doorX, doorY, DOOR_WIDTH, DOOR_HEIGHT);
+        computeBounds();
+    }
+
+    /**
+     * Simple door placement: to the right of the right-most platform
+     */
+    private void placeDoor() {
+        float maxCenterX = 0f;
+        doorX = (PLATFORM_WIDTH / 2f) + 20f;
+        doorY = PLATFORM_HEIGHT / 2f;
+        for (Platform p : platforms) {
+            float centerX = p.getX() + p.getWidth() / 2f;
+            if (centerX > maxCenterX) {
+                maxCenterX = centerX;
+                doorX = p.getX() + p.getWidth() + 20f;
+                doorY = p.getY() + p.getHeight();
+            }
+        }
+    }
+
+    /**
+     * Area covering every platform and the door, plus margin for jumping and falling
+     */
+    private void computeBounds() {
+        float minX = doorX, maxX = doorX + DOOR_WIDTH;
+        float minY = 0f, maxY = doorY + DOOR_HEIGHT;
+        for (Platform p : platforms) {
+            minX = Math.min(minX, p.getX());
+            maxX = Math.max(maxX, p.getX() + p.getWidth());
+            maxY = Math.max(maxY, p.getY() + p.getHeight());
+        }
+        bounds.set(minX - BOUNDS_MARGIN, minY - BOUNDS_MARGIN,
+            maxX - minX + 2 * BOUNDS_MARGIN, maxY - minY + 2 * BOUNDS_MARGIN);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * While predicting, reaching the door neither completes the level nor despawns the player,
+     * so a server that disagrees leaves nothing to undo
+     */
+    public void setPredicting(boolean predicting) {
+        this.predicting = predicting;
+    }
+
+    /**
+     * Add an input-driven player at the spawn point
+     * @return The new player; its input slot is {@link #getPlayerCount()} - 1
+     */
+    public Player addPlayer() {
+        Player player = new Player(world);
+        players.add(player);
+        inputs.add(new InputFrame());
+        indexPlayer(player);
+        return player;
+    }
+
+    /**
+     * Add a player whose state is applied from multiplayer data
+     */
+    public Player addRemotePlayer(String playerId) {
+        Player player = new Player(world, playerId);
+        remotePlayers.add(player);
+        indexPlayer(player);
+        return player;
+    }
+
+    public void removeRemotePlayer(Player remotePlayer) {
+        if (!remotePlayers.removeValue(remotePlayer, true)) return;
+        playerIndex.remove(playerIds.remove(remotePlayer, -1));
+        world.destroyBody(remotePlayer.getBody());
+    }
+
+    /**
+     * Remove an input-driven player and its input slot; the players after it move down one index
+     */
+    public void removePlayer(Player player) {
+        int index = players.indexOf(player, true);
+        if (index < 0) return;
+        players.removeIndex(index);
+        inputs.removeIndex(index);
+        playerIndex.remove(playerIds.remove(player, -1));
+        world.destroyBody(player.getBody());
+    }
+
+    public void clearRemotePlayers() {
+        for (Player remotePlayer : remotePlayers) {
+            playerIndex.remove(playerIds.remove(remotePlayer, -1));
+            world.destroyBody(remotePlayer.getBody());
+        }
+        remotePlayers.clear();
+    }
+
+    private void indexPlayer(Player player) {
+        Vector2 position = player.getBody().getPosition();
+        playerIds.put(player, playerIndex.add(player, position.x * PPM - Player.WIDTH / 2,
+            position.y * PPM - Player.HEIGHT / 2, Player.WIDTH, Player.HEIGHT));
+    }
+
+    private void updatePlayerIndex(Array<Player> moved) {
+        for (Player player : moved) {
+            Vector2 position = player.getBody().getPosition();
+            playerIndex.update(playerIds.get(player, -1), position.x * PPM - Player.WIDTH / 2,
+                position.y * PPM - Player.HEIGHT / 2, Player.WIDTH, Player.HEIGHT);
+        }
+    }
+
+    /**
+     * Input used by the given player on the next tick
+     */
+    public InputFrame getInput(int playerIndex) {
+        return inputs.get(playerIndex);
+    }
+
+    /**
+     * Advance the world by exactly one fixed time step
+     */
+    public void step() {
+        advance(false);
+    }
+
+    /**
+     * Re-run a step that already happened, after {@link #rewindPlayer}. Does not count as a
+     * new tick, fires no jump callbacks and leaves remote players where they are.
+     */
+    public void resimulate() {
+        advance(true);
+    }
+
+    /**
+     * Put an input-driven player back into a known state, e.g. one confirmed by the server
+     * @param x Position in pixels
+     * @param velocityX Velocity in meters per second
+     */
+    public void rewindPlayer(int playerIndex, float x, float y, float velocityX, float velocityY) {
+        Body body = players.get(playerIndex).getBody();
+        body.setTransform(x / PPM, y / PPM, 0);
+        body.setLinearVelocity(velocityX, velocityY);
+        body.setAwake(true);
+    }
+
+    private void advance(boolean replaying) {
+        for (Player player : players) {
+            player.savePreviousPosition();
+        }
+        for (Player remotePlayer : remotePlayers) {
+            remotePlayer.savePreviousPosition();
+        }
+
+        for (int i = 0; i < players.size; i++) {
+            Player player = players.get(i);
+            InputFrame input = inputs.get(i);
+            player.updateMovement(input.isMoveLeft(), input.isMoveRight());
+            if (input.isJump() && player.jump() && listener != null && !replaying) {
+                listener.onPlayerJumped(player);
+            }
+        }
+        for (Player remotePlayer : remotePlayers) {
+            if (replaying) {
+                remotePlayer.getBody().setLinearVelocity(0, 0);
+            } else {
+                remotePlayer.driveToTarget(TIME_STEP);
+            }
+        }
+
+        if (recordMetrics) {
+            long stepStart = System.nanoTime();
+            world.step(TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+            STEP_TIME.recordSince(stepStart);
+            STEPS.increment();
+            BODIES.set(world.getBodyCount());
+            CONTACTS.set(world.getContactCount());
+        } else {
+            world.step(TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        }
+        if (!replaying) {
+            tick++;
+        }
+
+        for (Player player : players) {
+            // Respawn player if falling
+            if (player.isFalling()) {
+                player.respawn();
+            }
+        }
+
+        updatePlayerIndex(players);
+        updatePlayerIndex(remotePlayers);
+
+        if (!levelComplete && !predicting) {
+            checkTriggers();
+        }
+    }
+
+    private void checkTriggers() {
+        for (Player player : players) {
+            touchedTriggers.clear();
+            Vector2 position = player.getBody().getPosition();
+            triggerIndex.query(position.x * PPM - Player.WIDTH / 2, position.y * PPM - Player.HEIGHT / 2,
+                Player.WIDTH, Player.HEIGHT, touchedTriggers);
+            for (Trigger trigger : touchedTriggers) {
+                if (trigger.type == Trigger.Type.DOOR) {
+                    levelComplete = true;
+                    finishPosition.set(player.getInterpolatedX(1f), player.getInterpolatedY(1f));
+                    // Despawn player by moving off-screen and stopping movement
+                    player.getBody().setLinearVelocity(0, 0);
+                    player.getBody().setTransform(-1000f, -1000f, 0);
+                    updatePlayerIndex(players);
+                    if (listener != null) {
+                        listener.onLevelComplete(player);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Array<Platform> getPlatforms() {
+        return platforms;
+    }
+
+    /**
+     * Add the platforms overlapping the given area in pixels to {@code out}
+     * @return out
+     */
+    public Array<Platform> queryPlatforms(float x, float y, float width, float height, Array<Platform> out) {
+        return platformIndex.query(x, y, width, height, out);
+    }
+
+    /**
+     * Add the local and remote players whose bodies overlap the given area in pixels to {@code out}
+     * @return out
+     */
+    public Array<Player> queryPlayers(float x, float y, float width, float height, Array<Player> out) {
+        return playerIndex.query(x, y, width, height, out);
+    }
+
+    /**
+     * Walk the occupied cells of the platform, trigger and player indexes
+     */
+    public void visitIndexCells(SpatialHash.CellVisitor visitor) {
+        platformIndex.visitCells(visitor);
+        triggerIndex.visitCells(visitor);
+        playerIndex.visitCells(visitor);
+    }
+
+    public Array<Player> getPlayers() {
+        return players;
+    }
+
+    public int getPlayerCount() {
+        return players.size;
+    }
+
+    public Array<Player> getRemotePlayers() {
+        return remotePlayers;
+    }
+
+    /**
+     * Playable area in pixels; identical for every instance built from the same level
+     */
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    public float getDoorX() {
+        return doorX;
+    }
+
+    public float getDoorY() {
+        return doorY;
+    }
+
+    /**
+     * Position in pixels at which the level was completed; the finisher itself has been moved
+     * off-screen by the time listeners hear of it
+     */
+    public Vector2 getFinishPosition() {
+        return finishPosition;
+    }
+
+    public boolean isLevelComplete() {
+        return levelComplete;
+    }
+
+    /**
+     * Number of steps taken since construction
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Hash of the state input-driven play can change: tick, completion and every input-driven
+     * player's position and velocity, bit for bit. A replay that matches its recording's
+     * hashes reproduced the run exactly.
+     */
+    public int stateHash() {
+        int hash = Long.hashCode(tick);
+        hash = 31 * hash + (levelComplete ? 1 : 0);
+        for (Player player : players) {
+            Vector2 position = player.getBody().getPosition();
+            Vector2 velocity = player.getBody().getLinearVelocity();
+            hash = 31 * hash + Float.floatToRawIntBits(position.x);
+            hash = 31 * hash + Float.floatToRawIntBits(position.y);
+            hash = 31 * hash + Float.floatToRawIntBits(velocity.x);
+            hash = 31 * hash + Float.floatToRawIntBits(velocity.y);
+        }
+        return hash;
+    }
+
+    @Override
+    public void dispose() {
+        world.dispose();
+    }
+}
@@ -0,0 +1,92 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams a trace written by {@link GhostTraceWriter} one sample at a time.
+ * Only the header is read up front; each {@link #next} decodes the following
+ * delta from a small read buffer, so a long trace never sits in memory.
+ */
+public final class GhostTraceReader implements Disposable {
+    private final InputStream in;
+    private final int sampleCount;
+    private int read = 0;
+    private int x, y;
+
+    public GhostTraceReader(FileHandle file) {
+        in = new BufferedInputStream(file.read(), 512);
+        try {
+            DataInputStream header = new DataInputStream(in);
+            if (header.readInt() != GhostTraceWriter.MAGIC) {
+                throw new IOException("Not a ghost trace");
+            }
+            int version = header.readShort();
+            if (version != GhostTraceWriter.VERSION) {
+                throw new IOException("Unsupported ghost trace version: " + version);
+            }
+            sampleCount = header.readInt();
+            x = header.readInt();
+            y = header.readInt();
+        } catch (IOException e) {
+            dispose();
+            throw new GdxRuntimeException("Could not read ghost trace " + file.path(), e);
+        }
+    }
+
+    /**
+     * Decode the next sample
+     * @param out Receives the centre in pixels
+     * @return False once the trace has ended; out is left unchanged
+     */
+    public boolean next(Vector2 out) {
+        if (read >= sampleCount) return false;
+        try {
+            if (read > 0) {
+                x += unzigzag(readVarint());
+                y += unzigzag(readVarint());
+            }
+        } catch (IOException e) {
+            // A truncated trace just ends early
+            read = sampleCount;
+            return false;
+        }
+        read++;
+        out.set(x / GhostTraceWriter.SCALE, y / GhostTraceWriter.SCALE);
+        return true;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new IOException("Ghost trace ended mid-sample");
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed ghost trace");
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Collects a player's position once per tick as a delta-encoded stream: the
+ * first sample in full, then each move as zigzag varints in quarter pixels,
+ * which is one byte per axis at walking speed. Deltas are taken against the
+ * quantized position the reader will reconstruct, so rounding never drifts.
+ * Read back with {@link GhostTraceReader}.
+ */
+public final class GhostTraceWriter {
+    static final int MAGIC = 0x54544754; // "TTGT"
+    static final int VERSION = 1;
+    // Quantization steps per pixel
+    static final float SCALE = 4f;
+
+    private byte[] deltas = new byte[2048];
+    private int length = 0;
+    private int sampleCount = 0;
+    private int startX, startY;
+    private int lastX, lastY;
+
+    /**
+     * Append the position after the next tick; the first call is the start position
+     * @param x Centre in pixels
+     */
+    public void add(float x, float y) {
+        int qx = Math.round(x * SCALE), qy = Math.round(y * SCALE);
+        if (sampleCount == 0) {
+            startX = qx;
+            startY = qy;
+        } else {
+            writeVarint(zigzag(qx - lastX));
+            writeVarint(zigzag(qy - lastY));
+        }
+        lastX = qx;
+        lastY = qy;
+        sampleCount++;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public void save(FileHandle file) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file.write(false)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(sampleCount);
+            out.writeInt(startX);
+            out.writeInt(startY);
+            out.write(deltas, 0, length);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write ghost trace " + file.path(), e);
+        }
+    }
+
+    private void writeVarint(int value) {
+        if (length + 5 > deltas.length) {
+            deltas = Arrays.copyOf(deltas, deltas.length * 2);
+        }
+        while ((value & ~0x7F) != 0) {
+            deltas[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        deltas[length++] = (byte) value;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+}
@@ -0,0 +1,40 @@
+package com.newgame.teamtilt.simulation;
+
+/**
+ * Buttons held by one player for a single simulation tick
+ */
+public final class InputFrame {
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int JUMP = 1 << 2;
+
+    public int buttons;
+    // Assigned by ClientPrediction so an authority can say which inputs it has applied; 0 if unused
+    public int sequence;
+
+    public void set(boolean moveLeft, boolean moveRight, boolean jump) {
+        buttons = (moveLeft ? LEFT : 0) | (moveRight ? RIGHT : 0) | (jump ? JUMP : 0);
+    }
+
+    public void set(InputFrame other) {
+        buttons = other.buttons;
+        sequence = other.sequence;
+    }
+
+    public void clear() {
+        buttons = 0;
+        sequence = 0;
+    }
+
+    public boolean isMoveLeft() {
+        return (buttons & LEFT) != 0;
+    }
+
+    public boolean isMoveRight() {
+        return (buttons & RIGHT) != 0;
+    }
+
+    public boolean isJump() {
+        return (buttons & JUMP) != 0;
+    }
+}
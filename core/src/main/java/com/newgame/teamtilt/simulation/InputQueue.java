@@ -0,0 +1,56 @@
+package com.newgame.teamtilt.simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue of button bitmasks from exactly one producer thread
+ * to exactly one consumer thread. Each side only writes its own index, and the
+ * ring is preallocated, so offering and polling never block or allocate.
+ */
+public final class InputQueue {
+    private final int[] buffer;
+    private final int mask;
+    // Next slot to read, written only by the consumer
+    private final AtomicLong head = new AtomicLong();
+    // Next slot to write, written only by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity Rounded up to a power of two
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        buffer = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Producer side
+     * @return False if the queue is full; the value is dropped
+     */
+    public boolean offer(int buttons) {
+        long position = tail.get();
+        if (position - head.get() == buffer.length) return false;
+        buffer[(int) position & mask] = buttons;
+        // Publishes the slot write above to the consumer
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * Consumer side; only call when {@link #isEmpty()} is false
+     */
+    public int poll() {
+        long position = head.get();
+        int buttons = buffer[(int) position & mask];
+        head.lazySet(position + 1);
+        return buttons;
+    }
+}
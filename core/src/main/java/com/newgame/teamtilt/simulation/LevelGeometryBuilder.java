@@ -0,0 +1,99 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.newgame.teamtilt.Platform;
+
+import java.util.Comparator;
+
+/**
+ * Turns a level's platforms into collision geometry: a single static body
+ * with one box fixture per run of platforms. Platforms on the same row whose
+ * edges touch or overlap are merged into one wider box, which also removes
+ * the seams players could catch on. One shape and fixture definition are
+ * reused for every fixture.
+ */
+public class LevelGeometryBuilder {
+    private static final float PPM = 100f;
+    private static final float FRICTION = 5f;
+    // Gap in pixels still treated as touching when merging a row
+    private static final float SEAM_TOLERANCE = 0.5f;
+
+    // Rows bottom to top, then left to right, so each run is contiguous
+    private static final Comparator<Platform> ROW_ORDER = (a, b) -> {
+        if (a.getY() != b.getY()) return Float.compare(a.getY(), b.getY());
+        if (a.getHeight() != b.getHeight()) return Float.compare(a.getHeight(), b.getHeight());
+        return Float.compare(a.getX(), b.getX());
+    };
+
+    private final BodyDef bodyDef = new BodyDef();
+    private final FixtureDef fixtureDef = new FixtureDef();
+    private final Vector2 center = new Vector2();
+    private final Array<Platform> sorted = new Array<>();
+    private int fixtureCount;
+
+    public LevelGeometryBuilder() {
+        bodyDef.type = BodyDef.BodyType.StaticBody;
+        fixtureDef.friction = FRICTION;
+    }
+
+    /**
+     * Create the static body holding every platform
+     * @return The body, positioned at the world origin
+     */
+    public Body build(World world, Array<Platform> platforms) {
+        Body body = world.createBody(bodyDef);
+        fixtureCount = 0;
+
+        sorted.clear();
+        sorted.addAll(platforms);
+        sorted.sort(ROW_ORDER);
+
+        PolygonShape shape = new PolygonShape();
+        fixtureDef.shape = shape;
+        try {
+            int i = 0;
+            while (i < sorted.size) {
+                Platform first = sorted.get(i);
+                float left = first.getX();
+                float right = left + first.getWidth();
+                int next = i + 1;
+                while (next < sorted.size) {
+                    Platform candidate = sorted.get(next);
+                    if (candidate.getY() != first.getY() || candidate.getHeight() != first.getHeight()
+                        || candidate.getX() > right + SEAM_TOLERANCE) {
+                        break;
+                    }
+                    right = Math.max(right, candidate.getX() + candidate.getWidth());
+                    next++;
+                }
+                addBox(body, shape, left, first.getY(), right - left, first.getHeight());
+                i = next;
+            }
+        } finally {
+            fixtureDef.shape = null;
+            shape.dispose();
+            sorted.clear();
+        }
+        return body;
+    }
+
+    /**
+     * Fixtures created by the last {@link #build}; at most the platform count
+     */
+    public int getFixtureCount() {
+        return fixtureCount;
+    }
+
+    private void addBox(Body body, PolygonShape shape, float x, float y, float width, float height) {
+        center.set((x + width / 2) / PPM, (y + height / 2) / PPM);
+        shape.setAsBox(width / 2 / PPM, height / 2 / PPM, center, 0f);
+        body.createFixture(fixtureDef);
+        fixtureCount++;
+    }
+}
@@ -0,0 +1,207 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.newgame.teamtilt.levels.LevelDefinition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * One recorded attempt at a level: the local player's buttons for every tick,
+ * plus a {@link GameSimulation#stateHash()} every {@link #CHECKPOINT_INTERVAL}
+ * ticks. Feeding the buttons back through a fresh simulation of the same level
+ * reproduces the run exactly, and the checkpoints show where it stops doing so.
+ * On disk the buttons are run-length encoded, so a held direction costs three
+ * bytes however long it is held.
+ */
+public final class Replay {
+    public static final int CHECKPOINT_INTERVAL = 60;
+    private static final int MAGIC = 0x54545250; // "TTRP"
+    private static final int VERSION = 1;
+    private static final int MAX_RUN = 0xFFFF;
+
+    private final int worldIndex;
+    private final int levelIndex;
+    private byte[] buttons = new byte[1024];
+    private int tickCount = 0;
+    private final IntArray checkpoints = new IntArray();
+
+    /**
+     * @param worldIndex 1-based world number
+     * @param levelIndex 1-based level number within the world
+     */
+    public Replay(int worldIndex, int levelIndex) {
+        this.worldIndex = worldIndex;
+        this.levelIndex = levelIndex;
+    }
+
+    /**
+     * Append the buttons the simulation is about to step with
+     */
+    public void recordInput(int frameButtons) {
+        if (tickCount == buttons.length) {
+            buttons = Arrays.copyOf(buttons, buttons.length * 2);
+        }
+        buttons[tickCount++] = (byte) frameButtons;
+    }
+
+    /**
+     * Call after each recorded step; keeps a state hash every {@link #CHECKPOINT_INTERVAL} ticks
+     */
+    public void recordState(GameSimulation simulation) {
+        if (tickCount % CHECKPOINT_INTERVAL == 0) {
+            checkpoints.add(simulation.stateHash());
+        }
+    }
+
+    public int getWorldIndex() {
+        return worldIndex;
+    }
+
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Buttons recorded for a tick, as {@link InputFrame#buttons}
+     */
+    public int getButtons(int tick) {
+        return buttons[tick];
+    }
+
+    /**
+     * Expected state hash after tick {@code (checkpoint + 1) * CHECKPOINT_INTERVAL}
+     */
+    public int getCheckpoint(int checkpoint) {
+        return checkpoints.get(checkpoint);
+    }
+
+    public int getCheckpointCount() {
+        return checkpoints.size;
+    }
+
+    /**
+     * Run the recording through a fresh simulation of its level
+     * @return The first checkpoint tick whose state differs from the recording, or -1 if all match
+     */
+    public int verify(LevelDefinition level) {
+        GameSimulation simulation = new GameSimulation(level);
+        try {
+            simulation.addPlayer();
+            InputFrame input = simulation.getInput(0);
+            for (int tick = 0; tick < tickCount; tick++) {
+                input.buttons = buttons[tick];
+                simulation.step();
+                int done = tick + 1;
+                if (done % CHECKPOINT_INTERVAL == 0) {
+                    int checkpoint = done / CHECKPOINT_INTERVAL - 1;
+                    if (checkpoint < checkpoints.size && checkpoints.get(checkpoint) != simulation.stateHash()) {
+                        return done;
+                    }
+                }
+            }
+            return -1;
+        } finally {
+            simulation.dispose();
+        }
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(worldIndex);
+        data.writeShort(levelIndex);
+        data.writeInt(tickCount);
+
+        // Runs of identical buttons: button byte, then run length
+        int runs = 0;
+        for (int i = 0; i < tickCount; i = runEnd(i)) runs++;
+        data.writeInt(runs);
+        for (int i = 0; i < tickCount; ) {
+            int end = runEnd(i);
+            data.writeByte(buttons[i]);
+            data.writeShort(end - i);
+            i = end;
+        }
+
+        data.writeInt(checkpoints.size);
+        for (int i = 0; i < checkpoints.size; i++) {
+            data.writeInt(checkpoints.get(i));
+        }
+        data.flush();
+    }
+
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+        Replay replay = new Replay(data.readShort(), data.readShort());
+        int tickCount = data.readInt();
+        if (tickCount < 0) {
+            throw new IOException("Negative replay tick count: " + tickCount);
+        }
+        replay.buttons = new byte[Math.max(tickCount, 1)];
+        int runs = data.readInt();
+        for (int r = 0; r < runs; r++) {
+            byte value = data.readByte();
+            int length = data.readUnsignedShort();
+            if (replay.tickCount + length > tickCount) {
+                throw new IOException("Replay runs exceed its tick count");
+            }
+            Arrays.fill(replay.buttons, replay.tickCount, replay.tickCount + length, value);
+            replay.tickCount += length;
+        }
+        if (replay.tickCount != tickCount) {
+            throw new IOException("Replay runs cover " + replay.tickCount + " of its " + tickCount + " ticks");
+        }
+        int checkpointCount = data.readInt();
+        if (checkpointCount < 0 || checkpointCount > tickCount / CHECKPOINT_INTERVAL) {
+            throw new IOException("Replay has " + checkpointCount + " checkpoints for " + tickCount + " ticks");
+        }
+        replay.checkpoints.ensureCapacity(checkpointCount);
+        for (int i = 0; i < checkpointCount; i++) {
+            replay.checkpoints.add(data.readInt());
+        }
+        return replay;
+    }
+
+    public void save(FileHandle file) {
+        try (OutputStream out = new BufferedOutputStream(file.write(false))) {
+            write(out);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not write replay " + file.path(), e);
+        }
+    }
+
+    public static Replay load(FileHandle file) {
+        try (InputStream in = new BufferedInputStream(file.read())) {
+            return read(in);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not read replay " + file.path(), e);
+        }
+    }
+
+    private int runEnd(int start) {
+        int end = start + 1;
+        while (end < tickCount && buttons[end] == buttons[start] && end - start < MAX_RUN) end++;
+        return end;
+    }
+}
@@ -0,0 +1,56 @@
+package com.newgame.teamtilt.simulation;
+
+/**
+ * What the renderer needs from one simulation step: sprite positions for the
+ * step and the one before it, so frames can be interpolated between them.
+ * Filled by the simulation thread and handed over whole by
+ * {@link SimulationThread}; once published it is never written again until
+ * the renderer gives it back.
+ */
+public final class SimulationSnapshot {
+    public static final int LOCAL = 0;
+    public static final int REMOTE = 1;
+    public static final int GHOST = 2;
+
+    public long tick = -1;
+    // System.nanoTime() the step was scheduled for
+    public long stepNanos;
+    public boolean levelComplete;
+    public int count;
+    // Centres in pixels, indexed 0..count-1
+    public final float[] x, y, previousX, previousY;
+    public final int[] kind;
+
+    public SimulationSnapshot(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        kind = new int[capacity];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Add a sprite; ignored once the snapshot is full
+     */
+    public void add(int spriteKind, float previousX, float previousY, float x, float y) {
+        if (count == kind.length) return;
+        this.kind[count] = spriteKind;
+        this.previousX[count] = previousX;
+        this.previousY[count] = previousY;
+        this.x[count] = x;
+        this.y[count] = y;
+        count++;
+    }
+
+    public float getInterpolatedX(int index, float alpha) {
+        return previousX[index] + (x[index] - previousX[index]) * alpha;
+    }
+
+    public float getInterpolatedY(int index, float alpha) {
+        return previousY[index] + (y[index] - previousY[index]) * alpha;
+    }
+}
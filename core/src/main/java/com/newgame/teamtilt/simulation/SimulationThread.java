@@ -0,0 +1,179 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs fixed simulation steps on a thread of its own, so a slow frame on the
+ * render thread no longer delays physics. The render thread hands input over
+ * through an {@link InputQueue} and reads back {@link SimulationSnapshot}s.
+ * Snapshots are swapped through a single exchange slot: the simulation fills
+ * its back buffer and swaps it in, the renderer swaps its front buffer for the
+ * newer one. Neither side ever waits for the other or sees a half-written
+ * snapshot, and nothing is allocated per step.
+ */
+public final class SimulationThread implements Runnable {
+    /**
+     * The per-step work, called on the simulation thread only
+     */
+    public interface Stepper {
+        /**
+         * Advance by one fixed step
+         */
+        void step();
+
+        /**
+         * Describe the state after the last step for the renderer, including its tick
+         */
+        void capture(SimulationSnapshot out);
+    }
+
+    private static final long STEP_NANOS = Math.round(GameSimulation.TIME_STEP * 1_000_000_000d);
+    // Same catch-up limits as the render-thread loop in GameScreen
+    private static final int MAX_STEPS_PER_WAKE = 5;
+    private static final int SNAPSHOT_CAPACITY = 32;
+    private static final int INPUT_CAPACITY = 64;
+
+    private final Stepper stepper;
+    private final InputQueue input = new InputQueue(INPUT_CAPACITY);
+    // Owned by the simulation thread, shared, and owned by the renderer
+    private SimulationSnapshot back = new SimulationSnapshot(SNAPSHOT_CAPACITY);
+    private final AtomicReference<SimulationSnapshot> exchange = new AtomicReference<>(new SimulationSnapshot(SNAPSHOT_CAPACITY));
+    private SimulationSnapshot front = new SimulationSnapshot(SNAPSHOT_CAPACITY);
+    // Movement buttons carry over between ticks; jumps are consumed by one
+    private int heldButtons = 0;
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private Thread thread;
+
+    public SimulationThread(Stepper stepper) {
+        this.stepper = stepper;
+    }
+
+    /**
+     * Publish the current state and start stepping; call from the render thread
+     */
+    public void start() {
+        // Nothing else touches the snapshots yet, so the first one can be filled in place
+        SimulationSnapshot initial = exchange.get();
+        initial.clear();
+        stepper.capture(initial);
+        initial.stepNanos = System.nanoTime();
+        running = true;
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop stepping and wait for the thread to finish its current step. Does not give up
+     * waiting, since the caller frees the world the thread steps as soon as this returns.
+     */
+    public void stop() {
+        running = false;
+        if (thread == null) return;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        thread = null;
+    }
+
+    public boolean isStarted() {
+        return thread != null;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Render thread: queue the buttons held this frame
+     */
+    public void offerInput(int buttons) {
+        input.offer(buttons);
+    }
+
+    /**
+     * Simulation thread: the buttons for the next step. Held movement is the most recent
+     * offered; a jump offered in any frame since the last step is kept.
+     */
+    public void pollInput(InputFrame out) {
+        int jump = 0;
+        while (!input.isEmpty()) {
+            int buttons = input.poll();
+            heldButtons = buttons & ~InputFrame.JUMP;
+            jump |= buttons & InputFrame.JUMP;
+        }
+        out.buttons = heldButtons | jump;
+    }
+
+    /**
+     * Render thread: the newest published snapshot. It stays valid and unchanged until the
+     * next call.
+     */
+    public SimulationSnapshot acquire() {
+        if (exchange.get().tick > front.tick) {
+            front = exchange.getAndSet(front);
+        }
+        return front;
+    }
+
+    /**
+     * Fraction of a step since the snapshot's step, for interpolating between its two positions
+     */
+    public static float alpha(SimulationSnapshot snapshot) {
+        float alpha = (System.nanoTime() - snapshot.stepNanos) / (float) STEP_NANOS;
+        return Math.max(0f, Math.min(alpha, 1f));
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                if (paused) {
+                    next = now + STEP_NANOS;
+                    continue;
+                }
+                int steps = 0;
+                while (now >= next && steps < MAX_STEPS_PER_WAKE && running) {
+                    stepper.step();
+                    next += STEP_NANOS;
+                    steps++;
+                }
+                publish(next - STEP_NANOS);
+                if (now >= next) {
+                    // Too far behind: drop the backlog instead of spiralling
+                    next = now + STEP_NANOS;
+                }
+            }
+        } catch (Throwable t) {
+            // Surface the failure on the render thread like any other crash
+            Gdx.app.postRunnable(() -> {
+                throw new GdxRuntimeException("Simulation thread failed", t);
+            });
+        }
+    }
+
+    private void publish(long stepNanos) {
+        back.clear();
+        stepper.capture(back);
+        back.stepNanos = stepNanos;
+        back = exchange.getAndSet(back);
+    }
+}
@@ -0,0 +1,234 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over axis-aligned boxes in pixels. Each item is listed in every
+ * cell its box touches, so a range query only visits the cells under the range
+ * and its cost follows what is nearby rather than the size of the level.
+ * Moving items are updated in place and only re-listed when they cross into
+ * other cells. Queries fill a caller-owned array and allocate nothing.
+ */
+public class SpatialHash<T> {
+    /**
+     * Receives each occupied cell from {@link #visitCells}
+     */
+    public interface CellVisitor {
+        /**
+         * @param x Left edge of the cell in pixels
+         * @param y Bottom edge of the cell in pixels
+         * @param entries Number of entries listed in the cell
+         */
+        void cell(float x, float y, float size, int entries);
+    }
+
+    private final float cellSize;
+    private final IntMap<IntArray> cells = new IntMap<>();
+    // Indexed by id; null for removed ids waiting in freeIds
+    private final Array<T> items = new Array<>();
+    private final IntArray freeIds = new IntArray();
+    private int count = 0;
+    // minX, minY, maxX, maxY per item id
+    private float[] boxes = new float[64];
+    // Last query that reported each item, so items spanning cells are reported once
+    private int[] marks = new int[16];
+    private int queryStamp = 0;
+    // Occupied cell range; queries never walk past it
+    private int minCellX = Integer.MAX_VALUE, minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE, maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * @param cellSize Cell edge in pixels; roughly the size of a typical item works well
+     */
+    public SpatialHash(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @param x Left edge in pixels
+     * @param y Bottom edge in pixels
+     * @return Id of the new entry
+     */
+    public int add(T item, float x, float y, float width, float height) {
+        int id;
+        if (freeIds.size > 0) {
+            id = freeIds.pop();
+            items.set(id, item);
+        } else {
+            id = items.size;
+            items.add(item);
+            if (boxes.length < (id + 1) * 4) {
+                boxes = Arrays.copyOf(boxes, boxes.length * 2);
+            }
+            if (marks.length < id + 1) {
+                marks = Arrays.copyOf(marks, marks.length * 2);
+            }
+        }
+        count++;
+        marks[id] = queryStamp;
+        setBox(id, x, y, width, height);
+        link(id);
+        return id;
+    }
+
+    /**
+     * Move an entry; cheap when it stays within the same cells
+     */
+    public void update(int id, float x, float y, float width, float height) {
+        int box = id * 4;
+        boolean sameCells = cell(boxes[box]) == cell(x) && cell(boxes[box + 1]) == cell(y)
+            && cell(boxes[box + 2]) == cell(x + width) && cell(boxes[box + 3]) == cell(y + height);
+        if (sameCells) {
+            setBox(id, x, y, width, height);
+            return;
+        }
+        unlink(id);
+        setBox(id, x, y, width, height);
+        link(id);
+    }
+
+    public void remove(int id) {
+        if (items.get(id) == null) return;
+        unlink(id);
+        items.set(id, null);
+        freeIds.add(id);
+        count--;
+    }
+
+    public T get(int id) {
+        return items.get(id);
+    }
+
+    /**
+     * Add every item whose box overlaps the given area to {@code out}, each once
+     * @return out
+     */
+    public Array<T> query(float x, float y, float width, float height, Array<T> out) {
+        if (count == 0) return out;
+        float right = x + width, top = y + height;
+        int stamp = ++queryStamp;
+        int fromX = Math.max(cell(x), minCellX), toX = Math.min(cell(right), maxCellX);
+        int fromY = Math.max(cell(y), minCellY), toY = Math.min(cell(top), maxCellY);
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                IntArray ids = cells.get(key(cx, cy));
+                if (ids == null) continue;
+                for (int i = 0; i < ids.size; i++) {
+                    int id = ids.items[i];
+                    if (marks[id] == stamp) continue;
+                    marks[id] = stamp;
+                    int box = id * 4;
+                    if (boxes[box] < right && boxes[box + 2] > x && boxes[box + 1] < top && boxes[box + 3] > y) {
+                        out.add(items.get(id));
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Add every item whose box contains the given point to {@code out}
+     * @return out
+     */
+    public Array<T> queryPoint(float x, float y, Array<T> out) {
+        if (count == 0) return out;
+        IntArray ids = cells.get(key(cell(x), cell(y)));
+        if (ids == null) return out;
+        for (int i = 0; i < ids.size; i++) {
+            int box = ids.items[i] * 4;
+            if (boxes[box] <= x && boxes[box + 2] >= x && boxes[box + 1] <= y && boxes[box + 3] >= y) {
+                out.add(items.get(ids.items[i]));
+            }
+        }
+        return out;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Report every cell that currently lists at least one entry; for debug drawing
+     */
+    public void visitCells(CellVisitor visitor) {
+        for (IntMap.Entry<IntArray> entry : cells) {
+            if (entry.value.size == 0) continue;
+            // Undo key(): high half is x, low half is y, both sign-extended
+            int cellX = entry.key >> 16;
+            int cellY = (short) entry.key;
+            visitor.cell(cellX * cellSize, cellY * cellSize, cellSize, entry.value.size);
+        }
+    }
+
+    public void clear() {
+        cells.clear();
+        items.clear();
+        freeIds.clear();
+        count = 0;
+        minCellX = minCellY = Integer.MAX_VALUE;
+        maxCellX = maxCellY = Integer.MIN_VALUE;
+    }
+
+    private void setBox(int id, float x, float y, float width, float height) {
+        int box = id * 4;
+        boxes[box] = x;
+        boxes[box + 1] = y;
+        boxes[box + 2] = x + width;
+        boxes[box + 3] = y + height;
+    }
+
+    /**
+     * List the id in every cell its box touches
+     */
+    private void link(int id) {
+        int box = id * 4;
+        int fromX = cell(boxes[box]), toX = cell(boxes[box + 2]);
+        int fromY = cell(boxes[box + 1]), toY = cell(boxes[box + 3]);
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                int key = key(cx, cy);
+                IntArray ids = cells.get(key);
+                if (ids == null) {
+                    ids = new IntArray(4);
+                    cells.put(key, ids);
+                }
+                ids.add(id);
+            }
+        }
+        minCellX = Math.min(minCellX, fromX);
+        minCellY = Math.min(minCellY, fromY);
+        maxCellX = Math.max(maxCellX, toX);
+        maxCellY = Math.max(maxCellY, toY);
+    }
+
+    /**
+     * Drop the id from the cells it is listed in; emptied cell lists are kept for reuse
+     */
+    private void unlink(int id) {
+        int box = id * 4;
+        int fromX = cell(boxes[box]), toX = cell(boxes[box + 2]);
+        int fromY = cell(boxes[box + 1]), toY = cell(boxes[box + 3]);
+        for (int cx = fromX; cx <= toX; cx++) {
+            for (int cy = fromY; cy <= toY; cy++) {
+                IntArray ids = cells.get(key(cx, cy));
+                if (ids != null) {
+                    ids.removeValue(id);
+                }
+            }
+        }
+    }
+
+    private int cell(float coordinate) {
+        return MathUtils.floor(coordinate / cellSize);
+    }
+
+    private static int key(int cellX, int cellY) {
+        return (cellX << 16) | (cellY & 0xFFFF);
+    }
+}
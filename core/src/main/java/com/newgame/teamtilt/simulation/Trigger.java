@@ -0,0 +1,22 @@
+package com.newgame.teamtilt.simulation;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Area of the level that reacts when a player overlaps it
+ */
+public class Trigger {
+    public enum Type {
+        // Finishes the level
+        DOOR
+    }
+
+    public final Type type;
+    // Pixels
+    public final Rectangle area;
+
+    public Trigger(Type type, float x, float y, float width, float height) {
+        this.type = type;
+        this.area = new Rectangle(x, y, width, height);
+    }
+}
@@ -0,0 +1,258 @@
+package com.newgame.teamtilt.ui;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.ChainShape;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.EdgeShape;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.Transform;
+import com.badlogic.gdx.physics.box2d.WorldManifold;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import com.newgame.teamtilt.simulation.SpatialHash;
+
+/**
+ * Developer overlay drawn over the world: Box2D fixtures coloured by sleep
+ * state, contact points, occupied spatial index cells, a frame time graph and
+ * network figures. Off by default; nothing is created or walked until it is
+ * first switched on. All shapes go through one ShapeRenderer batch in world
+ * space, with the graph and text pinned to the corner of the view.
+ */
+public class DebugOverlay implements SpatialHash.CellVisitor, Disposable {
+    private static final float PPM = 100f;
+    private static final int GRAPH_FRAMES = 120;
+    // Graph scale: the full graph height is this many milliseconds
+    private static final float GRAPH_MILLIS = 50f;
+    private static final float GRAPH_HEIGHT = 60f;
+    private static final float MARGIN = 10f;
+    private static final float TARGET_FRAME_MILLIS = 1000f / 60f;
+
+    private static final Color AWAKE_COLOR = new Color(0.2f, 0.9f, 0.3f, 1f);
+    private static final Color ASLEEP_COLOR = new Color(0.5f, 0.5f, 0.5f, 1f);
+    private static final Color STATIC_COLOR = new Color(0.3f, 0.5f, 0.9f, 1f);
+    private static final Color CONTACT_COLOR = new Color(1f, 0.2f, 0.2f, 1f);
+    private static final Color CELL_COLOR = new Color(1f, 0.8f, 0.2f, 1f);
+    private static final Color GRAPH_COLOR = new Color(0.2f, 0.8f, 1f, 1f);
+    private static final Color SLOW_FRAME_COLOR = new Color(1f, 0.3f, 0.2f, 1f);
+
+    private boolean enabled = false;
+    private ShapeRenderer shapes;
+    private BitmapFont font;
+
+    private final float[] frameMillis = new float[GRAPH_FRAMES];
+    private int frameHead = 0;
+
+    // Network figures, refreshed by the screen while the overlay is on
+    private long bytesSent, bytesReceived;
+    private long lastBytesSent, lastBytesReceived;
+    private float rateTimer = 0f;
+    private int sentPerSecond, receivedPerSecond;
+    private int interpolationDelay, pendingInputs, corrections;
+    private boolean hasNetwork = false;
+
+    private final Array<Body> bodies = new Array<>();
+    private final Vector2 vertex = new Vector2();
+    private final Vector2 previous = new Vector2();
+    private final Vector2 first = new Vector2();
+    private final StringBuilder text = new StringBuilder();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void toggle() {
+        enabled = !enabled;
+        if (enabled && shapes == null) {
+            shapes = new ShapeRenderer();
+            font = new BitmapFont();
+        }
+    }
+
+    /**
+     * Latest network figures; call each frame while enabled
+     */
+    public void setNetworkStats(long bytesSent, long bytesReceived, float interpolationDelay,
+                                int pendingInputs, int corrections) {
+        this.hasNetwork = true;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.interpolationDelay = Math.round(interpolationDelay);
+        this.pendingInputs = pendingInputs;
+        this.corrections = corrections;
+    }
+
+    /**
+     * Draw the overlay; does nothing while disabled
+     * @param projection World camera projection, in pixels
+     * @param view Visible world area in pixels
+     */
+    public void render(GameSimulation simulation, Matrix4 projection, Rectangle view, SpriteBatch batch, float delta) {
+        if (!enabled) return;
+        recordFrame(delta);
+
+        shapes.setProjectionMatrix(projection);
+        shapes.begin(ShapeRenderer.ShapeType.Line);
+
+        shapes.setColor(CELL_COLOR);
+        simulation.visitIndexCells(this);
+
+        simulation.getWorld().getBodies(bodies);
+        for (Body body : bodies) {
+            if (body.getType() == BodyDef.BodyType.StaticBody) {
+                shapes.setColor(STATIC_COLOR);
+            } else {
+                shapes.setColor(body.isAwake() ? AWAKE_COLOR : ASLEEP_COLOR);
+            }
+            Transform transform = body.getTransform();
+            for (Fixture fixture : body.getFixtureList()) {
+                drawShape(fixture.getShape(), transform);
+            }
+        }
+        bodies.clear();
+
+        shapes.set(ShapeRenderer.ShapeType.Filled);
+        shapes.setColor(CONTACT_COLOR);
+        for (Contact contact : simulation.getWorld().getContactList()) {
+            if (!contact.isTouching()) continue;
+            WorldManifold manifold = contact.getWorldManifold();
+            Vector2[] points = manifold.getPoints();
+            for (int i = 0; i < manifold.getNumberOfContactPoints(); i++) {
+                shapes.circle(points[i].x * PPM, points[i].y * PPM, 3f, 8);
+            }
+        }
+
+        drawGraph(view);
+        shapes.end();
+
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        drawText(simulation, view, batch);
+        batch.end();
+    }
+
+    @Override
+    public void cell(float x, float y, float size, int entries) {
+        shapes.rect(x, y, size, size);
+    }
+
+    private void recordFrame(float delta) {
+        frameMillis[frameHead] = delta * 1000f;
+        frameHead = (frameHead + 1) % GRAPH_FRAMES;
+
+        rateTimer += delta;
+        if (rateTimer >= 1f) {
+            sentPerSecond = Math.round((bytesSent - lastBytesSent) / rateTimer);
+            receivedPerSecond = Math.round((bytesReceived - lastBytesReceived) / rateTimer);
+            lastBytesSent = bytesSent;
+            lastBytesReceived = bytesReceived;
+            rateTimer = 0f;
+        }
+    }
+
+    private void drawShape(Shape shape, Transform transform) {
+        switch (shape.getType()) {
+            case Polygon: {
+                PolygonShape polygon = (PolygonShape) shape;
+                int count = polygon.getVertexCount();
+                for (int i = 0; i <= count; i++) {
+                    polygon.getVertex(i % count, vertex);
+                    transform.mul(vertex).scl(PPM);
+                    if (i > 0) shapes.line(previous, vertex);
+                    previous.set(vertex);
+                }
+                break;
+            }
+            case Circle: {
+                CircleShape circle = (CircleShape) shape;
+                vertex.set(circle.getPosition());
+                transform.mul(vertex).scl(PPM);
+                shapes.circle(vertex.x, vertex.y, circle.getRadius() * PPM, 16);
+                break;
+            }
+            case Edge: {
+                EdgeShape edge = (EdgeShape) shape;
+                edge.getVertex1(previous);
+                edge.getVertex2(vertex);
+                transform.mul(previous).scl(PPM);
+                transform.mul(vertex).scl(PPM);
+                shapes.line(previous, vertex);
+                break;
+            }
+            case Chain: {
+                ChainShape chain = (ChainShape) shape;
+                for (int i = 0; i < chain.getVertexCount(); i++) {
+                    chain.getVertex(i, vertex);
+                    transform.mul(vertex).scl(PPM);
+                    if (i == 0) first.set(vertex); else shapes.line(previous, vertex);
+                    previous.set(vertex);
+                }
+                if (chain.isLooped()) shapes.line(previous, first);
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    /**
+     * One bar per recent frame in the bottom-left corner of the view; bars over 60 fps budget are red
+     */
+    private void drawGraph(Rectangle view) {
+        float left = view.x + MARGIN, bottom = view.y + MARGIN;
+        for (int i = 0; i < GRAPH_FRAMES; i++) {
+            float millis = frameMillis[(frameHead + i) % GRAPH_FRAMES];
+            shapes.setColor(millis > TARGET_FRAME_MILLIS * 1.1f ? SLOW_FRAME_COLOR : GRAPH_COLOR);
+            shapes.rect(left + i * 2f, bottom, 1.5f, Math.min(millis / GRAPH_MILLIS, 1f) * GRAPH_HEIGHT);
+        }
+        // 60 fps line
+        shapes.setColor(Color.WHITE);
+        float target = bottom + TARGET_FRAME_MILLIS / GRAPH_MILLIS * GRAPH_HEIGHT;
+        shapes.rectLine(left, target, left + GRAPH_FRAMES * 2f, target, 1f);
+    }
+
+    private void drawText(GameSimulation simulation, Rectangle view, SpriteBatch batch) {
+        float left = view.x + MARGIN;
+        float top = view.y + view.height - MARGIN;
+        int awake = 0;
+        simulation.getWorld().getBodies(bodies);
+        for (Body body : bodies) {
+            if (body.isAwake()) awake++;
+        }
+        bodies.clear();
+
+        text.setLength(0);
+        text.append("bodies ").append(simulation.getWorld().getBodyCount())
+            .append(" (awake ").append(awake).append(")  contacts ").append(simulation.getWorld().getContactCount())
+            .append("  tick ").append(simulation.getTick());
+        font.draw(batch, text, left, top);
+
+        if (hasNetwork) {
+            text.setLength(0);
+            text.append("net out ").append(sentPerSecond).append(" B/s  in ").append(receivedPerSecond)
+                .append(" B/s  interp ").append(interpolationDelay).append(" ms  unacked inputs ").append(pendingInputs)
+                .append("  corrections ").append(corrections);
+            font.draw(batch, text, left, top - 20f);
+        }
+        hasNetwork = false;
+    }
+
+    @Override
+    public void dispose() {
+        if (shapes != null) {
+            shapes.dispose();
+            font.dispose();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.newgame.teamtilt.ui;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Disposable;
+import com.newgame.teamtilt.metrics.Gauge;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.metrics.MetricNames;
+import com.newgame.teamtilt.metrics.Metrics;
+
+/**
+ * Small text readout of frame time percentiles and a few key gauges in the top
+ * right corner of the screen. Figures cover the last second rather than the
+ * whole session, so spikes show up while they happen. Off by default; its
+ * batch and font are created when first shown.
+ */
+public class PerformanceHud implements Disposable {
+    private static final float REFRESH_SECONDS = 1f;
+    private static final float MARGIN = 10f;
+
+    private final Histogram frameTime = Metrics.timer(MetricNames.FRAME_TIME);
+    private final Histogram stepTime = Metrics.timer(MetricNames.PHYSICS_STEP_TIME);
+    private final Gauge drawCalls = Metrics.gauge(MetricNames.DRAW_CALLS);
+    private final Gauge bodies = Metrics.gauge(MetricNames.PHYSICS_BODIES);
+    private final Gauge bytesSent = Metrics.gauge(MetricNames.NET_BYTES_SENT);
+    private final Gauge bytesReceived = Metrics.gauge(MetricNames.NET_BYTES_RECEIVED);
+
+    // Bucket counts at the start of the current window
+    private final long[] frameBaseline = new long[frameTime.getBucketCount()];
+    private final long[] stepBaseline = new long[stepTime.getBucketCount()];
+    private double lastBytesSent, lastBytesReceived;
+    private float windowTimer = 0f;
+
+    private boolean enabled = false;
+    private SpriteBatch batch;
+    private BitmapFont font;
+    private final StringBuilder text = new StringBuilder();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void toggle() {
+        enabled = !enabled;
+        if (enabled && batch == null) {
+            batch = new SpriteBatch();
+            font = new BitmapFont();
+        }
+        if (enabled) {
+            startWindow();
+            text.setLength(0);
+        }
+    }
+
+    /**
+     * Draw the readout in screen space; does nothing while disabled
+     */
+    public void render(float delta) {
+        if (!enabled) return;
+
+        windowTimer += delta;
+        if (windowTimer >= REFRESH_SECONDS || text.length() == 0) {
+            refreshText();
+            startWindow();
+        }
+
+        batch.getProjectionMatrix().setToOrtho2D(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        batch.begin();
+        font.draw(batch, text, Gdx.graphics.getWidth() - 260f, Gdx.graphics.getHeight() - MARGIN);
+        batch.end();
+    }
+
+    private void startWindow() {
+        frameTime.copyCounts(frameBaseline);
+        stepTime.copyCounts(stepBaseline);
+        lastBytesSent = bytesSent.get();
+        lastBytesReceived = bytesReceived.get();
+        windowTimer = 0f;
+    }
+
+    private void refreshText() {
+        float seconds = Math.max(windowTimer, 0.001f);
+        text.setLength(0);
+        text.append("frame p50 ");
+        appendMillis(frameTime.percentileSince(0.5f, frameBaseline));
+        text.append("  p99 ");
+        appendMillis(frameTime.percentileSince(0.99f, frameBaseline));
+        text.append("\nstep p99 ");
+        appendMillis(stepTime.percentileSince(0.99f, stepBaseline));
+        text.append("  bodies ").append((int) bodies.get());
+        text.append("\ndraw calls ").append((int) drawCalls.get());
+        text.append("\nnet ").append(Math.round((bytesSent.get() - lastBytesSent) / seconds))
+            .append(" / ").append(Math.round((bytesReceived.get() - lastBytesReceived) / seconds)).append(" B/s");
+    }
+
+    /**
+     * One decimal place without going through Float.toString
+     */
+    private void appendMillis(float millis) {
+        int tenths = Math.round(millis * 10f);
+        text.append(tenths / 10).append('.').append(tenths % 10).append(" ms");
+    }
+
+    @Override
+    public void dispose() {
+        if (batch != null) {
+            batch.dispose();
+            font.dispose();
+        }
+    }
+}
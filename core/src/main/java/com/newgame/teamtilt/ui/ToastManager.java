@@ -9,6 +9,9 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Timer;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.metrics.MetricNames;
+import com.newgame.teamtilt.metrics.Metrics;
 import com.newgame.teamtilt.multiplayer.MultiplayerService;
 
 /**
@@ -20,21 +23,22 @@ public class ToastManager implements Disposable {
     private ShapeRenderer shapeRenderer;
     private BitmapFont font;
     private Array<ToastMessage> activeToasts = new Array<>();
+    private static final Histogram RENDER_TIME = Metrics.timer(MetricNames.TOAST_TIME);
+    // Reused every frame for measuring toast text
+    private final GlyphLayout layout = new GlyphLayout();
+    private static final Color SUCCESS_COLOR = new Color(0.2f, 0.8f, 0.2f, 1.0f); // Green
+    private static final Color ERROR_COLOR = new Color(0.8f, 0.2f, 0.2f, 1.0f); // Red
+    private static final Color WARNING_COLOR = new Color(0.8f, 0.6f, 0.2f, 1.0f); // Orange
+    private static final Color INFO_COLOR = new Color(0.2f, 0.4f, 0.8f, 1.0f); // Blue
     private float screenWidth, screenHeight;
     
-    public ToastManager() {
+    /**
+     * @param font Font for toast text; owned by the caller
+     */
+    public ToastManager(BitmapFont font) {
         this.batch = new SpriteBatch();
         this.shapeRenderer = new ShapeRenderer();
-        
-        // Create font for toast messages
-        com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator generator = 
-            new com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator(Gdx.files.internal("fonts/Matemasie-Regular.ttf"));
-        com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter parameter = 
-            new com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter();
-        parameter.size = 24;
-        parameter.color = Color.WHITE;
-        this.font = generator.generateFont(parameter);
-        generator.dispose();
+        this.font = font;
         
         updateScreenSize();
     }
@@ -59,6 +63,7 @@ public class ToastManager implements Disposable {
     
     public void render() {
         if (activeToasts.size == 0) return;
+        long start = System.nanoTime();
         
         // Update screen size if changed
         if (screenWidth != Gdx.graphics.getWidth() || screenHeight != Gdx.graphics.getHeight()) {
@@ -73,11 +78,11 @@ public class ToastManager implements Disposable {
             renderToast(toast, yOffset);
             yOffset -= 60; // Space between toasts
         }
+        RENDER_TIME.recordSince(start);
     }
     
     private void renderToast(ToastMessage toast, float y) {
         // Calculate text dimensions
-        GlyphLayout layout = new GlyphLayout();
         layout.setText(font, toast.message);
         
         float padding = 20;
@@ -103,14 +108,14 @@ public class ToastManager implements Disposable {
     private Color getBackgroundColor(MultiplayerService.ToastType type) {
         switch (type) {
             case SUCCESS:
-                return new Color(0.2f, 0.8f, 0.2f, 1.0f); // Green
+                return SUCCESS_COLOR;
             case ERROR:
-                return new Color(0.8f, 0.2f, 0.2f, 1.0f); // Red
+                return ERROR_COLOR;
             case WARNING:
-                return new Color(0.8f, 0.6f, 0.2f, 1.0f); // Orange
+                return WARNING_COLOR;
             case INFO:
             default:
-                return new Color(0.2f, 0.4f, 0.8f, 1.0f); // Blue
+                return INFO_COLOR;
         }
     }
     
@@ -118,7 +123,6 @@ public class ToastManager implements Disposable {
     public void dispose() {
         batch.dispose();
         shapeRenderer.dispose();
-        font.dispose();
     }
     
     private static class ToastMessage {
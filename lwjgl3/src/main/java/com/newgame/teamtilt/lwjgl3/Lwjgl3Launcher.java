@@ -3,16 +3,41 @@ package com.newgame.teamtilt.lwjgl3;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.newgame.teamtilt.TeamTiltMain;
+import com.newgame.teamtilt.multiplayer.net.Protocol;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        createApplication(args);
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new TeamTiltMain(), getDefaultConfiguration());
+    private static Lwjgl3Application createApplication(String[] args) {
+        // "--server host[:port]" plays online through a relay server, e.g. one started with :server:run.
+        // -Dteamtilt.server=host[:port] does the same and survives the macOS JVM restart above.
+        String server = System.getProperty("teamtilt.server");
+        // "--replay file.ttr" (or -Dteamtilt.replay) plays back a recorded level attempt.
+        String replay = System.getProperty("teamtilt.replay");
+        // "--sim-thread" (or -Dteamtilt.simThread=true) steps solo levels on their own thread.
+        boolean simThread = Boolean.getBoolean("teamtilt.simThread");
+        for (String arg : args) {
+            if (arg.equals("--sim-thread")) simThread = true;
+        }
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("--server")) server = args[i + 1];
+            if (args[i].equals("--replay")) replay = args[i + 1];
+        }
+        String serverHost = null;
+        int serverPort = Protocol.DEFAULT_PORT;
+        if (server != null) {
+            String[] parts = server.split(":");
+            serverHost = parts[0];
+            if (parts.length > 1) serverPort = Integer.parseInt(parts[1]);
+        }
+        TeamTiltMain game = new TeamTiltMain(serverHost, serverPort);
+        game.setReplayPath(replay);
+        game.setThreadedSimulation(simThread);
+        return new Lwjgl3Application(game, getDefaultConfiguration());
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
@@ -0,0 +1,28 @@
+package com.newgame.teamtilt.server;
+
+import com.newgame.teamtilt.multiplayer.net.PeerChannel;
+
+import java.net.SocketAddress;
+
+/**
+ * A connected client as seen by the relay
+ */
+class Peer {
+    final SocketAddress address;
+    final PeerChannel channel = new PeerChannel();
+    String id;
+    String name;
+    Room room;
+    // Index within the room, used in place of the id in player data
+    int slot = -1;
+    long lastHeard;
+
+    Peer(SocketAddress address, long now) {
+        this.address = address;
+        this.lastHeard = now;
+    }
+
+    boolean isSignedIn() {
+        return id != null;
+    }
+}
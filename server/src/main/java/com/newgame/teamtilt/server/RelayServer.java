@@ -0,0 +1,669 @@
+package com.newgame.teamtilt.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.metrics.MetricNames;
+import com.newgame.teamtilt.metrics.Metrics;
+import com.newgame.teamtilt.multiplayer.net.PeerChannel;
+import com.newgame.teamtilt.multiplayer.net.PlayerDataCodec;
+import com.newgame.teamtilt.multiplayer.net.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Headless UDP server that owns rooms and runs their levels.
+ * It speaks the same two-channel protocol as {@link com.newgame.teamtilt.multiplayer.net.UdpMultiplayerService}:
+ * room events are reliable and ordered, everything per tick is unreliable.
+ * Once a member starts a level the room gets a {@link RoomSimulation} of it,
+ * stepped with the members' inputs by a {@link RoomScheduler} shard, and the
+ * server sends each member one snapshot per tick. A room whose members all
+ * stop sending input sleeps until one of them is back. Before a level starts,
+ * player data is relayed as-is. Optional packet loss and added latency turn a
+ * localhost run into a rough model of a mobile network.
+ * <p>
+ * The selector thread owns peers and the room table; room members and
+ * simulations are shared with the shards and guarded by the room.
+ */
+public class RelayServer {
+    private static final long SELECT_MILLIS = 20;
+    private static final long TIMEOUT_MILLIS = 10000;
+    private static final int MAX_ROOM_SIZE = PlayerDataCodec.MAX_SLOTS;
+    public static final int DEFAULT_TICK_RATE = 30;
+    // Slower rates would owe more input frames per tick than a room buffers
+    public static final int MIN_TICK_RATE = 2;
+    // A running level with no input from anyone for this long stops stepping
+    private static final long IDLE_NANOS = 1_000_000_000L;
+    private static final long STATS_MILLIS = 60_000;
+
+    /**
+     * A packet held back to simulate latency
+     */
+    private static class DelayedPacket implements Comparable<DelayedPacket> {
+        final long due;
+        final SocketAddress to;
+        final ByteBuffer packet;
+
+        DelayedPacket(long due, SocketAddress to, ByteBuffer packet) {
+            this.due = due;
+            this.to = to;
+            this.packet = packet;
+        }
+
+        @Override
+        public int compareTo(DelayedPacket other) {
+            return Long.compare(due, other.due);
+        }
+    }
+
+    private final InetSocketAddress bindAddress;
+    private final float lossRate;
+    private final int latencyMillis;
+    private final int jitterMillis;
+    private final Random random = new Random();
+    // Ticks every room; one thread per core for any number of rooms
+    private final RoomScheduler scheduler;
+    // Rooms whose level a shard saw completed, for the selector thread to announce
+    private final ConcurrentLinkedQueue<Room> completed = new ConcurrentLinkedQueue<>();
+
+    private final ObjectMap<SocketAddress, Peer> peers = new ObjectMap<>();
+    private final ObjectMap<String, Room> rooms = new ObjectMap<>();
+    // Guarded by itself; shards add to it too
+    private final PriorityQueue<DelayedPacket> delayed = new PriorityQueue<>();
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(Protocol.MAX_PACKET_SIZE);
+    private final ByteBuffer body = ByteBuffer.allocate(Protocol.MAX_PACKET_SIZE);
+    private final Array<ByteBuffer> delivered = new Array<>();
+    private final Array<ByteBuffer> resends = new Array<>();
+    private final Array<Peer> dropped = new Array<>();
+    private final Writer writer = new Writer();
+    private int nextPlayerId = 1;
+    private long lastStats;
+    // Written by the selector thread only
+    private final Histogram loopTime = Metrics.timer(MetricNames.SERVER_LOOP_TIME);
+
+    private DatagramChannel datagram;
+    private Selector selector;
+    private volatile boolean running = false;
+    private Thread thread;
+
+    /**
+     * @param lossRate Fraction of packets dropped in each direction
+     * @param latencyMillis Extra one-way delay added to every packet the server sends
+     * @param jitterMillis Random extra delay on top of the latency; may reorder packets
+     * @param tickRate Room simulation ticks, and so state updates, per second; at least {@link #MIN_TICK_RATE}
+     */
+    public RelayServer(InetSocketAddress bindAddress, float lossRate, int latencyMillis, int jitterMillis, int tickRate) {
+        if (tickRate < MIN_TICK_RATE) {
+            throw new IllegalArgumentException("Tick rate must be at least " + MIN_TICK_RATE + ", got " + tickRate);
+        }
+        this.bindAddress = bindAddress;
+        this.lossRate = lossRate;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.scheduler = new RoomScheduler(this::tick, tickRate, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = "127.0.0.1";
+        int port = Protocol.DEFAULT_PORT;
+        float loss = 0f;
+        int latency = 0, jitter = 0;
+        int tickRate = DEFAULT_TICK_RATE;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--host": host = args[i + 1]; break;
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--loss": loss = Float.parseFloat(args[i + 1]); break;
+                case "--latency": latency = Integer.parseInt(args[i + 1]); break;
+                case "--jitter": jitter = Integer.parseInt(args[i + 1]); break;
+                case "--tick-rate": tickRate = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        bootLevels();
+        RelayServer server = new RelayServer(new InetSocketAddress(host, port), loss, latency, jitter, tickRate);
+        server.open();
+        log("Listening on " + host + ":" + port + " (loss " + loss + ", latency " + latency + "+" + jitter
+            + " ms, " + tickRate + " ticks/s)");
+        server.run();
+    }
+
+    /**
+     * Load the physics natives and give level loading a file system; no libGDX backend is started.
+     * Call once before any room starts a level.
+     */
+    public static void bootLevels() {
+        Box2D.init();
+        if (Gdx.files == null) {
+            // Internal files fall back to the classpath, where the build puts levels.bin
+            Gdx.files = new HeadlessFiles();
+        }
+    }
+
+    /**
+     * Bind the socket; call before {@link #run()} or {@link #start()}
+     */
+    public void open() throws IOException {
+        datagram = DatagramChannel.open();
+        datagram.configureBlocking(false);
+        datagram.bind(bindAddress);
+        selector = Selector.open();
+        datagram.register(selector, SelectionKey.OP_READ);
+        running = true;
+        lastStats = System.currentTimeMillis();
+        scheduler.start();
+    }
+
+    /**
+     * Run the server loop on a background thread, e.g. from a load test
+     */
+    public void start() throws IOException {
+        open();
+        thread = new Thread(() -> {
+            try {
+                run();
+            } catch (IOException e) {
+                log("Server stopped: " + e.getMessage());
+            }
+        }, "RelayServer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() {
+        running = false;
+        scheduler.stop();
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int getPort() {
+        return datagram.socket().getLocalPort();
+    }
+
+    /**
+     * Blocking server loop
+     */
+    public void run() throws IOException {
+        try {
+            while (running) {
+                long now = System.currentTimeMillis();
+                long wait = SELECT_MILLIS;
+                synchronized (delayed) {
+                    DelayedPacket next = delayed.peek();
+                    if (next != null) {
+                        wait = Math.max(1, Math.min(wait, next.due - now));
+                    }
+                }
+                selector.select(wait);
+                selector.selectedKeys().clear();
+
+                long workStart = System.nanoTime();
+                now = System.currentTimeMillis();
+                receive(now);
+                flushDelayed(now);
+                maintainPeers(now);
+                maintainRooms(now);
+                loopTime.recordSince(workStart);
+            }
+        } finally {
+            scheduler.stop();
+            selector.close();
+            datagram.close();
+        }
+    }
+
+    private void receive(long now) throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from = datagram.receive(receiveBuffer);
+            if (from == null) return;
+            receiveBuffer.flip();
+            if (receiveBuffer.remaining() < Protocol.HEADER_SIZE) continue;
+            if (lossRate > 0 && random.nextFloat() < lossRate) continue;
+
+            Peer peer = peers.get(from);
+            if (peer == null) {
+                peer = new Peer(from, now);
+                peers.put(from, peer);
+            }
+            peer.lastHeard = now;
+
+            byte channel = receiveBuffer.get();
+            int sequence = receiveBuffer.getInt();
+            switch (channel) {
+                case Protocol.CHANNEL_ACK:
+                    peer.channel.acknowledge(sequence);
+                    break;
+                case Protocol.CHANNEL_UNRELIABLE:
+                    if (receiveBuffer.hasRemaining() && peer.channel.acceptUnreliable(sequence)) {
+                        receiveMessage(peer, receiveBuffer, now);
+                    }
+                    break;
+                case Protocol.CHANNEL_RELIABLE:
+                    transmit(from, PeerChannel.ack(sequence), now);
+                    delivered.clear();
+                    peer.channel.receiveReliable(sequence, receiveBuffer, delivered);
+                    for (ByteBuffer message : delivered) {
+                        receiveMessage(peer, message, now);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Handle one message, dropping it if it is short or malformed so that a bad datagram
+     * cannot take down the loop every room depends on
+     */
+    private void receiveMessage(Peer peer, ByteBuffer message, long now) throws IOException {
+        try {
+            handle(peer, message, now);
+        } catch (RuntimeException e) {
+            log("Dropped malformed message from " + peer.address + ": " + e);
+        }
+    }
+
+    private void handle(Peer peer, ByteBuffer message, long now) throws IOException {
+        byte type = message.get();
+        if (type == Protocol.HELLO) {
+            if (!peer.isSignedIn()) {
+                peer.id = "p" + nextPlayerId++;
+                peer.name = Protocol.getString(message);
+                log(peer.name + " signed in as " + peer.id + " from " + peer.address);
+            }
+            sendReliable(peer, begin(Protocol.WELCOME).putString(peer.id), now);
+            return;
+        }
+        if (type == Protocol.BYE) {
+            drop(peer, now);
+            peers.remove(peer.address);
+            return;
+        }
+        if (!peer.isSignedIn()) return;
+
+        switch (type) {
+            case Protocol.CREATE_ROOM: {
+                int maxPlayers = Math.max(1, Math.min(MAX_ROOM_SIZE, message.get()));
+                openRoom(peer, maxPlayers, now);
+                break;
+            }
+            case Protocol.JOIN_ROOM: {
+                Room room = rooms.get(Protocol.getString(message));
+                if (room != null && room == peer.room) break;
+                if (room == null || room.isFull()) {
+                    sendReliable(peer, begin(Protocol.JOIN_FAILED).putString(room == null ? "Room not found" : "Room is full"), now);
+                    break;
+                }
+                joinRoom(peer, room, now);
+                break;
+            }
+            case Protocol.LEAVE_ROOM:
+                leaveRoom(peer, now);
+                break;
+            case Protocol.MESSAGE: {
+                if (peer.room == null) break;
+                String text = Protocol.getString(message);
+                for (Peer member : peer.room.members) {
+                    if (member != peer) {
+                        sendReliable(member, begin(Protocol.MESSAGE).putString(peer.id).putString(text), now);
+                    }
+                }
+                break;
+            }
+            case Protocol.START_LEVEL: {
+                int worldIndex = message.get(), levelIndex = message.get();
+                startLevel(peer, worldIndex, levelIndex, now);
+                break;
+            }
+            case Protocol.INPUT:
+                receiveInput(peer, message);
+                break;
+            case Protocol.PLAYER_DATA: {
+                Room room = peer.room;
+                if (room == null || message.remaining() < PlayerDataCodec.MIN_SIZE) break;
+                // Stamp the sender's real slot
+                message.put(message.position(), (byte) peer.slot);
+                synchronized (room) {
+                    if (room.simulation != null) {
+                        // The server's own player data goes out instead; keep the acks in it
+                        room.simulation.receivePlayerData(peer.slot, message);
+                        break;
+                    }
+                    // No level running: relay the body as-is, type byte included
+                    message.position(message.position() - 1);
+                    for (Peer member : room.members) {
+                        if (member != peer) {
+                            transmit(member.address, member.channel.wrapUnreliable(message), now);
+                        }
+                    }
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Create a room with the peer as its host
+     */
+    Room openRoom(Peer peer, int maxPlayers, long now) throws IOException {
+        leaveRoom(peer, now);
+        String code;
+        do {
+            code = String.format("%06d", random.nextInt(1000000));
+        } while (rooms.containsKey(code));
+        Room room = new Room(code, maxPlayers);
+        rooms.put(code, room);
+        peer.slot = room.freeSlot();
+        room.members.add(peer);
+        peer.room = room;
+        log(peer.id + " created room " + code);
+        sendReliable(peer, begin(Protocol.ROOM_CREATED).putString(room.id).putString(code).put(peer.slot), now);
+        return room;
+    }
+
+    /**
+     * Add the peer to a room that has space, spawning it into the level if one is running
+     */
+    void joinRoom(Peer peer, Room room, long now) throws IOException {
+        leaveRoom(peer, now);
+        synchronized (room) {
+            peer.slot = room.freeSlot();
+            Writer joined = begin(Protocol.ROOM_JOINED).putString(room.id).putString(room.code)
+                .put(peer.slot).put(room.members.size);
+            for (Peer member : room.members) {
+                joined.putString(member.id).putString(member.name).put(room.isHost(member) ? 1 : 0).put(member.slot);
+            }
+            sendReliable(peer, joined, now);
+            for (Peer member : room.members) {
+                sendReliable(member, begin(Protocol.PLAYER_JOINED).putString(peer.id).putString(peer.name)
+                    .put(0).put(peer.slot), now);
+            }
+            room.members.add(peer);
+            peer.room = room;
+            if (room.simulation != null) {
+                room.simulation.addMember(peer.slot, peer.id);
+                // Load the level the room is already on rather than picking one
+                sendReliable(peer, levelStarted(room.simulation), now);
+            }
+        }
+        log(peer.id + " joined room " + room.code);
+    }
+
+    /**
+     * The peer started a level. Starting the room's current level only respawns the peer.
+     * Only the host picks a different level: that replaces the room's simulation with a new
+     * one holding every member, and the others are told to load it. Anyone else asking for
+     * another level is told the room's instead.
+     */
+    void startLevel(Peer peer, int worldIndex, int levelIndex, long now) throws IOException {
+        Room room = peer.room;
+        if (room == null) return;
+        synchronized (room) {
+            RoomSimulation simulation = room.simulation;
+            if (simulation != null && simulation.worldIndex == worldIndex && simulation.levelIndex == levelIndex) {
+                room.lastInput = System.nanoTime();
+                simulation.restartMember(peer.slot);
+                return;
+            }
+            if (!room.isHost(peer)) {
+                if (simulation != null) {
+                    sendReliable(peer, levelStarted(simulation), now);
+                }
+                return;
+            }
+            // Built before the old one goes, so a level that fails to load leaves the room as it was
+            RoomSimulation next = new RoomSimulation(worldIndex, levelIndex, scheduler.getPeriodNanos());
+            stopSimulation(room);
+            for (Peer member : room.members) {
+                next.addMember(member.slot, member.id);
+                if (member != peer) {
+                    sendReliable(member, levelStarted(next), now);
+                }
+            }
+            room.simulation = next;
+            room.lastInput = System.nanoTime();
+        }
+        if (room.shard < 0) {
+            scheduler.add(room);
+        }
+        log("Room " + room.code + " started level " + worldIndex + "-" + levelIndex);
+    }
+
+    private Writer levelStarted(RoomSimulation simulation) {
+        return begin(Protocol.LEVEL_STARTED).put(simulation.worldIndex).put(simulation.levelIndex);
+    }
+
+    /**
+     * Buffer an INPUT message, positioned after its type byte, for the peer's player
+     */
+    void receiveInput(Peer peer, ByteBuffer message) {
+        Room room = peer.room;
+        if (room == null) return;
+        synchronized (room) {
+            if (room.simulation != null) {
+                room.lastInput = System.nanoTime();
+                room.simulation.receiveInput(peer.slot, message);
+            }
+        }
+    }
+
+    private void leaveRoom(Peer peer, long now) throws IOException {
+        Room room = peer.room;
+        if (room == null) return;
+        synchronized (room) {
+            room.members.removeValue(peer, true);
+            if (room.simulation != null) {
+                room.simulation.removeMember(peer.slot);
+            }
+            peer.room = null;
+            peer.slot = -1;
+            if (room.members.size == 0) {
+                stopSimulation(room);
+                scheduler.remove(room);
+                rooms.remove(room.code);
+                log("Closed room " + room.code);
+                return;
+            }
+            for (Peer member : room.members) {
+                sendReliable(member, begin(Protocol.PLAYER_LEFT).putString(peer.id), now);
+            }
+        }
+    }
+
+    /**
+     * One room tick on its shard: step the level, then send every member a snapshot of its own
+     * state and everyone else's. Only unreliable packets go out here, framed in the shard's
+     * buffers, so a tick allocates nothing.
+     * @return False if the room has no level running or is asleep
+     */
+    private boolean tick(Room room, long nowNanos, ByteBuffer body, ByteBuffer packet) {
+        synchronized (room) {
+            RoomSimulation simulation = room.simulation;
+            if (simulation == null) return false;
+            if (nowNanos - room.lastInput > IDLE_NANOS) {
+                // Everyone paused or went quiet; the peers time out on their own if they are gone
+                room.asleep = true;
+                return false;
+            }
+            if (room.asleep) {
+                room.asleep = false;
+                simulation.resume();
+            }
+            try {
+                if (simulation.advance(nowNanos) == 0) return true;
+                if (simulation.isComplete()) {
+                    completed.add(room);
+                    selector.wakeup();
+                }
+                simulation.encodePlayers();
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < room.members.size; i++) {
+                    Peer member = room.members.get(i);
+                    body.clear();
+                    body.put(Protocol.SNAPSHOT);
+                    simulation.writeSnapshot(member.slot, body);
+                    body.flip();
+                    transmit(member.address, member.channel.wrapUnreliable(body, packet), now);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Thrown out of here, it would take the whole shard down
+                log("Room " + room.code + " tick failed: " + e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Announce levels the shards saw completed and stop simulating them
+     */
+    void maintainRooms(long now) throws IOException {
+        Room room;
+        while ((room = completed.poll()) != null) {
+            synchronized (room) {
+                RoomSimulation simulation = room.simulation;
+                // Replaced or closed since
+                if (simulation == null || !simulation.isComplete()) continue;
+                for (Peer member : room.members) {
+                    sendReliable(member, begin(Protocol.LEVEL_COMPLETE).put(simulation.worldIndex).put(simulation.levelIndex), now);
+                }
+                log("Room " + room.code + " completed level " + simulation.worldIndex + "-" + simulation.levelIndex);
+                stopSimulation(room);
+            }
+        }
+        if (now - lastStats >= STATS_MILLIS) {
+            lastStats = now;
+            log(rooms.size + " rooms, " + peers.size + " peers, loop p99 " + loopTime.percentile(0.99f)
+                + " ms, max " + loopTime.getMax() + " ms\n" + scheduler.describe());
+        }
+    }
+
+    RoomScheduler getScheduler() {
+        return scheduler;
+    }
+
+    Histogram getLoopTime() {
+        return loopTime;
+    }
+
+    /**
+     * Free the room's level; call with the room locked. The room stays on its shard until it closes.
+     */
+    private void stopSimulation(Room room) {
+        if (room.simulation != null) {
+            room.simulation.dispose();
+            room.simulation = null;
+        }
+    }
+
+    private void drop(Peer peer, long now) throws IOException {
+        leaveRoom(peer, now);
+        if (peer.isSignedIn()) {
+            log(peer.id + " disconnected");
+        }
+    }
+
+    /**
+     * Resend unacked packets and drop peers that went silent
+     */
+    private void maintainPeers(long now) throws IOException {
+        dropped.clear();
+        for (Peer peer : peers.values()) {
+            resends.clear();
+            boolean alive = peer.channel.collectResends(now, resends);
+            for (ByteBuffer packet : resends) {
+                transmit(peer.address, packet, now);
+            }
+            if (!alive || now - peer.lastHeard > TIMEOUT_MILLIS) {
+                dropped.add(peer);
+            }
+        }
+        for (Peer peer : dropped) {
+            peers.remove(peer.address);
+            drop(peer, now);
+        }
+    }
+
+    private void sendReliable(Peer peer, Writer writer, long now) throws IOException {
+        body.flip();
+        transmit(peer.address, peer.channel.wrapReliable(body, now), now);
+    }
+
+    private void transmit(SocketAddress to, ByteBuffer packet, long now) throws IOException {
+        if (lossRate > 0 && random.nextFloat() < lossRate) return;
+        if (latencyMillis > 0 || jitterMillis > 0) {
+            long due = now + latencyMillis + (jitterMillis > 0 ? random.nextInt(jitterMillis + 1) : 0);
+            // Shards reuse their packet buffers, so keep a copy
+            ByteBuffer copy = ByteBuffer.allocate(packet.remaining());
+            copy.put(packet.duplicate()).flip();
+            synchronized (delayed) {
+                delayed.add(new DelayedPacket(due, to, copy));
+            }
+            return;
+        }
+        datagram.send(packet, to);
+    }
+
+    private void flushDelayed(long now) throws IOException {
+        while (true) {
+            DelayedPacket packet;
+            synchronized (delayed) {
+                if (delayed.isEmpty() || delayed.peek().due > now) return;
+                packet = delayed.poll();
+            }
+            datagram.send(packet.packet, packet.to);
+        }
+    }
+
+    /**
+     * Start a message in the shared body buffer
+     */
+    private Writer begin(byte type) {
+        body.clear();
+        body.put(type);
+        return writer;
+    }
+
+    /**
+     * Chained writes into the shared body buffer
+     */
+    private class Writer {
+        Writer putString(String value) {
+            Protocol.putString(body, value);
+            return this;
+        }
+
+        Writer put(int value) {
+            body.put((byte) value);
+            return this;
+        }
+    }
+
+    private static void log(String message) {
+        System.out.println("[RelayServer] " + message);
+    }
+}
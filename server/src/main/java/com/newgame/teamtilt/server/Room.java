@@ -0,0 +1,52 @@
+package com.newgame.teamtilt.server;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Players sharing one room code; the first member is the host.
+ * Members, the simulation and the idle state are guarded by the room itself,
+ * since its scheduler shard reads them on another thread.
+ */
+class Room {
+    final String id;
+    final String code;
+    final int maxPlayers;
+    final Array<Peer> members = new Array<>();
+    // The level the room is playing, if anyone has started one
+    RoomSimulation simulation;
+    // System.nanoTime() of the newest input from any member
+    long lastInput;
+    boolean asleep;
+    // Scheduler shard ticking the room, or -1; selector thread only
+    int shard = -1;
+
+    Room(String code, int maxPlayers) {
+        this.id = "room_" + code;
+        this.code = code;
+        this.maxPlayers = maxPlayers;
+    }
+
+    boolean isFull() {
+        return members.size >= maxPlayers;
+    }
+
+    /**
+     * Lowest slot no member holds
+     */
+    int freeSlot() {
+        for (int slot = 0; ; slot++) {
+            boolean taken = false;
+            for (Peer member : members) {
+                if (member.slot == slot) {
+                    taken = true;
+                    break;
+                }
+            }
+            if (!taken) return slot;
+        }
+    }
+
+    boolean isHost(Peer peer) {
+        return members.size > 0 && members.first() == peer;
+    }
+}
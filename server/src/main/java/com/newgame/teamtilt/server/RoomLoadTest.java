@@ -0,0 +1,337 @@
+package com.newgame.teamtilt.server;
+
+import com.badlogic.gdx.utils.Array;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+import com.newgame.teamtilt.multiplayer.net.PeerChannel;
+import com.newgame.teamtilt.multiplayer.net.Protocol;
+import com.newgame.teamtilt.simulation.InputFrame;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fills one server process with rooms of scripted players and checks that
+ * every scheduler shard keeps up with the tick rate. Each player is a bot with
+ * a socket of its own that signs in, creates or joins a room and sends input
+ * at 60 Hz over loopback, like the game client does, so the run covers the
+ * selector thread, the reliable channel and the shards. Hosts pick the level
+ * and start it again whenever it is completed; the others follow the level
+ * the server announces. Exits with status 1 if the bots could not all get
+ * into a running level, or if any shard overran a tick while measuring.
+ * <p>
+ * Needs one file descriptor per bot. Run with e.g.
+ * {@code ./gradlew server:loadTest -PloadTestArgs="--rooms 1000 --players 4 --tick-rate 30"}.
+ */
+public final class RoomLoadTest {
+    private static final long FRAME_NANOS = Math.round(1_000_000_000d / 60);
+    // Input frames repeated in every message, as the client does
+    private static final int REDUNDANCY = 2;
+    // Time the bots get to sign in, fill their rooms and start playing
+    private static final long SETUP_NANOS = 60_000_000_000L;
+
+    /**
+     * One scripted client
+     */
+    private static final class Bot {
+        final int index;
+        // The room's host, or null for a host
+        final Bot host;
+        final DatagramChannel channel;
+        final PeerChannel peer = new PeerChannel();
+        boolean helloSent, signedIn, roomRequested, playing;
+        // Room code, once the host's room exists
+        String code;
+        int sequence;
+        int completions;
+
+        Bot(int index, Bot host, DatagramChannel channel) {
+            this.index = index;
+            this.host = host;
+            this.channel = channel;
+        }
+    }
+
+    private final ByteBuffer body = ByteBuffer.allocate(Protocol.MAX_PACKET_SIZE);
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_SIZE);
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(Protocol.MAX_PACKET_SIZE);
+    private final Array<ByteBuffer> delivered = new Array<>();
+    private final Array<ByteBuffer> resends = new Array<>();
+    private long snapshots = 0;
+    private long failures = 0;
+
+    private RoomLoadTest() {}
+
+    public static void main(String[] args) throws IOException {
+        int roomCount = 1000, players = 4, tickRate = RelayServer.DEFAULT_TICK_RATE;
+        int warmupSeconds = 5, seconds = 30;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "--rooms": roomCount = Integer.parseInt(args[i + 1]); break;
+                case "--players": players = Integer.parseInt(args[i + 1]); break;
+                case "--tick-rate": tickRate = Integer.parseInt(args[i + 1]); break;
+                case "--warmup": warmupSeconds = Integer.parseInt(args[i + 1]); break;
+                case "--seconds": seconds = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        players = Math.max(1, Math.min(MultiplayerService.MAX_ROOM_PLAYERS, players));
+
+        RelayServer.bootLevels();
+        RelayServer server = new RelayServer(new InetSocketAddress("127.0.0.1", 0), 0f, 0, 0, tickRate);
+        server.start();
+        InetSocketAddress serverAddress = new InetSocketAddress("127.0.0.1", server.getPort());
+        boolean passed = new RoomLoadTest().run(server, serverAddress, roomCount, players, tickRate, warmupSeconds, seconds);
+        server.close();
+        if (!passed) {
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private boolean run(RelayServer server, InetSocketAddress serverAddress, int roomCount, int players, int tickRate,
+                        int warmupSeconds, int seconds) throws IOException {
+        Selector selector = Selector.open();
+        Array<Bot> bots = new Array<>(roomCount * players);
+        for (int r = 0; r < roomCount; r++) {
+            Bot host = null;
+            for (int p = 0; p < players; p++) {
+                DatagramChannel channel = DatagramChannel.open();
+                channel.configureBlocking(false);
+                channel.connect(serverAddress);
+                Bot bot = new Bot(bots.size, host, channel);
+                channel.register(selector, SelectionKey.OP_READ, bot);
+                bots.add(bot);
+                if (host == null) host = bot;
+            }
+        }
+        RoomScheduler scheduler = server.getScheduler();
+        System.out.println(roomCount + " rooms of " + players + " players on "
+            + scheduler.getShardCount() + " shards at " + tickRate + " ticks/s");
+
+        long[][] tickBaselines = new long[scheduler.getShardCount()][];
+        long[] overrunBaselines = new long[scheduler.getShardCount()];
+        long[] loopBaseline = new long[server.getLoopTime().getBucketCount()];
+        long snapshotsAtStart = 0;
+        int completionsAtStart = 0;
+
+        long start = System.nanoTime();
+        long measureFrom = Long.MAX_VALUE, end = Long.MAX_VALUE;
+        long next = start;
+        boolean measuring = false;
+        try {
+            while (true) {
+                long frameStart = System.nanoTime();
+                if (frameStart >= end) break;
+                long now = System.currentTimeMillis();
+                receive(selector, now);
+
+                int playing = 0;
+                for (int i = 0; i < bots.size; i++) {
+                    Bot bot = bots.get(i);
+                    drive(bot, players, now);
+                    if (bot.playing) playing++;
+                    resends.clear();
+                    if (!bot.peer.collectResends(now, resends)) {
+                        System.out.println("FAILED: bot " + bot.index + " stopped getting acks from the server");
+                        return false;
+                    }
+                    for (ByteBuffer resend : resends) {
+                        bot.channel.write(resend);
+                    }
+                }
+
+                if (measureFrom == Long.MAX_VALUE) {
+                    if (playing == bots.size) {
+                        System.out.println("All bots playing after " + (frameStart - start) / 1_000_000 + " ms");
+                        measureFrom = frameStart + warmupSeconds * 1_000_000_000L;
+                        end = measureFrom + seconds * 1_000_000_000L;
+                    } else if (frameStart - start > SETUP_NANOS || failures > 0) {
+                        System.out.println("FAILED: only " + playing + " of " + bots.size + " bots reached a running level, "
+                            + failures + " joins refused");
+                        return false;
+                    }
+                }
+                if (!measuring && frameStart >= measureFrom) {
+                    measuring = true;
+                    snapshotsAtStart = snapshots;
+                    completionsAtStart = completions(bots);
+                    server.getLoopTime().copyCounts(loopBaseline);
+                    for (int shard = 0; shard < tickBaselines.length; shard++) {
+                        Histogram tickTime = scheduler.getTickTime(shard);
+                        tickBaselines[shard] = new long[tickTime.getBucketCount()];
+                        tickTime.copyCounts(tickBaselines[shard]);
+                        overrunBaselines[shard] = scheduler.getOverruns(shard).get();
+                    }
+                }
+
+                next += FRAME_NANOS;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    next = System.nanoTime();
+                }
+            }
+        } finally {
+            for (Bot bot : bots) {
+                bot.channel.close();
+            }
+            selector.close();
+        }
+
+        long totalOverruns = 0;
+        for (int shard = 0; shard < scheduler.getShardCount(); shard++) {
+            Histogram tickTime = scheduler.getTickTime(shard);
+            long overruns = scheduler.getOverruns(shard).get() - overrunBaselines[shard];
+            totalOverruns += overruns;
+            System.out.println("shard " + shard + ": tick p50 " + tickTime.percentileSince(0.5f, tickBaselines[shard])
+                + " ms, p99 " + tickTime.percentileSince(0.99f, tickBaselines[shard])
+                + " ms, max " + tickTime.getMax() + " ms, " + overruns + " overruns");
+        }
+        Histogram loopTime = server.getLoopTime();
+        System.out.println("selector loop: p50 " + loopTime.percentileSince(0.5f, loopBaseline)
+            + " ms, p99 " + loopTime.percentileSince(0.99f, loopBaseline) + " ms, max " + loopTime.getMax() + " ms");
+        long expected = (long) bots.size * tickRate;
+        long perSecond = (snapshots - snapshotsAtStart) / Math.max(1, seconds);
+        System.out.println("Tick budget " + scheduler.getPeriodNanos() / 1_000_000 + " ms, "
+            + (completions(bots) - completionsAtStart) + " levels completed, "
+            + perSecond + " of " + expected + " snapshots/s reached the bots");
+        if (totalOverruns > 0) {
+            System.out.println("FAILED: " + totalOverruns + " overruns");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Move the bot one frame further through sign-in, joining and playing
+     */
+    private void drive(Bot bot, int players, long now) throws IOException {
+        if (!bot.helloSent) {
+            bot.helloSent = true;
+            begin(Protocol.HELLO);
+            Protocol.putString(body, "Bot " + bot.index);
+            send(bot, true, now);
+        } else if (bot.signedIn && !bot.roomRequested) {
+            if (bot.host == null) {
+                bot.roomRequested = true;
+                begin(Protocol.CREATE_ROOM).put((byte) players);
+                send(bot, true, now);
+            } else if (bot.host.code != null) {
+                bot.roomRequested = true;
+                begin(Protocol.JOIN_ROOM);
+                Protocol.putString(body, bot.host.code);
+                send(bot, true, now);
+            }
+        } else if (bot.playing) {
+            int sequence = ++bot.sequence;
+            int first = Math.max(1, sequence - REDUNDANCY + 1);
+            begin(Protocol.INPUT).putInt(first).put((byte) (sequence - first + 1));
+            for (int s = first; s <= sequence; s++) {
+                body.put((byte) buttons(s + bot.index * 37));
+            }
+            send(bot, false, now);
+        }
+    }
+
+    private void receive(Selector selector, long now) throws IOException {
+        selector.selectNow();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            Bot bot = (Bot) keys.next().attachment();
+            keys.remove();
+            while (true) {
+                receiveBuffer.clear();
+                if (bot.channel.receive(receiveBuffer) == null) break;
+                receiveBuffer.flip();
+                if (receiveBuffer.remaining() < Protocol.HEADER_SIZE) continue;
+                byte channel = receiveBuffer.get();
+                int sequence = receiveBuffer.getInt();
+                if (channel == Protocol.CHANNEL_ACK) {
+                    bot.peer.acknowledge(sequence);
+                } else if (channel == Protocol.CHANNEL_UNRELIABLE) {
+                    if (receiveBuffer.hasRemaining() && receiveBuffer.get(receiveBuffer.position()) == Protocol.SNAPSHOT) {
+                        snapshots++;
+                    }
+                } else if (channel == Protocol.CHANNEL_RELIABLE) {
+                    bot.channel.write(PeerChannel.ack(sequence));
+                    delivered.clear();
+                    bot.peer.receiveReliable(sequence, receiveBuffer, delivered);
+                    for (ByteBuffer message : delivered) {
+                        handle(bot, message, now);
+                    }
+                }
+            }
+        }
+    }
+
+    private void handle(Bot bot, ByteBuffer message, long now) throws IOException {
+        switch (message.get()) {
+            case Protocol.WELCOME:
+                bot.signedIn = true;
+                break;
+            case Protocol.ROOM_CREATED:
+                Protocol.getString(message);
+                bot.code = Protocol.getString(message);
+                startLevel(bot, 1, 1, now);
+                break;
+            case Protocol.JOIN_FAILED:
+                failures++;
+                break;
+            case Protocol.LEVEL_STARTED:
+                // Load what the host picked, as the client does
+                startLevel(bot, message.get(), message.get(), now);
+                break;
+            case Protocol.LEVEL_COMPLETE:
+                bot.playing = false;
+                bot.completions++;
+                if (bot.host == null) {
+                    startLevel(bot, 1, 1, now);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void startLevel(Bot bot, int worldIndex, int levelIndex, long now) throws IOException {
+        begin(Protocol.START_LEVEL).put((byte) worldIndex).put((byte) levelIndex);
+        send(bot, true, now);
+        bot.sequence = 0;
+        bot.playing = true;
+    }
+
+    private ByteBuffer begin(byte type) {
+        body.clear();
+        return body.put(type);
+    }
+
+    private void send(Bot bot, boolean reliable, long now) throws IOException {
+        body.flip();
+        bot.channel.write(reliable ? bot.peer.wrapReliable(body, now) : bot.peer.wrapUnreliable(body, packet));
+    }
+
+    private static int completions(Array<Bot> bots) {
+        int total = 0;
+        for (Bot bot : bots) {
+            if (bot.host == null) total += bot.completions;
+        }
+        return total;
+    }
+
+    /**
+     * Scripted buttons: run right, turn back briefly, jump now and then
+     */
+    private static int buttons(int frame) {
+        int buttons = frame % 180 < 120 ? InputFrame.RIGHT : InputFrame.LEFT;
+        if (frame % 40 == 0) buttons |= InputFrame.JUMP;
+        return buttons;
+    }
+}
@@ -0,0 +1,196 @@
+package com.newgame.teamtilt.server;
+
+import com.badlogic.gdx.utils.Array;
+import com.newgame.teamtilt.metrics.Counter;
+import com.newgame.teamtilt.metrics.Gauge;
+import com.newgame.teamtilt.metrics.Histogram;
+import com.newgame.teamtilt.metrics.MetricNames;
+import com.newgame.teamtilt.metrics.Metrics;
+import com.newgame.teamtilt.multiplayer.net.Protocol;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ticks rooms on a fixed pool of shard threads, one per core. A room stays on
+ * the shard it was given for its whole life, so no room is ever ticked by two
+ * threads and shards never wait on each other. Each period a shard ticks all
+ * of its rooms back to back with its own reused buffers, then parks until the
+ * next period; a pass that runs into the next period is counted as an overrun
+ * and the missed periods are skipped rather than run in a burst. Rooms are
+ * handed over through queues the shard drains between passes.
+ */
+class RoomScheduler {
+    /**
+     * The per-room work, called on the room's shard thread
+     */
+    interface RoomTicker {
+        /**
+         * @param body Scratch buffer for a message body
+         * @param packet Scratch direct buffer for the framed packet
+         * @return False if the room had nothing to run this period, e.g. because it is asleep
+         */
+        boolean tick(Room room, long nowNanos, ByteBuffer body, ByteBuffer packet);
+    }
+
+    private final RoomTicker ticker;
+    private final long periodNanos;
+    private final Shard[] shards;
+    private volatile boolean running = false;
+
+    RoomScheduler(RoomTicker ticker, int tickRate, int shardCount) {
+        this.ticker = ticker;
+        this.periodNanos = 1_000_000_000L / Math.max(1, tickRate);
+        shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    void start() {
+        running = true;
+        for (Shard shard : shards) {
+            shard.thread = new Thread(shard, "room-shard-" + shard.index);
+            shard.thread.setDaemon(true);
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Stop every shard and wait for its current pass to finish
+     */
+    void stop() {
+        running = false;
+        for (Shard shard : shards) {
+            if (shard.thread == null) continue;
+            LockSupport.unpark(shard.thread);
+            try {
+                shard.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            shard.thread = null;
+        }
+    }
+
+    /**
+     * Start ticking a room on the shard with the fewest rooms
+     */
+    void add(Room room) {
+        Shard target = shards[0];
+        for (Shard shard : shards) {
+            if (shard.load.get() < target.load.get()) target = shard;
+        }
+        target.load.incrementAndGet();
+        room.shard = target.index;
+        target.added.add(room);
+    }
+
+    /**
+     * Stop ticking a room; its shard lets go of it before the next pass
+     */
+    void remove(Room room) {
+        if (room.shard < 0) return;
+        Shard shard = shards[room.shard];
+        room.shard = -1;
+        shard.load.decrementAndGet();
+        shard.removed.add(room);
+    }
+
+    int getShardCount() {
+        return shards.length;
+    }
+
+    long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    Histogram getTickTime(int shard) {
+        return shards[shard].tickTime;
+    }
+
+    Counter getOverruns(int shard) {
+        return shards[shard].overruns;
+    }
+
+    /**
+     * One line per shard: rooms, rooms asleep, tick time and overruns
+     */
+    String describe() {
+        StringBuilder out = new StringBuilder();
+        for (Shard shard : shards) {
+            if (out.length() > 0) out.append('\n');
+            out.append("shard ").append(shard.index).append(": ")
+                .append((int) shard.rooms.get()).append(" rooms, ")
+                .append((int) shard.asleep.get()).append(" asleep, tick p99 ")
+                .append(shard.tickTime.percentile(0.99f)).append(" ms, max ")
+                .append(shard.tickTime.getMax()).append(" ms, ")
+                .append(shard.overruns.get()).append(" overruns");
+        }
+        return out.toString();
+    }
+
+    private final class Shard implements Runnable {
+        final int index;
+        // Rooms assigned, counting ones still queued; read by other threads to balance
+        final AtomicInteger load = new AtomicInteger();
+        final ConcurrentLinkedQueue<Room> added = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Room> removed = new ConcurrentLinkedQueue<>();
+        // Shard thread only
+        final Array<Room> owned = new Array<>(false, 64);
+        final ByteBuffer body = ByteBuffer.allocate(Protocol.MAX_PACKET_SIZE);
+        final ByteBuffer packet = ByteBuffer.allocateDirect(Protocol.MAX_PACKET_SIZE);
+        // Written by the shard thread only
+        final Histogram tickTime;
+        final Counter overruns;
+        final Gauge rooms;
+        final Gauge asleep;
+        Thread thread;
+
+        Shard(int index) {
+            this.index = index;
+            String prefix = MetricNames.SERVER_SHARD_PREFIX + index;
+            tickTime = Metrics.timer(prefix + MetricNames.SERVER_SHARD_TICK_TIME);
+            overruns = Metrics.counter(prefix + MetricNames.SERVER_SHARD_OVERRUNS);
+            rooms = Metrics.gauge(prefix + MetricNames.SERVER_SHARD_ROOMS);
+            asleep = Metrics.gauge(prefix + MetricNames.SERVER_SHARD_ASLEEP);
+        }
+
+        @Override
+        public void run() {
+            long next = System.nanoTime();
+            while (running) {
+                long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                Room room;
+                while ((room = added.poll()) != null) {
+                    owned.add(room);
+                }
+                while ((room = removed.poll()) != null) {
+                    owned.removeValue(room, true);
+                }
+
+                int idle = 0;
+                for (int i = 0; i < owned.size; i++) {
+                    if (!ticker.tick(owned.get(i), now, body, packet)) idle++;
+                }
+                long end = System.nanoTime();
+                tickTime.record((end - now) / 1_000_000f);
+                rooms.set(owned.size);
+                asleep.set(idle);
+
+                next += periodNanos;
+                if (end > next) {
+                    // Ran into the next period: skip what was missed instead of spiralling
+                    overruns.increment();
+                    next += (end - next) / periodNanos * periodNanos + periodNanos;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.newgame.teamtilt.server;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Disposable;
+import com.newgame.teamtilt.Player;
+import com.newgame.teamtilt.levels.LevelFactory;
+import com.newgame.teamtilt.multiplayer.MultiplayerService;
+import com.newgame.teamtilt.multiplayer.net.PlayerDataCodec;
+import com.newgame.teamtilt.simulation.GameSimulation;
+import com.newgame.teamtilt.simulation.InputFrame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The authoritative run of one room's level. Every member drives a player
+ * with the input frames its client sends; the server steps the same Box2D
+ * simulation the clients predict with, and its results are what the room
+ * sees. Each slot encodes its player for the others with a codec of its own,
+ * so delta baselines and acks work exactly as they do between clients.
+ * Not thread safe: used under the room's lock.
+ */
+class RoomSimulation implements Disposable {
+    private static final int MAX_SLOTS = PlayerDataCodec.MAX_SLOTS;
+    // Input frames buffered per player, indexed by sequence
+    private static final int INPUT_CAPACITY = 64;
+    // Frames a player may run ahead of the server, beyond one tick's worth, before the oldest are merged away
+    private static final int MAX_BACKLOG = 8;
+    private static final long STEP_NANOS = Math.round(GameSimulation.TIME_STEP * 1_000_000_000d);
+    // Fewest steps one tick may run before the rest of the time owed is dropped, e.g. after a stall
+    private static final int MAX_STEPS_PER_TICK = 5;
+    // Largest PLAYER_DATA payload: header, baseline, four fields and an ack for every other slot
+    private static final int MAX_ENCODED = 4 + 2 * 4 + 1 + 2 * (MAX_SLOTS - 1);
+
+    final int worldIndex, levelIndex;
+    // Most time one tick may owe, and most frames a player may be ahead; both cover a whole
+    // tick period however low the tick rate, so the room never runs slower than real time
+    private final long maxAccumulated;
+    private final int maxBacklog;
+    private final GameSimulation simulation;
+    private final Player[] players = new Player[MAX_SLOTS];
+    private final InputFrame[] inputs = new InputFrame[MAX_SLOTS];
+    private final String[] ids = new String[MAX_SLOTS];
+    private final int[][] bufferedButtons = new int[MAX_SLOTS][INPUT_CAPACITY];
+    private final int[][] bufferedSequences = new int[MAX_SLOTS][INPUT_CAPACITY];
+    // Newest input sequence applied and received per slot; 0 before the first
+    private final int[] applied = new int[MAX_SLOTS];
+    private final int[] newest = new int[MAX_SLOTS];
+    // Movement carried over when a frame is missing; jumps are never repeated
+    private final int[] held = new int[MAX_SLOTS];
+    private final PlayerDataCodec[] codecs = new PlayerDataCodec[MAX_SLOTS];
+    private final MultiplayerService.PlayerData data = new MultiplayerService.PlayerData(null);
+    // This tick's PLAYER_DATA payload per slot, encoded once and copied into every snapshot
+    private final ByteBuffer encoded = ByteBuffer.allocate(MAX_SLOTS * MAX_ENCODED);
+    private final int[] encodedStart = new int[MAX_SLOTS];
+    private final int[] encodedLength = new int[MAX_SLOTS];
+    private long lastTick = 0;
+    private long accumulator = 0;
+    private boolean complete = false;
+
+    /**
+     * @param worldIndex 1-based, as the members asked for it
+     * @param levelIndex 1-based, as the members asked for it
+     * @param periodNanos Time between calls to {@link #advance(long)}
+     */
+    RoomSimulation(int worldIndex, int levelIndex, long periodNanos) {
+        this.worldIndex = worldIndex;
+        this.levelIndex = levelIndex;
+        long stepsPerPeriod = (periodNanos + STEP_NANOS - 1) / STEP_NANOS;
+        maxAccumulated = Math.max(MAX_STEPS_PER_TICK, stepsPerPeriod) * STEP_NANOS;
+        maxBacklog = Math.min(INPUT_CAPACITY / 2, MAX_BACKLOG + (int) stepsPerPeriod);
+        // Rooms step on every shard at once; each shard times its own ticks instead
+        simulation = new GameSimulation(LevelFactory.getLevel(worldIndex, levelIndex), false);
+        simulation.setListener(new GameSimulation.Listener() {
+            @Override
+            public void onPlayerJumped(Player player) {
+            }
+
+            @Override
+            public void onLevelComplete(Player player) {
+                complete = true;
+            }
+        });
+        // Quantize across the same bounds the clients derive from their copy of the level
+        Rectangle bounds = simulation.getBounds();
+        for (int slot = 0; slot < MAX_SLOTS; slot++) {
+            codecs[slot] = new PlayerDataCodec();
+            codecs[slot].setBounds(bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height);
+        }
+    }
+
+    /**
+     * Spawn a player for the member in the slot, replacing any player already there
+     */
+    void addMember(int slot, String playerId) {
+        removeMember(slot);
+        players[slot] = simulation.addPlayer();
+        inputs[slot] = simulation.getInput(simulation.getPlayerCount() - 1);
+        ids[slot] = playerId;
+        codecs[slot].setLocalSlot(slot, playerId);
+        for (int other = 0; other < MAX_SLOTS; other++) {
+            if (other == slot || ids[other] == null) continue;
+            codecs[slot].assign(other, ids[other]);
+            codecs[other].assign(slot, playerId);
+        }
+    }
+
+    void removeMember(int slot) {
+        if (players[slot] == null) return;
+        simulation.removePlayer(players[slot]);
+        players[slot] = null;
+        inputs[slot] = null;
+        ids[slot] = null;
+        Arrays.fill(bufferedSequences[slot], 0);
+        applied[slot] = newest[slot] = held[slot] = 0;
+        codecs[slot].reset();
+        for (int other = 0; other < MAX_SLOTS; other++) {
+            if (ids[other] != null) codecs[other].release(slot);
+        }
+    }
+
+    /**
+     * The member restarted the level: respawn its player and expect input sequences from 1 again
+     */
+    void restartMember(int slot) {
+        String playerId = ids[slot];
+        if (playerId != null) {
+            addMember(slot, playerId);
+        }
+    }
+
+    boolean hasMember(int slot) {
+        return players[slot] != null;
+    }
+
+    /**
+     * Buffer the frames of an INPUT message, positioned after its type byte
+     */
+    void receiveInput(int slot, ByteBuffer message) {
+        if (players[slot] == null || message.remaining() < 5) return;
+        int first = message.getInt();
+        int count = Math.min(message.get() & 0xFF, message.remaining());
+        int[] buttons = bufferedButtons[slot];
+        int[] sequences = bufferedSequences[slot];
+        for (int i = 0; i < count; i++) {
+            int sequence = first + i;
+            int frame = message.get();
+            if (sequence <= applied[slot] || sequence - applied[slot] > INPUT_CAPACITY) continue;
+            buttons[sequence % INPUT_CAPACITY] = frame;
+            sequences[sequence % INPUT_CAPACITY] = sequence;
+            newest[slot] = Math.max(newest[slot], sequence);
+        }
+    }
+
+    /**
+     * Take the acks from a member's PLAYER_DATA message, positioned after its type byte.
+     * Clients still report their own state, but only the acks are used.
+     */
+    void receivePlayerData(int slot, ByteBuffer message) {
+        int start = message.position();
+        for (int other = 0; other < MAX_SLOTS; other++) {
+            if (other == slot || ids[other] == null) continue;
+            message.position(start);
+            codecs[other].decode(message, data);
+        }
+    }
+
+    /**
+     * Forget the time spent asleep, so waking up does not run a burst of catch-up steps
+     */
+    void resume() {
+        lastTick = 0;
+        accumulator = 0;
+    }
+
+    /**
+     * Run the steps that fell due since the last tick
+     * @return Number of steps taken
+     */
+    int advance(long now) {
+        if (lastTick == 0) lastTick = now - STEP_NANOS;
+        accumulator = Math.min(accumulator + now - lastTick, maxAccumulated);
+        lastTick = now;
+        int steps = 0;
+        while (accumulator >= STEP_NANOS && !complete) {
+            for (int slot = 0; slot < MAX_SLOTS; slot++) {
+                if (inputs[slot] != null) nextInput(slot);
+            }
+            simulation.step();
+            accumulator -= STEP_NANOS;
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Fill the slot's input frame with the next buffered frame, or repeat held movement if it has not arrived
+     */
+    private void nextInput(int slot) {
+        int[] buttons = bufferedButtons[slot];
+        int[] sequences = bufferedSequences[slot];
+        int jump = 0;
+        // A client running ahead of the server loses its oldest frames, but not their jumps
+        while (newest[slot] - applied[slot] > maxBacklog) {
+            int skipped = ++applied[slot];
+            if (sequences[skipped % INPUT_CAPACITY] == skipped) jump |= buttons[skipped % INPUT_CAPACITY] & InputFrame.JUMP;
+        }
+        int next = applied[slot] + 1;
+        if (sequences[next % INPUT_CAPACITY] == next) {
+            held[slot] = buttons[next % INPUT_CAPACITY] & ~InputFrame.JUMP;
+            inputs[slot].buttons = buttons[next % INPUT_CAPACITY] | jump;
+            applied[slot] = next;
+        } else {
+            inputs[slot].buttons = held[slot] | jump;
+        }
+    }
+
+    /**
+     * Encode every player's state after this tick's steps; call once per tick, before
+     * {@link #writeSnapshot}
+     */
+    void encodePlayers() {
+        encoded.clear();
+        for (int slot = 0; slot < MAX_SLOTS; slot++) {
+            encodedStart[slot] = encoded.position();
+            if (players[slot] != null) {
+                codecs[slot].encode(players[slot].getPlayerData(data), encoded);
+            }
+            encodedLength[slot] = encoded.position() - encodedStart[slot];
+        }
+    }
+
+    /**
+     * Append a SNAPSHOT payload for the member in the slot: its own state, if it has sent
+     * input yet, and every other player's encoded data
+     */
+    void writeSnapshot(int slot, ByteBuffer out) {
+        if (players[slot] != null && applied[slot] > 0) {
+            players[slot].getPlayerData(data);
+            out.put((byte) 1).putInt(applied[slot]);
+            out.putFloat(data.x).putFloat(data.y).putFloat(data.velocityX).putFloat(data.velocityY);
+        } else {
+            out.put((byte) 0);
+        }
+        int countPosition = out.position();
+        out.put((byte) 0);
+        int count = 0;
+        byte[] bytes = encoded.array();
+        for (int other = 0; other < MAX_SLOTS; other++) {
+            if (other == slot || encodedLength[other] == 0) continue;
+            out.put(bytes, encodedStart[other], encodedLength[other]);
+            count++;
+        }
+        out.put(countPosition, (byte) count);
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public void dispose() {
+        simulation.dispose();
+    }
+}